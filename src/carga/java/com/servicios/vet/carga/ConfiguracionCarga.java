@@ -0,0 +1,106 @@
+package com.servicios.vet.carga;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parámetros de una prueba de carga, leídos de propiedades del sistema (-Dcarga.xxx).
+ * 
+ * La mezcla de operaciones se indica como pesos relativos, por ejemplo
+ * "servicios=5,listar=25,obtener=40,crear=20,pagar=10"; las operaciones que no
+ * aparecen no se ejecutan.
+ */
+public class ConfiguracionCarga {
+    private final int servicios;
+    private final int facturas;
+    private final int clientes;
+    private final int calentamientoSegundos;
+    private final int duracionSegundos;
+    private final Map<Operacion, Integer> mezcla;
+    private final String directorioResultados;
+
+    public ConfiguracionCarga(int servicios, int facturas, int clientes, int calentamientoSegundos,
+                              int duracionSegundos, Map<Operacion, Integer> mezcla, String directorioResultados) {
+        this.servicios = servicios;
+        this.facturas = facturas;
+        this.clientes = clientes;
+        this.calentamientoSegundos = calentamientoSegundos;
+        this.duracionSegundos = duracionSegundos;
+        this.mezcla = mezcla;
+        this.directorioResultados = directorioResultados;
+    }
+
+    /**
+     * Lee la configuración de las propiedades del sistema, con valores por defecto
+     */
+    public static ConfiguracionCarga desdePropiedades() {
+        return new ConfiguracionCarga(
+            Integer.getInteger("carga.servicios", 50),
+            Integer.getInteger("carga.facturas", 10000),
+            Integer.getInteger("carga.clientes", 32),
+            Integer.getInteger("carga.calentamiento", 10),
+            Integer.getInteger("carga.duracion", 30),
+            leerMezcla(System.getProperty("carga.mezcla", "servicios=5,listar=25,obtener=40,crear=20,pagar=10")),
+            System.getProperty("carga.resultados", "target/carga"));
+    }
+
+    /**
+     * Convierte un texto "operacion=peso,..." en los pesos de cada operación
+     * 
+     * @throws IllegalArgumentException Si una operación no existe o un peso no es válido
+     */
+    static Map<Operacion, Integer> leerMezcla(String texto) {
+        Map<Operacion, Integer> mezcla = new EnumMap<>(Operacion.class);
+        for (String parte : texto.split(",")) {
+            String[] claveValor = parte.trim().split("=");
+            if (claveValor.length != 2) {
+                throw new IllegalArgumentException("Mezcla inválida: " + parte);
+            }
+            int peso = Integer.parseInt(claveValor[1].trim());
+            if (peso < 0) {
+                throw new IllegalArgumentException("El peso no puede ser negativo: " + parte);
+            }
+            if (peso > 0) {
+                mezcla.put(Operacion.porNombre(claveValor[0].trim()), peso);
+            }
+        }
+        if (mezcla.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla debe incluir al menos una operación");
+        }
+        return mezcla;
+    }
+
+    public int getServicios() {
+        return servicios;
+    }
+
+    public int getFacturas() {
+        return facturas;
+    }
+
+    public int getClientes() {
+        return clientes;
+    }
+
+    public int getCalentamientoSegundos() {
+        return calentamientoSegundos;
+    }
+
+    public int getDuracionSegundos() {
+        return duracionSegundos;
+    }
+
+    public Map<Operacion, Integer> getMezcla() {
+        return mezcla;
+    }
+
+    public String getDirectorioResultados() {
+        return directorioResultados;
+    }
+
+    @Override
+    public String toString() {
+        return "servicios=" + servicios + ", facturas=" + facturas + ", clientes=" + clientes
+            + ", calentamiento=" + calentamientoSegundos + "s, duracion=" + duracionSegundos + "s, mezcla=" + mezcla;
+    }
+}
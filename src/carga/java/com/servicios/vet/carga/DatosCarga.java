@@ -0,0 +1,47 @@
+package com.servicios.vet.carga;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * IDs de servicios y facturas que los clientes usan para armar sus peticiones.
+ * 
+ * Las consultas eligen entre las facturas sembradas (una lista fija, que se lee sin
+ * sincronización). Las facturas sembradas y las creadas durante la prueba entran en la
+ * cola de pendientes, de donde se toman para pagarlas una sola vez.
+ */
+public class DatosCarga {
+    private final List<String> servicios;
+    private final List<String> facturas;
+    private final Queue<String> pendientes = new ConcurrentLinkedQueue<>();
+
+    public DatosCarga(List<String> servicios, List<String> facturas) {
+        this.servicios = List.copyOf(servicios);
+        this.facturas = List.copyOf(facturas);
+        this.pendientes.addAll(facturas);
+    }
+
+    /**
+     * Registra una factura creada durante la prueba, para poder pagarla después
+     */
+    public void agregarFactura(String id) {
+        pendientes.add(id);
+    }
+
+    public String servicioAlAzar() {
+        return servicios.get(ThreadLocalRandom.current().nextInt(servicios.size()));
+    }
+
+    public String facturaAlAzar() {
+        return facturas.get(ThreadLocalRandom.current().nextInt(facturas.size()));
+    }
+
+    /**
+     * Toma una factura pendiente de pago, o null si no queda ninguna
+     */
+    public String tomarPendiente() {
+        return pendientes.poll();
+    }
+}
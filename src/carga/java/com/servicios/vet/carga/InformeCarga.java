@@ -0,0 +1,105 @@
+package com.servicios.vet.carga;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registra la latencia de cada petición por endpoint y arma el informe final.
+ * 
+ * Las latencias se guardan en histogramas HdrHistogram (con precisión de 3 dígitos
+ * hasta 1 minuto), que se pueden registrar desde muchos hilos a la vez sin bloquearse.
+ * Además del resumen por consola, se escribe la distribución completa de cada endpoint
+ * en un archivo .hgrm, que se puede graficar con el HdrHistogram Plotter.
+ */
+public class InformeCarga {
+    private static final long LATENCIA_MAXIMA_NS = TimeUnit.MINUTES.toNanos(1);
+    private static final double NS_POR_MS = 1_000_000.0;
+
+    private final Map<Operacion, Recorder> latencias = new EnumMap<>(Operacion.class);
+    private final Map<Operacion, AtomicLong> errores = new EnumMap<>(Operacion.class);
+    private volatile long inicioNs = System.nanoTime();
+
+    public InformeCarga() {
+        for (Operacion operacion : Operacion.values()) {
+            latencias.put(operacion, new Recorder(LATENCIA_MAXIMA_NS, 3));
+            errores.put(operacion, new AtomicLong());
+        }
+    }
+
+    /**
+     * Registra una petición terminada
+     * 
+     * @param exitosa false si respondió con un código de error o no hubo respuesta
+     */
+    public void registrar(Operacion operacion, long duracionNs, boolean exitosa) {
+        latencias.get(operacion).recordValue(Math.min(duracionNs, LATENCIA_MAXIMA_NS));
+        if (!exitosa) {
+            errores.get(operacion).incrementAndGet();
+        }
+    }
+
+    /**
+     * Descarta lo registrado hasta ahora (por ejemplo, al terminar el calentamiento)
+     */
+    public void reiniciar() {
+        for (Operacion operacion : Operacion.values()) {
+            latencias.get(operacion).reset();
+            errores.get(operacion).set(0);
+        }
+        inicioNs = System.nanoTime();
+    }
+
+    /**
+     * Imprime el resumen por endpoint y guarda la distribución de cada uno
+     * 
+     * @param salida Donde se imprime el resumen
+     * @param directorio Carpeta donde se escriben los archivos .hgrm
+     */
+    public void imprimir(PrintStream salida, Path directorio) throws FileNotFoundException {
+        double segundos = (System.nanoTime() - inicioNs) / 1e9;
+        Histogram total = new Histogram(LATENCIA_MAXIMA_NS, 3);
+        long erroresTotales = 0;
+
+        salida.printf("%n%-30s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+            "Endpoint", "Peticiones", "Errores", "Pet/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "Máx ms");
+        for (Operacion operacion : Operacion.values()) {
+            Histogram histograma = latencias.get(operacion).getIntervalHistogram();
+            long cantidadErrores = errores.get(operacion).get();
+            if (histograma.getTotalCount() == 0) {
+                continue;
+            }
+            imprimirFila(salida, operacion.getEndpoint(), histograma, cantidadErrores, segundos);
+            guardarDistribucion(histograma, directorio.resolve(operacion.getNombre() + ".hgrm"));
+            total.add(histograma);
+            erroresTotales += cantidadErrores;
+        }
+        imprimirFila(salida, "TOTAL", total, erroresTotales, segundos);
+        guardarDistribucion(total, directorio.resolve("total.hgrm"));
+        salida.printf("%nDuración medida: %.1f s. Distribuciones completas en %s%n", segundos, directorio);
+    }
+
+    private void imprimirFila(PrintStream salida, String nombre, Histogram histograma, long cantidadErrores,
+                              double segundos) {
+        salida.printf("%-30s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", nombre,
+            histograma.getTotalCount(), cantidadErrores, histograma.getTotalCount() / segundos,
+            histograma.getValueAtPercentile(50) / NS_POR_MS,
+            histograma.getValueAtPercentile(90) / NS_POR_MS,
+            histograma.getValueAtPercentile(99) / NS_POR_MS,
+            histograma.getValueAtPercentile(99.9) / NS_POR_MS,
+            histograma.getMaxValue() / NS_POR_MS);
+    }
+
+    private void guardarDistribucion(Histogram histograma, Path archivo) throws FileNotFoundException {
+        try (PrintStream salida = new PrintStream(archivo.toFile())) {
+            histograma.outputPercentileDistribution(salida, NS_POR_MS);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.servicios.vet.carga;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Operaciones de la API que puede ejecutar un cliente durante la prueba de carga.
+ * 
+ * Cada operación arma su petición a partir de los datos sembrados (IDs de servicios
+ * y de facturas), eligiendo los IDs al azar.
+ */
+public enum Operacion {
+    SERVICIOS("servicios", "GET /api/servicio"),
+    LISTAR("listar", "GET /api/factura"),
+    OBTENER("obtener", "GET /api/factura/{id}"),
+    CREAR("crear", "POST /api/factura"),
+    PAGAR("pagar", "PUT /api/factura/{id}/pagar");
+
+    // Cantidad de servicios que incluye cada factura creada durante la prueba
+    private static final int SERVICIOS_POR_FACTURA = 3;
+
+    private final String nombre;
+    private final String endpoint;
+
+    Operacion(String nombre, String endpoint) {
+        this.nombre = nombre;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Busca la operación por el nombre usado en la mezcla (carga.mezcla)
+     * 
+     * @throws IllegalArgumentException Si no existe una operación con ese nombre
+     */
+    public static Operacion porNombre(String nombre) {
+        for (Operacion operacion : values()) {
+            if (operacion.nombre.equals(nombre)) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida: " + nombre);
+    }
+
+    /**
+     * Arma la petición HTTP de esta operación
+     * 
+     * @param base URL base de la aplicación (por ejemplo http://localhost:8080)
+     * @param datos Los IDs disponibles para usar en la petición
+     * @return La petición, o null si no hay datos para ejecutarla (por ejemplo, nada que pagar)
+     */
+    public HttpRequest peticion(String base, DatosCarga datos) {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+        switch (this) {
+            case SERVICIOS:
+                return get(base + "/api/servicio");
+            case LISTAR:
+                return get(base + "/api/factura?tamano=" + (azar.nextBoolean() ? 20 : 100));
+            case OBTENER:
+                return get(base + "/api/factura/" + datos.facturaAlAzar());
+            case CREAR:
+                StringBuilder cuerpo = new StringBuilder("{\"serviciosIds\":[");
+                for (int i = 0; i < SERVICIOS_POR_FACTURA; i++) {
+                    cuerpo.append(i > 0 ? "," : "").append('"').append(datos.servicioAlAzar()).append('"');
+                }
+                cuerpo.append("]}");
+                return HttpRequest.newBuilder(URI.create(base + "/api/factura"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(cuerpo.toString()))
+                    .build();
+            case PAGAR:
+                String pendiente = datos.tomarPendiente();
+                if (pendiente == null) {
+                    return null;
+                }
+                return HttpRequest.newBuilder(URI.create(base + "/api/factura/" + pendiente + "/pagar"))
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            default:
+                throw new IllegalStateException("Operación sin petición: " + this);
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,173 @@
+package com.servicios.vet.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servicios.vet.VetApplication;
+import com.servicios.vet.service.FacturaService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Prueba de carga de extremo a extremo.
+ * 
+ * Inicia la aplicación completa con el perfil "carga" (base H2 local en modo Oracle),
+ * siembra servicios y facturas, y luego lanza varios clientes concurrentes que llaman
+ * a la API por HTTP según una mezcla de operaciones configurable. Primero hay un
+ * período de calentamiento que no se mide; después se mide durante la duración pedida
+ * y se imprime, por endpoint, la cantidad de peticiones, errores, peticiones por segundo
+ * y los percentiles de latencia.
+ * 
+ * Cada cliente espera la respuesta antes de enviar la siguiente petición (carga de
+ * lazo cerrado), así que las latencias no incluyen el tiempo que una petición habría
+ * esperado para salir si el sistema se atrasa.
+ * 
+ * Se ejecuta con: mvn -Pcarga test-compile exec:exec (ver README para los parámetros).
+ */
+public class PruebaCarga {
+
+    public static void main(String[] argumentos) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdePropiedades();
+        System.out.println("Configuración: " + configuracion);
+
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(VetApplication.class)
+                .profiles("carga")
+                .run(argumentos)) {
+            String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+
+            long inicioSiembra = System.nanoTime();
+            DatosCarga datos = new SembradorDatos(contexto.getBean(FacturaService.class))
+                .sembrar(configuracion.getServicios(), configuracion.getFacturas());
+            System.out.printf("Sembrados %d servicios y %d facturas en %.1f s%n", configuracion.getServicios(),
+                configuracion.getFacturas(), (System.nanoTime() - inicioSiembra) / 1e9);
+
+            InformeCarga informe = new PruebaCarga(configuracion, base, datos).ejecutar();
+
+            Path directorio = Path.of(configuracion.getDirectorioResultados());
+            Files.createDirectories(directorio);
+            informe.imprimir(System.out, directorio);
+        }
+    }
+
+    private final ConfiguracionCarga configuracion;
+    private final String base;
+    private final DatosCarga datos;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final InformeCarga informe = new InformeCarga();
+    private final Operacion[] operaciones;
+    private final int[] pesosAcumulados;
+    private volatile boolean detener;
+
+    public PruebaCarga(ConfiguracionCarga configuracion, String base, DatosCarga datos) {
+        this.configuracion = configuracion;
+        this.base = base;
+        this.datos = datos;
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+        // Tabla de pesos acumulados para elegir cada operación según la mezcla
+        Map<Operacion, Integer> mezcla = configuracion.getMezcla();
+        this.operaciones = mezcla.keySet().toArray(new Operacion[0]);
+        this.pesosAcumulados = new int[operaciones.length];
+        int acumulado = 0;
+        for (int i = 0; i < operaciones.length; i++) {
+            acumulado += mezcla.get(operaciones[i]);
+            pesosAcumulados[i] = acumulado;
+        }
+    }
+
+    /**
+     * Lanza los clientes, calienta, mide y los detiene
+     */
+    public InformeCarga ejecutar() throws InterruptedException {
+        List<Thread> clientes = new ArrayList<>(configuracion.getClientes());
+        for (int i = 0; i < configuracion.getClientes(); i++) {
+            Thread cliente = new Thread(this::atender, "cliente-carga-" + i);
+            cliente.setDaemon(true);
+            clientes.add(cliente);
+            cliente.start();
+        }
+
+        System.out.printf("Calentando durante %d s...%n", configuracion.getCalentamientoSegundos());
+        Thread.sleep(configuracion.getCalentamientoSegundos() * 1000L);
+        informe.reiniciar();
+
+        System.out.printf("Midiendo durante %d s con %d clientes...%n",
+            configuracion.getDuracionSegundos(), configuracion.getClientes());
+        Thread.sleep(configuracion.getDuracionSegundos() * 1000L);
+        detener = true;
+        for (Thread cliente : clientes) {
+            cliente.join();
+        }
+        return informe;
+    }
+
+    /**
+     * Ciclo de un cliente: elegir operación, enviar la petición, registrar la latencia
+     */
+    private void atender() {
+        while (!detener) {
+            Operacion operacion = elegirOperacion();
+            HttpRequest peticion = operacion.peticion(base, datos);
+            if (peticion == null) {
+                continue;
+            }
+
+            long inicio = System.nanoTime();
+            HttpResponse<String> respuesta;
+            try {
+                respuesta = http.send(peticion, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                informe.registrar(operacion, System.nanoTime() - inicio, false);
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            boolean exitosa = respuesta.statusCode() < 400;
+            informe.registrar(operacion, System.nanoTime() - inicio, exitosa);
+
+            if (exitosa && operacion == Operacion.CREAR) {
+                registrarCreada(respuesta.body());
+            }
+        }
+    }
+
+    private Operacion elegirOperacion() {
+        int sorteo = ThreadLocalRandom.current().nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (sorteo < pesosAcumulados[i]) {
+                return operaciones[i];
+            }
+        }
+        return operaciones[operaciones.length - 1];
+    }
+
+    /**
+     * Guarda el ID de una factura creada para que otros clientes puedan pagarla
+     */
+    private void registrarCreada(String cuerpo) {
+        try {
+            JsonNode factura = mapper.readTree(cuerpo);
+            if (factura.hasNonNull("id")) {
+                datos.agregarFactura(factura.get("id").asText());
+            }
+        } catch (IOException e) {
+            // Respuesta inesperada: simplemente no queda disponible para pagar
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.servicios.vet.carga;
+
+import com.servicios.vet.dto.FacturaRequestDTO;
+import com.servicios.vet.dto.ResultadoItemLote;
+import com.servicios.vet.model.Servicio;
+import com.servicios.vet.service.FacturaService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Carga los datos iniciales de la prueba usando el propio servicio de la aplicación:
+ * los servicios uno por uno y las facturas con la creación por lotes, que es mucho
+ * más rápida que crearlas por HTTP.
+ */
+public class SembradorDatos {
+    // Cantidad de servicios que incluye cada factura sembrada (entre 1 y este valor)
+    private static final int MAXIMO_SERVICIOS_POR_FACTURA = 5;
+
+    private final FacturaService facturaService;
+
+    public SembradorDatos(FacturaService facturaService) {
+        this.facturaService = facturaService;
+    }
+
+    /**
+     * Crea los servicios y las facturas pedidas y devuelve sus IDs.
+     * Las facturas rechazadas se reemplazan en el lote siguiente.
+     *
+     * @throws IllegalStateException Si se rechazan todas las facturas de un lote
+     */
+    public DatosCarga sembrar(int cantidadServicios, int cantidadFacturas) {
+        ThreadLocalRandom azar = ThreadLocalRandom.current();
+
+        List<String> servicios = new ArrayList<>(cantidadServicios);
+        for (int i = 0; i < cantidadServicios; i++) {
+            double costo = 1000 + azar.nextInt(50000);
+            servicios.add(facturaService.agregarServicio(new Servicio(null, "Servicio " + (i + 1), costo)).getId());
+        }
+
+        List<String> facturas = new ArrayList<>(cantidadFacturas);
+        while (facturas.size() < cantidadFacturas) {
+            int tamanoLote = Math.min(FacturaService.TAMANO_LOTE_MAXIMO, cantidadFacturas - facturas.size());
+            List<FacturaRequestDTO> lote = new ArrayList<>(tamanoLote);
+            for (int i = 0; i < tamanoLote; i++) {
+                int cantidad = 1 + azar.nextInt(MAXIMO_SERVICIOS_POR_FACTURA);
+                List<String> ids = new ArrayList<>(cantidad);
+                for (int j = 0; j < cantidad; j++) {
+                    ids.add(servicios.get(azar.nextInt(servicios.size())));
+                }
+                lote.add(new FacturaRequestDTO(ids));
+            }
+            int creadas = 0;
+            String error = null;
+            for (ResultadoItemLote resultado : facturaService.crearFacturas(lote).getResultados()) {
+                if (resultado.getFacturaId() != null) {
+                    facturas.add(resultado.getFacturaId());
+                    creadas++;
+                } else if (error == null) {
+                    error = resultado.getError();
+                }
+            }
+            // Si no se creó ninguna, el próximo lote fallaría igual: cortamos en vez de repetir sin fin
+            if (creadas == 0) {
+                throw new IllegalStateException("No se pudo crear ninguna factura del lote: " + error);
+            }
+        }
+        return new DatosCarga(servicios, facturas);
+    }
+}
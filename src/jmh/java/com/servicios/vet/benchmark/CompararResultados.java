@@ -0,0 +1,86 @@
+package com.servicios.vet.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compara dos archivos de resultados de JMH (formato JSON), por ejemplo los de dos commits,
+ * y muestra para cada benchmark el puntaje anterior, el actual y la variación.
+ * 
+ * Una variación peor que el umbral (en porcentaje) se marca como REGRESIÓN y hace que el
+ * programa termine con código 1, para poder usarlo en integración continua. Se tiene en
+ * cuenta el modo de cada benchmark: en "thrpt" más es mejor; en los demás (tiempos), menos.
+ * 
+ * Uso: CompararResultados base.json actual.json [umbral]
+ */
+public final class CompararResultados {
+
+    // Porcentaje de empeoramiento que se considera regresión si no se indica otro
+    private static final double UMBRAL_POR_DEFECTO = 10.0;
+
+    private CompararResultados() {
+    }
+
+    public static void main(String[] argumentos) throws IOException {
+        if (argumentos.length < 2) {
+            System.err.println("Uso: CompararResultados base.json actual.json [umbral]");
+            System.exit(2);
+        }
+        double umbral = argumentos.length > 2 ? Double.parseDouble(argumentos[2]) : UMBRAL_POR_DEFECTO;
+
+        Map<String, JsonNode> base = leer(new File(argumentos[0]));
+        Map<String, JsonNode> actual = leer(new File(argumentos[1]));
+
+        int regresiones = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Base", "Actual", "Cambio");
+        for (Map.Entry<String, JsonNode> entrada : actual.entrySet()) {
+            JsonNode anterior = base.get(entrada.getKey());
+            double puntajeActual = entrada.getValue().path("primaryMetric").path("score").asDouble();
+            String unidad = entrada.getValue().path("primaryMetric").path("scoreUnit").asText();
+            if (anterior == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s (nuevo)%n", entrada.getKey(), "-", puntajeActual, "-", unidad);
+                continue;
+            }
+
+            double puntajeBase = anterior.path("primaryMetric").path("score").asDouble();
+            double cambio = (puntajeActual - puntajeBase) / puntajeBase * 100.0;
+            boolean masEsMejor = "thrpt".equals(entrada.getValue().path("mode").asText());
+            double empeoramiento = masEsMejor ? -cambio : cambio;
+            boolean regresion = empeoramiento > umbral;
+            if (regresion) {
+                regresiones++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entrada.getKey(), puntajeBase, puntajeActual,
+                cambio, unidad, regresion ? "  REGRESIÓN" : "");
+        }
+
+        System.out.printf("%nRegresiones (peor que %.1f%%): %d%n", umbral, regresiones);
+        if (regresiones > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Lee un archivo de resultados y los indexa por nombre del benchmark y parámetros
+     */
+    private static Map<String, JsonNode> leer(File archivo) throws IOException {
+        Map<String, JsonNode> resultados = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(archivo)) {
+            StringBuilder clave = new StringBuilder(resultado.path("benchmark").asText()
+                .replace("com.servicios.vet.benchmark.", ""));
+            Iterator<Map.Entry<String, JsonNode>> parametros = resultado.path("params").fields();
+            while (parametros.hasNext()) {
+                Map.Entry<String, JsonNode> parametro = parametros.next();
+                clave.append(' ').append(parametro.getKey()).append('=').append(parametro.getValue().asText());
+            }
+            resultados.put(clave.toString(), resultado);
+        }
+        return resultados;
+    }
+}
@@ -0,0 +1,89 @@
+package com.servicios.vet.benchmark;
+
+import com.servicios.vet.controller.EnsambladorEnlaces;
+import com.servicios.vet.controller.FacturaController;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Servicio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Compara el costo de armar los enlaces HATEOAS de un listado de facturas:
+ * - conMethodOn: como lo hacía el controlador, con linkTo(methodOn(...)) por cada enlace
+ * - conPlantillas: con el EnsambladorEnlaces, que expande plantillas precalculadas
+ * 
+ * Ambos se ejecutan dentro de una petición HTTP simulada, igual que en el controlador.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnlacesBenchmark {
+
+    @Param({"10", "100"})
+    private int cantidad;
+
+    private List<Factura> facturas;
+    private EnsambladorEnlaces enlaces;
+
+    @Setup
+    public void preparar() {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/api/factura");
+        peticion.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(peticion));
+
+        Servicio servicio = new Servicio(UUID.randomUUID().toString(), "Consulta", 15000.0);
+        facturas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            facturas.add(new Factura(UUID.randomUUID().toString(), Arrays.asList(servicio)));
+        }
+        enlaces = new EnsambladorEnlaces();
+    }
+
+    @TearDown
+    public void limpiar() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public List<EntityModel<Factura>> conMethodOn() {
+        List<EntityModel<Factura>> modelos = new ArrayList<>(facturas.size());
+        for (Factura factura : facturas) {
+            modelos.add(EntityModel.of(factura,
+                linkTo(methodOn(FacturaController.class).obtenerFactura(factura.getId(), null)).withSelfRel(),
+                linkTo(methodOn(FacturaController.class).pagarFactura(factura.getId())).withRel("pagar"),
+                linkTo(methodOn(FacturaController.class).listarFacturas(null, null, null, null, null, null)).withRel("facturas")));
+        }
+        return modelos;
+    }
+
+    @Benchmark
+    public List<EntityModel<Factura>> conPlantillas() {
+        return enlaces.modelosFacturas(facturas);
+    }
+}
@@ -0,0 +1,65 @@
+package com.servicios.vet.benchmark;
+
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Servicio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el modelo de dominio sin base de datos:
+ * - construir: crear una factura, lo que incluye armar sus líneas y calcular su total
+ * - construirConRepetidos: crear una factura donde cada servicio aparece dos veces
+ *   (se agrupan en una línea con cantidad 2)
+ * 
+ * Se ejecuta con facturas de distinta cantidad de servicios.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FacturaBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int cantidadServicios;
+
+    private List<Servicio> servicios;
+    private List<Servicio> serviciosRepetidos;
+    private String facturaId;
+
+    @Setup
+    public void preparar() {
+        servicios = new ArrayList<>(cantidadServicios);
+        for (int i = 0; i < cantidadServicios; i++) {
+            servicios.add(new Servicio(UUID.randomUUID().toString(), "Servicio " + i, 1000.0 + i * 0.25));
+        }
+        serviciosRepetidos = new ArrayList<>(servicios);
+        serviciosRepetidos.addAll(servicios);
+        facturaId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public Factura construir() {
+        return new Factura(facturaId, servicios);
+    }
+
+    @Benchmark
+    public Factura construirConRepetidos() {
+        return new Factura(facturaId, serviciosRepetidos);
+    }
+}
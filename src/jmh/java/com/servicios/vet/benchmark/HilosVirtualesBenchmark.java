@@ -0,0 +1,186 @@
+package com.servicios.vet.benchmark;
+
+import com.servicios.vet.config.ConexionesLimitadasDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compara cómo se atiende una ráfaga de peticiones concurrentes que usan la base de datos:
+ * - plataforma: como Tomcat por defecto, 200 hilos de plataforma que piden directamente
+ *   una conexión al pool de Hikari
+ * - virtual: un hilo virtual por petición, con el semáforo de ConexionesLimitadasDataSource
+ *   delante del pool (lo que activa el perfil "virtual"); requiere Java 21
+ * 
+ * Cada petición toma una conexión, ejecuta una consulta sobre H2 y la retiene unos
+ * milisegundos más para simular la latencia de red hasta Oracle. El pool tiene 10
+ * conexiones, igual que la configuración de la aplicación. Además del rendimiento
+ * (peticiones por segundo) se muestran los percentiles 50 y 99 de latencia por petición
+ * y la cantidad de peticiones que fallaron por tiempo de espera.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class HilosVirtualesBenchmark {
+
+    // Peticiones que llegan juntas en cada ráfaga
+    private static final int PETICIONES = 2000;
+
+    // Conexiones del pool (como spring.datasource.hikari.maximum-pool-size)
+    private static final int CONEXIONES = 10;
+
+    // Hilos de Tomcat por defecto (server.tomcat.threads.max)
+    private static final int HILOS_TOMCAT = 200;
+
+    // Tiempo que cada petición retiene la conexión, simulando la red hasta la base de datos
+    private static final long LATENCIA_BASE_DATOS_MS = 2;
+
+    @Param({"plataforma", "virtual"})
+    private String modo;
+
+    private HikariDataSource pool;
+    private DataSource dataSource;
+    private ExecutorService ejecutor;
+
+    private long[] latencias = new long[0];
+    private int cantidadLatencias;
+    private final AtomicInteger fallidas = new AtomicInteger();
+
+    @Setup
+    public void preparar() throws Exception {
+        ejecutor = modo.equals("virtual") ? hilosVirtuales() : Executors.newFixedThreadPool(HILOS_TOMCAT);
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:hilos;MODE=Oracle;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(CONEXIONES);
+        config.setMinimumIdle(CONEXIONES);
+        config.setConnectionTimeout(30000);
+        pool = new HikariDataSource(config);
+
+        try (Connection conexion = pool.getConnection(); Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("CREATE TABLE IF NOT EXISTS FACTURAS (FACTURA_ID INT PRIMARY KEY, PAGADA BOOLEAN)");
+            sentencia.execute("MERGE INTO FACTURAS KEY (FACTURA_ID) VALUES (1, FALSE)");
+        }
+
+        dataSource = modo.equals("virtual") ? new ConexionesLimitadasDataSource(pool, CONEXIONES, 60000) : pool;
+    }
+
+    @TearDown
+    public void limpiar() throws InterruptedException {
+        ejecutor.shutdown();
+        ejecutor.awaitTermination(1, TimeUnit.MINUTES);
+        pool.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void reiniciarMedicion() {
+        latencias = new long[PETICIONES * 64];
+        cantidadLatencias = 0;
+        fallidas.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void mostrarLatencias() {
+        long[] ordenadas = Arrays.copyOf(latencias, cantidadLatencias);
+        Arrays.sort(ordenadas);
+        System.out.printf("%n[%s] peticiones: %d, p50: %.1f ms, p99: %.1f ms, fallidas: %d%n", modo,
+            ordenadas.length, percentil(ordenadas, 0.50) / 1e6, percentil(ordenadas, 0.99) / 1e6, fallidas.get());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PETICIONES)
+    public void rafaga() throws InterruptedException {
+        long[] duraciones = new long[PETICIONES];
+        CountDownLatch terminadas = new CountDownLatch(PETICIONES);
+        for (int i = 0; i < PETICIONES; i++) {
+            int indice = i;
+            long llegada = System.nanoTime();
+            ejecutor.execute(() -> {
+                try {
+                    atenderPeticion();
+                } catch (SQLException e) {
+                    fallidas.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    duraciones[indice] = System.nanoTime() - llegada;
+                    terminadas.countDown();
+                }
+            });
+        }
+        terminadas.await();
+        registrar(duraciones);
+    }
+
+    /**
+     * Simula una petición que lee una factura
+     */
+    private void atenderPeticion() throws SQLException, InterruptedException {
+        try (Connection conexion = dataSource.getConnection();
+             PreparedStatement consulta = conexion.prepareStatement("SELECT PAGADA FROM FACTURAS WHERE FACTURA_ID = ?")) {
+            consulta.setInt(1, 1);
+            try (ResultSet resultado = consulta.executeQuery()) {
+                resultado.next();
+            }
+            Thread.sleep(LATENCIA_BASE_DATOS_MS);
+        }
+    }
+
+    private void registrar(long[] duraciones) {
+        if (cantidadLatencias + duraciones.length > latencias.length) {
+            latencias = Arrays.copyOf(latencias, latencias.length * 2);
+        }
+        System.arraycopy(duraciones, 0, latencias, cantidadLatencias, duraciones.length);
+        cantidadLatencias += duraciones.length;
+    }
+
+    private static long percentil(long[] ordenadas, double fraccion) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        return ordenadas[Math.min(ordenadas.length - 1, (int) Math.ceil(fraccion * ordenadas.length) - 1)];
+    }
+
+    /**
+     * Crea el ejecutor de un hilo virtual por tarea. Se obtiene por reflexión para que
+     * el benchmark compile con Java 17; en ese caso el modo "virtual" no está disponible.
+     */
+    private static ExecutorService hilosVirtuales() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException(
+                "El modo virtual necesita Java 21 o superior (versión actual: " + Runtime.version() + ")", e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.servicios.vet.benchmark;
+
+import com.servicios.vet.model.Identificadores;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compara la inserción de facturas (y sus filas en la tabla intermedia) con los dos
+ * esquemas de claves primarias:
+ * - uuid4-texto: UUID aleatorios guardados como texto de 36 caracteres (el esquema anterior)
+ * - uuid7-binario: UUID ordenados por tiempo guardados como 16 bytes (el esquema actual)
+ * 
+ * Se usa una base H2 en un directorio temporal con JDBC directo, para medir solo el costo de las
+ * claves y sus índices. Las tablas crecen durante toda la medición, de modo que los
+ * índices alcanzan un tamaño en el que se nota dónde cae cada inserción. Al terminar
+ * se muestra el espacio que ocupa cada tabla.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdentificadoresBenchmark {
+
+    // Facturas insertadas en cada invocación (un lote JDBC por tabla)
+    private static final int FACTURAS_POR_LOTE = 500;
+
+    @Param({"uuid4-texto", "uuid7-binario"})
+    private String esquema;
+
+    private Path directorio;
+    private Connection conexion;
+    private PreparedStatement insertarFactura;
+    private PreparedStatement insertarServicio;
+    private Object[] servicios;
+    private boolean binario;
+
+    @Setup
+    public void preparar() throws SQLException, IOException {
+        binario = esquema.equals("uuid7-binario");
+        String tipoId = binario ? "BINARY(16)" : "VARCHAR(36)";
+
+        directorio = Files.createTempDirectory("ids-" + esquema);
+        conexion = DriverManager.getConnection("jdbc:h2:" + directorio.resolve("veterinaria") + ";MODE=Oracle", "sa", "");
+        conexion.setAutoCommit(false);
+        try (Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("CREATE TABLE SERVICIOS (SERVICIO_ID " + tipoId + " PRIMARY KEY, "
+                + "NOMBRE VARCHAR(255) NOT NULL, COSTO DOUBLE NOT NULL)");
+            sentencia.execute("CREATE TABLE FACTURAS (FACTURA_ID " + tipoId + " PRIMARY KEY, "
+                + "PAGADA BOOLEAN NOT NULL, TOTAL DOUBLE NOT NULL)");
+            sentencia.execute("CREATE TABLE FACTURA_SERVICIOS (FACTURA_ID " + tipoId + " NOT NULL "
+                + "REFERENCES FACTURAS, SERVICIO_ID " + tipoId + " NOT NULL REFERENCES SERVICIOS)");
+        }
+
+        servicios = new Object[] {nuevoId(), nuevoId()};
+        try (PreparedStatement insertar = conexion.prepareStatement("INSERT INTO SERVICIOS VALUES (?, ?, ?)")) {
+            for (Object servicio : servicios) {
+                insertar.setObject(1, servicio);
+                insertar.setString(2, "Servicio");
+                insertar.setDouble(3, 15000.0);
+                insertar.executeUpdate();
+            }
+        }
+        conexion.commit();
+
+        insertarFactura = conexion.prepareStatement("INSERT INTO FACTURAS VALUES (?, FALSE, 35000.0)");
+        insertarServicio = conexion.prepareStatement("INSERT INTO FACTURA_SERVICIOS VALUES (?, ?)");
+    }
+
+    @TearDown
+    public void limpiar() throws SQLException, IOException {
+        try (Statement sentencia = conexion.createStatement();
+             ResultSet tamanos = sentencia.executeQuery("SELECT (SELECT COUNT(*) FROM FACTURAS), "
+                 + "DISK_SPACE_USED('FACTURAS'), DISK_SPACE_USED('FACTURA_SERVICIOS')")) {
+            tamanos.next();
+            long facturas = tamanos.getLong(1);
+            System.out.printf("%n[%s] facturas: %d, bytes por factura en FACTURAS: %d, en FACTURA_SERVICIOS: %d%n",
+                esquema, facturas, tamanos.getLong(2) / facturas, tamanos.getLong(3) / facturas);
+            sentencia.execute("SHUTDOWN");
+        }
+        conexion.close();
+
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FACTURAS_POR_LOTE)
+    public int[] insertarFacturas() throws SQLException {
+        for (int i = 0; i < FACTURAS_POR_LOTE; i++) {
+            Object facturaId = nuevoId();
+            insertarFactura.setObject(1, facturaId);
+            insertarFactura.addBatch();
+            for (Object servicio : servicios) {
+                insertarServicio.setObject(1, facturaId);
+                insertarServicio.setObject(2, servicio);
+                insertarServicio.addBatch();
+            }
+        }
+        insertarFactura.executeBatch();
+        int[] filas = insertarServicio.executeBatch();
+        conexion.commit();
+        return filas;
+    }
+
+    /**
+     * Genera un ID con el esquema medido, en el formato con que se envía a la base de datos
+     */
+    private Object nuevoId() {
+        return binario
+            ? Identificadores.aBytes(Identificadores.nuevo())
+            : UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.servicios.vet.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servicios.vet.controller.EnsambladorEnlaces;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Servicio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la conversión a JSON (HAL) de un listado de facturas, como la hace la aplicación:
+ * - serializar: solo escribir el JSON de un CollectionModel ya armado
+ * - armarYSerializar: armar los modelos con sus enlaces y escribir el JSON, que es lo
+ *   que hace GET /api/factura después de leer la página
+ * 
+ * El ObjectMapper se configura con el módulo HAL igual que Spring HATEOAS (incluida la
+ * anotación @Relation de Factura). Se ejecuta con listados de distinto tamaño.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacionHalBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int cantidad;
+
+    private ObjectMapper mapper;
+    private EnsambladorEnlaces enlaces;
+    private List<Factura> facturas;
+    private CollectionModel<EntityModel<Factura>> coleccion;
+
+    @Setup
+    public void preparar() {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/api/factura");
+        peticion.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(peticion));
+
+        mapper = new ObjectMapper();
+        mapper.registerModule(new Jackson2HalModule());
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+            new AnnotationLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+
+        List<Servicio> servicios = Arrays.asList(
+            new Servicio(UUID.randomUUID().toString(), "Consulta", 15000.0),
+            new Servicio(UUID.randomUUID().toString(), "Vacunación", 20000.0),
+            new Servicio(UUID.randomUUID().toString(), "Desparasitación", 8500.5));
+        facturas = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            facturas.add(new Factura(UUID.randomUUID().toString(), servicios));
+        }
+
+        enlaces = new EnsambladorEnlaces();
+        coleccion = armar();
+    }
+
+    @TearDown
+    public void limpiar() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public byte[] serializar() throws Exception {
+        return mapper.writeValueAsBytes(coleccion);
+    }
+
+    @Benchmark
+    public byte[] armarYSerializar() throws Exception {
+        return mapper.writeValueAsBytes(armar());
+    }
+
+    private CollectionModel<EntityModel<Factura>> armar() {
+        return CollectionModel.of(enlaces.modelosFacturas(facturas),
+            Link.of("http://localhost:8080/api/factura").withSelfRel());
+    }
+}
@@ -0,0 +1,141 @@
+package com.servicios.vet.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita cuántos hilos pueden tener una conexión a la base de datos al mismo tiempo.
+ * 
+ * Con hilos virtuales puede haber miles de peticiones en curso, pero el pool de Hikari
+ * solo tiene unas pocas conexiones. Sin este límite, todas esas peticiones esperan
+ * dentro de Hikari y, pasado su connectionTimeout, fallan en cadena. Aquí esperan
+ * primero en un semáforo justo (por orden de llegada), con tantos permisos como
+ * conexiones tiene el pool; esperar en un semáforo es barato para un hilo virtual y
+ * el tiempo máximo de espera se configura por separado.
+ * 
+ * El permiso se devuelve cuando se cierra la conexión (es decir, cuando vuelve al pool).
+ * 
+ * Al cerrarse (cuando Spring destruye el bean al detener la aplicación) cierra también
+ * el pool; si no, las conexiones de Hikari quedarían abiertas.
+ */
+public class ConexionesLimitadasDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final Semaphore permisos;
+    private final long esperaMaximaMs;
+
+    /**
+     * @param destino El pool de conexiones real
+     * @param maximoConexiones Cantidad de conexiones que se pueden usar a la vez (el tamaño del pool)
+     * @param esperaMaximaMs Tiempo máximo que un hilo espera su turno antes de fallar
+     */
+    public ConexionesLimitadasDataSource(DataSource destino, int maximoConexiones, long esperaMaximaMs) {
+        super(destino);
+        this.permisos = new Semaphore(maximoConexiones, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        esperarTurno();
+        try {
+            return limitada(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        esperarTurno();
+        try {
+            return limitada(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Cierra el pool de conexiones real, si se puede cerrar
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Cantidad de hilos esperando una conexión (aproximada)
+     */
+    public int getHilosEnEspera() {
+        return permisos.getQueueLength();
+    }
+
+    /**
+     * Cantidad de conexiones que todavía se pueden entregar sin esperar
+     */
+    public int getPermisosDisponibles() {
+        return permisos.availablePermits();
+    }
+
+    /**
+     * Espera un permiso del semáforo, o falla si no llega a tiempo
+     */
+    private void esperarTurno() throws SQLException {
+        try {
+            if (!permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                    "No hubo una conexión disponible en " + esperaMaximaMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido mientras esperaba una conexión", e);
+        }
+    }
+
+    /**
+     * Envuelve la conexión para devolver el permiso al cerrarla (una sola vez)
+     */
+    private Connection limitada(Connection conexion) {
+        AtomicBoolean devuelta = new AtomicBoolean();
+        InvocationHandler manejador = (proxy, metodo, argumentos) -> {
+            if (metodo.getName().equals("close") && metodo.getParameterCount() == 0) {
+                try {
+                    conexion.close();
+                } finally {
+                    if (devuelta.compareAndSet(false, true)) {
+                        permisos.release();
+                    }
+                }
+                return null;
+            }
+            return invocar(conexion, metodo, argumentos);
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, manejador);
+    }
+
+    /**
+     * Llama al método sobre la conexión real, propagando la excepción original
+     */
+    private static Object invocar(Connection conexion, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(conexion, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -21,9 +21,36 @@ public class DatabaseConfig {
     @Value("${spring.datasource.password}")
     private String password;
 
+    @Value("${spring.datasource.driver-class-name:oracle.jdbc.OracleDriver}")
+    private String driverClassName;
+
     @Value("${oracle.net.wallet_location:}")
     private String walletPath;
 
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Value("${spring.datasource.hikari.minimum-idle:5}")
+    private int minimumIdle;
+
+    @Value("${spring.datasource.hikari.connection-timeout:30000}")
+    private long connectionTimeout;
+
+    @Value("${spring.datasource.hikari.idle-timeout:600000}")
+    private long idleTimeout;
+
+    @Value("${spring.datasource.hikari.max-lifetime:1800000}")
+    private long maxLifetime;
+
+    // Si es true, las peticiones esperan su turno en un semáforo antes de pedir una
+    // conexión al pool (ver ConexionesLimitadasDataSource); se activa con hilos virtuales
+    @Value("${vet.datasource.limitar-concurrencia:false}")
+    private boolean limitarConcurrencia;
+
+    // Tiempo máximo que una petición espera su turno en el semáforo
+    @Value("${vet.datasource.espera-maxima-ms:60000}")
+    private long esperaMaximaMs;
+
     @Bean
     public DataSource dataSource() {
         // Configurar propiedades del sistema para el wallet de Oracle Cloud
@@ -36,7 +63,7 @@ public class DatabaseConfig {
         config.setJdbcUrl(url);
         config.setUsername(username);
         config.setPassword(password);
-        config.setDriverClassName("oracle.jdbc.OracleDriver");
+        config.setDriverClassName(driverClassName);
         
         // Configuraciones de conexión segura para Oracle Cloud
         Properties props = new Properties();
@@ -44,17 +71,21 @@ public class DatabaseConfig {
         props.setProperty("oracle.net.ssl_server_dn_match", "true");
         
         // Configuraciones adicionales de HikariCP
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(5);
-        config.setConnectionTimeout(30000);
-        config.setIdleTimeout(600000);
-        config.setMaxLifetime(1800000);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(minimumIdle);
+        config.setConnectionTimeout(connectionTimeout);
+        config.setIdleTimeout(idleTimeout);
+        config.setMaxLifetime(maxLifetime);
         config.setPoolName("OracleCloudHikariPool");
         config.setConnectionTestQuery("SELECT 1 FROM DUAL");
         
         // Establecer propiedades adicionales
         config.setDataSourceProperties(props);
         
-        return new HikariDataSource(config);
+        HikariDataSource pool = new HikariDataSource(config);
+        if (limitarConcurrencia) {
+            return new ConexionesLimitadasDataSource(pool, maximumPoolSize, esperaMaximaMs);
+        }
+        return pool;
     }
 } 
\ No newline at end of file
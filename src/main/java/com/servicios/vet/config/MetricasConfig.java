@@ -0,0 +1,114 @@
+package com.servicios.vet.config;
+
+import com.servicios.vet.controller.RespuestasFacturasPagadas;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.service.CatalogoServicios;
+import com.servicios.vet.service.DifusorCambios;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Métricas propias de la aplicación, además de las que registra Spring Boot
+ * (peticiones HTTP, pool de Hikari, estadísticas de Hibernate, JVM).
+ *
+ * Publica los contadores que ya llevan el catálogo en memoria, la tasa de aciertos
+ * de cada región de la caché de segundo nivel, los de las respuestas guardadas de
+ * facturas pagadas, los clientes conectados a /api/eventos y, si está activo, el límite
+ * de conexiones usado con hilos virtuales.
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public MeterBinder metricasCatalogo(CatalogoServicios catalogo) {
+        return registry -> {
+            FunctionCounter.builder("vet.catalogo.aciertos", catalogo, CatalogoServicios::getAciertos)
+                    .description("Lecturas del catálogo resueltas en memoria")
+                    .register(registry);
+            FunctionCounter.builder("vet.catalogo.fallos", catalogo, CatalogoServicios::getFallos)
+                    .description("Lecturas del catálogo que tuvieron que ir a la base de datos")
+                    .register(registry);
+            FunctionCounter.builder("vet.catalogo.desalojos", catalogo, CatalogoServicios::getDesalojos)
+                    .description("Servicios descartados de la memoria por superar la capacidad")
+                    .register(registry);
+            Gauge.builder("vet.catalogo.tamano", catalogo, CatalogoServicios::getTamano)
+                    .description("Servicios guardados en memoria")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Tasa de aciertos (entre 0 y 1) de cada región de la caché de segundo nivel.
+     * Hibernate ya publica los aciertos y fallos por separado
+     * (hibernate.second.level.cache.requests); esta métrica ahorra el cálculo al
+     * mirarla directamente.
+     */
+    @Bean
+    public MeterBinder metricasCacheSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> registrarTasaAciertos(registry, estadisticas, Factura.REGION_CACHE_LINEAS);
+    }
+
+    private static void registrarTasaAciertos(MeterRegistry registry, Statistics estadisticas, String region) {
+        Gauge.builder("vet.cache.tasa.aciertos", estadisticas,
+                        e -> tasaAciertos(e.getDomainDataRegionStatistics(region)))
+                .tag("region", region)
+                .description("Fracción de lecturas de la región resueltas sin ir a la base de datos")
+                .register(registry);
+    }
+
+    private static double tasaAciertos(CacheRegionStatistics region) {
+        if (region == null) {
+            return 0;
+        }
+        long lecturas = region.getHitCount() + region.getMissCount();
+        return lecturas == 0 ? 0 : (double) region.getHitCount() / lecturas;
+    }
+
+    /**
+     * Aciertos, fallos, tamaño y descartes de las respuestas guardadas de facturas
+     * pagadas (métricas cache.* con la etiqueta cache="facturas-pagadas")
+     */
+    @Bean
+    public MeterBinder metricasRespuestasFacturasPagadas(RespuestasFacturasPagadas respuestas) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, respuestas.getCache(), "facturas-pagadas");
+    }
+
+    @Bean
+    public MeterBinder metricasEventos(DifusorCambios difusor) {
+        return registry -> {
+            Gauge.builder("vet.eventos.suscriptores", difusor, DifusorCambios::getSuscriptores)
+                    .description("Clientes conectados a /api/eventos")
+                    .register(registry);
+            FunctionCounter.builder("vet.eventos.desbordes", difusor, DifusorCambios::getDesbordes)
+                    .description("Veces que un cliente lento llenó su cola y se le pidió volver a leer los listados")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder metricasLimiteConexiones(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof ConexionesLimitadasDataSource limite)) {
+                return;
+            }
+            Gauge.builder("vet.datasource.hilos.espera", limite, ConexionesLimitadasDataSource::getHilosEnEspera)
+                    .description("Hilos esperando su turno para pedir una conexión")
+                    .register(registry);
+            Gauge.builder("vet.datasource.permisos.disponibles", limite, ConexionesLimitadasDataSource::getPermisosDisponibles)
+                    .description("Conexiones que todavía se pueden pedir sin esperar")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.servicios.vet.config;
+
+import com.servicios.vet.service.NoEncontradoException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mide el tiempo y la cantidad de llamadas de las operaciones de FacturaService marcadas
+ * con @OperacionMedida. Las consultas auxiliares (versiones para los ETag, estadísticas del
+ * catálogo) no se marcan, para que sus llamadas no se mezclen con las de los clientes.
+ *
+ * Cada llamada se registra en el timer "vet.factura.operaciones" con dos etiquetas:
+ * - "operacion": el nombre del método (crearFactura, pagarFactura, listarFacturas...)
+ * - "resultado": cómo terminó, según la excepción que ya lanza el servicio
+ *   - ok: sin excepción
+ *   - not-found: NoEncontradoException (la factura o el servicio no existe)
+ *   - invalid: cualquier otra IllegalArgumentException (datos de entrada no válidos)
+ *   - conflict: IllegalStateException (por ejemplo, factura ya pagada) o un conflicto de concurrencia
+ *   - error: cualquier otra excepción
+ *
+ * Se ejecuta por fuera de la transacción del servicio, así que el tiempo incluye el
+ * commit y un fallo al confirmar también queda clasificado. Cada combinación de etiquetas
+ * registra su timer una sola vez; las llamadas siguientes lo toman de un mapa.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricasFacturaService {
+
+    public static final String METRICA = "vet.factura.operaciones";
+
+    public static final String RESULTADO_OK = "ok";
+    public static final String RESULTADO_NO_ENCONTRADO = "not-found";
+    public static final String RESULTADO_INVALIDO = "invalid";
+    public static final String RESULTADO_CONFLICTO = "conflict";
+    public static final String RESULTADO_ERROR = "error";
+
+    private final MeterRegistry registry;
+
+    // Timers ya registrados, por operación y resultado
+    private final Map<Etiquetas, Timer> timers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MetricasFacturaService(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.servicios.vet.service.FacturaService.*(..))"
+            + " && @annotation(com.servicios.vet.service.OperacionMedida)")
+    public Object medir(ProceedingJoinPoint llamada) throws Throwable {
+        Timer.Sample muestra = Timer.start(registry);
+        String resultado = RESULTADO_OK;
+        try {
+            return llamada.proceed();
+        } catch (Throwable e) {
+            resultado = clasificar(e);
+            throw e;
+        } finally {
+            muestra.stop(timer(llamada.getSignature().getName(), resultado));
+        }
+    }
+
+    /**
+     * Obtiene el timer de una operación y un resultado, registrándolo la primera vez
+     */
+    private Timer timer(String operacion, String resultado) {
+        return timers.computeIfAbsent(new Etiquetas(operacion, resultado), etiquetas -> Timer.builder(METRICA)
+                .description("Tiempo de las operaciones de FacturaService")
+                .tag("operacion", etiquetas.operacion())
+                .tag("resultado", etiquetas.resultado())
+                .register(registry));
+    }
+
+    private record Etiquetas(String operacion, String resultado) {
+    }
+
+    /**
+     * Traduce la excepción lanzada por el servicio a la etiqueta "resultado".
+     */
+    static String clasificar(Throwable e) {
+        if (e instanceof NoEncontradoException) {
+            return RESULTADO_NO_ENCONTRADO;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return RESULTADO_INVALIDO;
+        }
+        if (e instanceof IllegalStateException || e instanceof ConcurrencyFailureException) {
+            return RESULTADO_CONFLICTO;
+        }
+        return RESULTADO_ERROR;
+    }
+}
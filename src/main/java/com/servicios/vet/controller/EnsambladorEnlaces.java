@@ -0,0 +1,158 @@
+package com.servicios.vet.controller;
+
+import com.servicios.vet.dto.PagoFactura;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Servicio;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Arma los modelos HATEOAS (EntityModel) de servicios y facturas con sus enlaces.
+ * 
+ * Construir cada enlace con linkTo(methodOn(...)) crea un proxy del controlador y
+ * recorre sus anotaciones por reflexión; hacerlo dos o tres veces por cada elemento
+ * de un listado largo se nota en el tiempo de respuesta. Esta clase hace ese trabajo
+ * una sola vez al iniciar: obtiene las rutas de cada endpoint como plantillas de texto
+ * y luego solo tiene que pegar el ID (codificado) en el lugar correcto.
+ * 
+ * Lo único que depende de cada petición es la parte inicial de la URL (esquema, host,
+ * puerto y contexto), que se calcula una vez por respuesta, no una vez por elemento.
+ * El resultado es exactamente el mismo que con linkTo(methodOn(...)).
+ */
+@Component
+public class EnsambladorEnlaces {
+    // Texto que ocupa el lugar del ID al calcular las plantillas; no cambia al codificarse
+    private static final String MARCADOR_ID = "MARCADORID";
+
+    private final String rutaControlador;
+    private final Plantilla servicio;
+    private final String servicios;
+    private final Plantilla factura;
+    private final Plantilla pagarFactura;
+    private final String facturas;
+
+    /**
+     * Calcula las plantillas de ruta de cada endpoint a partir del propio controlador,
+     * de modo que siguen siendo correctas si cambian los @GetMapping / @PutMapping
+     */
+    public EnsambladorEnlaces() {
+        // Fuera de una petición linkTo(...) devuelve rutas relativas, que es lo que
+        // necesitamos; si se crea durante una petición, la ocultamos mientras tanto
+        RequestAttributes peticionActual = RequestContextHolder.getRequestAttributes();
+        RequestContextHolder.resetRequestAttributes();
+        try {
+            this.rutaControlador = linkTo(FacturaController.class).toString();
+            this.servicio = new Plantilla(linkTo(methodOn(FacturaController.class).obtenerServicio(MARCADOR_ID, null)).toString());
+            this.servicios = linkTo(methodOn(FacturaController.class).listarServicios(null)).toString();
+            this.factura = new Plantilla(linkTo(methodOn(FacturaController.class).obtenerFactura(MARCADOR_ID, null)).toString());
+            this.pagarFactura = new Plantilla(linkTo(methodOn(FacturaController.class).pagarFactura(MARCADOR_ID)).toString());
+            this.facturas = linkTo(methodOn(FacturaController.class)
+                .listarFacturas(null, null, null, null, null, null)).toString();
+        } finally {
+            RequestContextHolder.setRequestAttributes(peticionActual);
+        }
+    }
+
+    /**
+     * Arma el modelo de un servicio con sus enlaces "self" y "servicios"
+     */
+    public EntityModel<Servicio> modeloServicio(Servicio servicio) {
+        return modeloServicio(servicio, base());
+    }
+
+    /**
+     * Arma los modelos de una lista de servicios, calculando la URL base una sola vez
+     */
+    public List<EntityModel<Servicio>> modelosServicios(List<Servicio> servicios) {
+        String base = base();
+        List<EntityModel<Servicio>> modelos = new ArrayList<>(servicios.size());
+        for (Servicio servicio : servicios) {
+            modelos.add(modeloServicio(servicio, base));
+        }
+        return modelos;
+    }
+
+    /**
+     * Arma el modelo de una factura con sus enlaces "self", "pagar" y "facturas"
+     */
+    public EntityModel<Factura> modeloFactura(Factura factura) {
+        return modeloFactura(factura, base());
+    }
+
+    /**
+     * Arma el modelo de la respuesta a un pago, que ya no incluye el enlace "pagar"
+     */
+    public EntityModel<PagoFactura> modeloPago(PagoFactura pago) {
+        String base = base();
+        return EntityModel.of(pago,
+            Link.of(this.factura.expandir(base, pago.getId()), IanaLinkRelations.SELF),
+            Link.of(base + facturas, "facturas"));
+    }
+
+    /**
+     * Arma los modelos de una lista de facturas, calculando la URL base una sola vez
+     */
+    public List<EntityModel<Factura>> modelosFacturas(List<Factura> facturas) {
+        String base = base();
+        List<EntityModel<Factura>> modelos = new ArrayList<>(facturas.size());
+        for (Factura factura : facturas) {
+            modelos.add(modeloFactura(factura, base));
+        }
+        return modelos;
+    }
+
+    private EntityModel<Servicio> modeloServicio(Servicio servicio, String base) {
+        return EntityModel.of(servicio,
+            Link.of(this.servicio.expandir(base, servicio.getId()), IanaLinkRelations.SELF),
+            Link.of(base + servicios, "servicios"));
+    }
+
+    /**
+     * Arma el modelo de una factura con una URL base ya calculada (ver base())
+     */
+    EntityModel<Factura> modeloFactura(Factura factura, String base) {
+        return EntityModel.of(factura,
+            Link.of(this.factura.expandir(base, factura.getId()), IanaLinkRelations.SELF),
+            Link.of(pagarFactura.expandir(base, factura.getId()), "pagar"),
+            Link.of(base + facturas, "facturas"));
+    }
+
+    /**
+     * Obtiene la parte de la URL que depende de la petición actual (por ejemplo
+     * "http://localhost:8080"). Fuera de una petición HTTP es una cadena vacía.
+     */
+    String base() {
+        String raiz = linkTo(FacturaController.class).toString();
+        return raiz.substring(0, raiz.length() - rutaControlador.length());
+    }
+
+    /**
+     * Ruta de un endpoint dividida en la parte anterior y posterior al ID
+     */
+    private static final class Plantilla {
+        private final String antes;
+        private final String despues;
+
+        Plantilla(String ruta) {
+            int posicion = ruta.indexOf(MARCADOR_ID);
+            this.antes = ruta.substring(0, posicion);
+            this.despues = ruta.substring(posicion + MARCADOR_ID.length());
+        }
+
+        String expandir(String base, String id) {
+            return base + antes + UriUtils.encodePathSegment(id, StandardCharsets.UTF_8) + despues;
+        }
+    }
+}
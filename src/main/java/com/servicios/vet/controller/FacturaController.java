@@ -1,22 +1,45 @@
 package com.servicios.vet.controller;
 
 import com.servicios.vet.dto.FacturaRequestDTO;
+import com.servicios.vet.dto.FiltroFacturas;
+import com.servicios.vet.dto.PagoFactura;
+import com.servicios.vet.dto.ResultadoImportacionServicios;
+import com.servicios.vet.dto.ResultadoLoteFacturas;
+import com.servicios.vet.dto.ResultadoOperacionLote;
+import com.servicios.vet.dto.ResumenFacturas;
 import com.servicios.vet.dto.ServicioDTO;
+import com.servicios.vet.dto.Sincronizacion;
 import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Identificadores;
 import com.servicios.vet.model.Servicio;
+import com.servicios.vet.service.ExportadorFacturas;
+import com.servicios.vet.service.DifusorCambios;
 import com.servicios.vet.service.FacturaService;
+import com.servicios.vet.service.PaginaFacturas;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Links;
 
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Controlador REST que expone los endpoints de la API para interactuar con servicios y facturas.
@@ -38,12 +61,26 @@ public class FacturaController {
     // Spring lo inyecta automáticamente gracias a @Autowired
     private final FacturaService facturaService;
 
+    // Arma los modelos HATEOAS con sus enlaces a partir de plantillas precalculadas
+    private final EnsambladorEnlaces enlaces;
+
+    // Respuestas ya convertidas a JSON de las facturas pagadas (que ya no cambian)
+    private final RespuestasFacturasPagadas respuestasPagadas;
+
+    // Envía los cambios confirmados a los clientes conectados a /api/eventos
+    private final DifusorCambios difusorCambios;
+
     /**
-     * Constructor que recibe el servicio a través de inyección de dependencias
+     * Constructor que recibe el servicio, el ensamblador de enlaces, las respuestas
+     * guardadas y el difusor de cambios a través de inyección de dependencias
      */
     @Autowired
-    public FacturaController(FacturaService facturaService) {
+    public FacturaController(FacturaService facturaService, EnsambladorEnlaces enlaces,
+                             RespuestasFacturasPagadas respuestasPagadas, DifusorCambios difusorCambios) {
         this.facturaService = facturaService;
+        this.enlaces = enlaces;
+        this.respuestasPagadas = respuestasPagadas;
+        this.difusorCambios = difusorCambios;
     }
 
     // ===== ENDPOINTS PARA SERVICIOS =====
@@ -63,10 +100,7 @@ public class FacturaController {
             Servicio resultado = facturaService.agregarServicio(servicio);
             
             // Crear un EntityModel con links HATEOAS
-            EntityModel<Servicio> servicioModel = EntityModel.of(resultado,
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).obtenerServicio(resultado.getId())).withSelfRel(),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).listarServicios()).withRel("servicios")
-            );
+            EntityModel<Servicio> servicioModel = enlaces.modeloServicio(resultado);
             
             return new ResponseEntity<>(servicioModel, HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
@@ -79,36 +113,63 @@ public class FacturaController {
 
     /**
      * Endpoint para obtener la lista de todos los servicios con soporte HATEOAS.
+     * 
+     * Responde 304 Not Modified si el catálogo no cambió desde la copia que tiene el
+     * cliente (ETag / If-None-Match).
      */
     @GetMapping("/servicio")
-    public ResponseEntity<List<EntityModel<Servicio>>> listarServicios() {
+    public ResponseEntity<List<EntityModel<Servicio>>> listarServicios(WebRequest solicitud) {
+        // La versión se lee antes que los datos: si cambian en el medio, la respuesta lleva
+        // la versión anterior y la próxima petición los vuelve a descargar
+        String version = etiqueta(facturaService.versionServicios());
+        if (solicitud.checkNotModified(version)) {
+            return null;
+        }
+
         List<Servicio> servicios = facturaService.listarServicios();
         
-        List<EntityModel<Servicio>> serviciosModel = servicios.stream()
-            .map(servicio -> EntityModel.of(servicio, 
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).obtenerServicio(servicio.getId())).withSelfRel(),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).listarServicios()).withRel("servicios")
-            ))
-            .collect(Collectors.toList());
+        List<EntityModel<Servicio>> serviciosModel = enlaces.modelosServicios(servicios);
         
-        return new ResponseEntity<>(serviciosModel, HttpStatus.OK);
+        return conVersion(serviciosModel, version);
+    }
+
+    /**
+     * Endpoint para que un terminal reciba solo los servicios que cambiaron desde su última
+     * sincronización (GET /api/servicio?since=token).
+     * 
+     * Con "since" vacío entrega todo el catálogo. La respuesta incluye el token que el
+     * terminal debe enviar la próxima vez; si "hayMas" es true, debe pedir enseguida con
+     * ese token hasta recibir false.
+     */
+    @GetMapping(value = "/servicio", params = "since")
+    public ResponseEntity<Sincronizacion<Servicio>> sincronizarServicios(
+            @RequestParam(defaultValue = "") String since,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            return new ResponseEntity<>(facturaService.sincronizarServicios(since, tamano), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 
     /**
      * Endpoint para obtener un servicio específico por su ID con soporte HATEOAS.
+     * Responde 304 Not Modified si el catálogo no cambió desde la copia del cliente.
      */
     @GetMapping("/servicio/{id}")
-    public ResponseEntity<EntityModel<Servicio>> obtenerServicio(@PathVariable String id) {
+    public ResponseEntity<EntityModel<Servicio>> obtenerServicio(@PathVariable String id, WebRequest solicitud) {
         try {
+            String version = etiqueta(facturaService.versionServicios());
+            if (solicitud.checkNotModified(version)) {
+                return null;
+            }
+
             Servicio servicio = facturaService.obtenerServicio(id);
             
             // Crear un EntityModel con links HATEOAS
-            EntityModel<Servicio> servicioModel = EntityModel.of(servicio,
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).obtenerServicio(id)).withSelfRel(),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).listarServicios()).withRel("servicios")
-            );
+            EntityModel<Servicio> servicioModel = enlaces.modeloServicio(servicio);
             
-            return new ResponseEntity<>(servicioModel, HttpStatus.OK);
+            return conVersion(servicioModel, version);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity(e.getMessage(), HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -117,6 +178,33 @@ public class FacturaController {
         }
     }
 
+    /**
+     * Endpoint para importar muchos servicios desde un archivo CSV (por ejemplo, una lista de precios).
+     * 
+     * El cuerpo de la petición es el archivo (Content-Type: text/csv) con las columnas
+     * id (opcional), nombre y costo. Se lee a medida que llega, sin guardarlo completo en
+     * memoria. La respuesta informa cuántos servicios se guardaron y qué filas se rechazaron.
+     */
+    @PostMapping(value = "/servicio/importar", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ResultadoImportacionServicios> importarServicios(InputStream archivo) {
+        try {
+            return new ResponseEntity<>(facturaService.importarServicios(archivo), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity("Error al procesar la solicitud: " + e.getMessage(), 
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Endpoint para consultar los contadores de la copia en memoria del catálogo de servicios.
+     */
+    @GetMapping("/servicio/catalogo/estadisticas")
+    public ResponseEntity<Map<String, Long>> obtenerEstadisticasCatalogo() {
+        return new ResponseEntity<>(facturaService.obtenerEstadisticasCatalogo(), HttpStatus.OK);
+    }
+
     // ===== ENDPOINTS PARA FACTURAS =====
 
     /**
@@ -128,11 +216,7 @@ public class FacturaController {
             Factura factura = facturaService.crearFactura(facturaRequestDTO.getServiciosIds());
             
             // Crear un EntityModel con links HATEOAS
-            EntityModel<Factura> facturaModel = EntityModel.of(factura,
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).obtenerFactura(factura.getId())).withSelfRel(),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).pagarFactura(factura.getId())).withRel("pagar"),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).listarFacturas()).withRel("facturas")
-            );
+            EntityModel<Factura> facturaModel = enlaces.modeloFactura(factura);
             
             return new ResponseEntity<>(facturaModel, HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
@@ -143,22 +227,65 @@ public class FacturaController {
         }
     }
 
+    /**
+     * Endpoint para crear muchas facturas en una sola llamada.
+     * 
+     * Devuelve un informe con el resultado de cada factura solicitada (creada o rechazada
+     * con su motivo), en el mismo orden en que se recibieron.
+     */
+    @PostMapping("/factura/batch")
+    public ResponseEntity<ResultadoLoteFacturas> crearFacturas(@RequestBody List<FacturaRequestDTO> solicitudes) {
+        try {
+            return new ResponseEntity<>(facturaService.crearFacturas(solicitudes), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity("Error al procesar la solicitud: " + e.getMessage(), 
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Endpoint para obtener una factura específica por su ID con soporte HATEOAS.
+     * 
+     * Si el cliente envía la versión de su copia (If-None-Match), primero se lee solo la
+     * versión de la factura y, si no cambió, se responde 304 Not Modified sin cargarla.
+     * 
+     * Las facturas pagadas ya no cambian: la primera vez que se piden se guarda su
+     * respuesta convertida a JSON, y las siguientes veces se envían esos bytes (o 304)
+     * sin consultar la base de datos.
      */
     @GetMapping("/factura/{id}")
-    public ResponseEntity<EntityModel<Factura>> obtenerFactura(@PathVariable String id) {
+    public ResponseEntity<EntityModel<Factura>> obtenerFactura(@PathVariable String id, WebRequest solicitud) {
         try {
+            // Las respuestas guardadas se indexan por el ID en minúsculas (ver Identificadores.canonico)
+            if (Identificadores.esValido(id)) {
+                id = Identificadores.canonico(id);
+            }
+            String base = enlaces.base();
+            RespuestasFacturasPagadas.Respuesta guardada = respuestasPagadas.buscar(id, base);
+            if (guardada != null) {
+                if (solicitud.checkNotModified(guardada.etiqueta())) {
+                    return null;
+                }
+                return respuestaGuardada(guardada);
+            }
+
+            if (solicitud.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                    && solicitud.checkNotModified(etiqueta(facturaService.versionFactura(id)))) {
+                return null;
+            }
+
             Factura factura = facturaService.obtenerFactura(id);
             
             // Crear un EntityModel con links HATEOAS
-            EntityModel<Factura> facturaModel = EntityModel.of(factura,
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).obtenerFactura(id)).withSelfRel(),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).pagarFactura(id)).withRel("pagar"),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).listarFacturas()).withRel("facturas")
-            );
-            
-            return new ResponseEntity<>(facturaModel, HttpStatus.OK);
+            EntityModel<Factura> facturaModel = enlaces.modeloFactura(factura, base);
+            String version = etiqueta(facturaService.versionFactura(factura));
+
+            if (factura.isPagada()) {
+                return respuestaGuardada(respuestasPagadas.guardar(base, version, facturaModel));
+            }
+            return conVersion(facturaModel, version);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity(e.getMessage(), HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -167,21 +294,36 @@ public class FacturaController {
         }
     }
 
+    /**
+     * Endpoint para marcar muchas facturas como pagadas en una sola llamada.
+     * Recibe la lista de IDs y responde cuáles se pagaron, cuáles ya estaban pagados
+     * y cuáles no existen.
+     */
+    @PutMapping("/factura/pagar")
+    public ResponseEntity<ResultadoOperacionLote> pagarFacturas(@RequestBody List<String> ids) {
+        try {
+            ResultadoOperacionLote resultado = facturaService.pagarFacturas(ids);
+            return new ResponseEntity<>(resultado, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity("Error al procesar la solicitud: " + e.getMessage(), 
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Endpoint para marcar una factura como pagada con soporte HATEOAS.
      */
     @PutMapping("/factura/{id}/pagar")
-    public ResponseEntity<EntityModel<Factura>> pagarFactura(@PathVariable String id) {
+    public ResponseEntity<EntityModel<PagoFactura>> pagarFactura(@PathVariable String id) {
         try {
-            Factura factura = facturaService.pagarFactura(id);
+            facturaService.pagarFactura(id);
             
-            // Crear un EntityModel con links HATEOAS
-            EntityModel<Factura> facturaModel = EntityModel.of(factura,
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).obtenerFactura(id)).withSelfRel(),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).listarFacturas()).withRel("facturas")
-            );
+            // Crear un EntityModel con links HATEOAS (el enlace "self" lleva al detalle completo)
+            EntityModel<PagoFactura> pagoModel = enlaces.modeloPago(new PagoFactura(id, true));
             
-            return new ResponseEntity<>(facturaModel, HttpStatus.OK);
+            return new ResponseEntity<>(pagoModel, HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity(e.getMessage(), HttpStatus.NOT_FOUND);
         } catch (IllegalStateException e) {
@@ -193,21 +335,137 @@ public class FacturaController {
     }
 
     /**
-     * Endpoint para obtener la lista de todas las facturas con soporte HATEOAS.
+     * Endpoint para obtener una página del listado de facturas con soporte HATEOAS.
+     * 
+     * El cuerpo sigue siendo un arreglo JSON de facturas, como antes de paginar, para
+     * no romper a los clientes existentes. La navegación va en la cabecera Link (RFC 8288):
+     * "self", y "next" y "prev" con el cursor ya armado cuando hay páginas en esa dirección;
+     * el cliente solo tiene que seguirlos.
+     * Se puede filtrar por estado de pago (pagada) y por rango de total (totalMin, totalMax).
+     * 
+     * Responde 304 Not Modified si ninguna factura cambió desde la copia del cliente; la
+     * versión sale de los contadores del resumen, sin consultar la página.
      */
     @GetMapping("/factura")
-    public ResponseEntity<List<EntityModel<Factura>>> listarFacturas() {
-        List<Factura> facturas = facturaService.listarFacturas();
-        
-        List<EntityModel<Factura>> facturasModel = facturas.stream()
-            .map(factura -> EntityModel.of(factura, 
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).obtenerFactura(factura.getId())).withSelfRel(),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).pagarFactura(factura.getId())).withRel("pagar"),
-                WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).listarFacturas()).withRel("facturas")
-            ))
-            .collect(Collectors.toList());
-        
-        return new ResponseEntity<>(facturasModel, HttpStatus.OK);
+    public ResponseEntity<List<EntityModel<Factura>>> listarFacturas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamano,
+            @RequestParam(required = false) Boolean pagada,
+            @RequestParam(required = false) Double totalMin,
+            @RequestParam(required = false) Double totalMax,
+            WebRequest solicitud) {
+        try {
+            // La versión se lee antes que la página (ver listarServicios)
+            String version = etiqueta(facturaService.versionFacturas());
+            if (solicitud.checkNotModified(version)) {
+                return null;
+            }
+
+            PaginaFacturas pagina = facturaService.listarFacturas(cursor, tamano,
+                new FiltroFacturas(pagada, totalMin, totalMax));
+
+            List<EntityModel<Factura>> facturasModel = enlaces.modelosFacturas(pagina.getFacturas());
+
+            // Enlaces de navegación entre páginas, conservando tamaño y filtros
+            List<Link> navegacion = new ArrayList<>();
+            navegacion.add(WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class)
+                .listarFacturas(cursor, tamano, pagada, totalMin, totalMax, null)).withSelfRel());
+            if (pagina.getCursorSiguiente() != null) {
+                navegacion.add(WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class)
+                    .listarFacturas(pagina.getCursorSiguiente(), tamano, pagada, totalMin, totalMax, null))
+                    .withRel(IanaLinkRelations.NEXT));
+            }
+            if (pagina.getCursorAnterior() != null) {
+                navegacion.add(WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class)
+                    .listarFacturas(pagina.getCursorAnterior(), tamano, pagada, totalMin, totalMax, null))
+                    .withRel(IanaLinkRelations.PREV));
+            }
+
+            return ResponseEntity.ok()
+                .eTag(version)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.LINK, Links.of(navegacion).toString())
+                .body(facturasModel);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Endpoint para que un terminal reciba solo las facturas creadas, pagadas o eliminadas
+     * desde su última sincronización (GET /api/factura?since=token).
+     * 
+     * Las facturas cambiadas llegan completas en "cambios" y las eliminadas como IDs en
+     * "eliminados". Con "since" vacío, o con un token demasiado viejo, entrega todas las
+     * facturas y "completa" es true: el terminal debe reemplazar su copia en lugar de
+     * aplicar los cambios. Si "hayMas" es true, debe pedir enseguida con el nuevo token.
+     */
+    @GetMapping(value = "/factura", params = "since")
+    public ResponseEntity<Sincronizacion<Factura>> sincronizarFacturas(
+            @RequestParam(defaultValue = "") String since,
+            @RequestParam(required = false) Integer tamano) {
+        try {
+            return new ResponseEntity<>(facturaService.sincronizarFacturas(since, tamano), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Endpoint para obtener el resumen de facturación (total facturado, pagado y por cobrar).
+     * Responde desde contadores que se mantienen al día, sin recorrer las facturas.
+     */
+    @GetMapping("/factura/resumen")
+    public ResponseEntity<EntityModel<ResumenFacturas>> obtenerResumen() {
+        EntityModel<ResumenFacturas> resumenModel = EntityModel.of(facturaService.obtenerResumen(),
+            WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class).obtenerResumen()).withSelfRel(),
+            WebMvcLinkBuilder.linkTo(methodOn(FacturaController.class)
+                .listarFacturas(null, null, null, null, null, null)).withRel("facturas"));
+        return new ResponseEntity<>(resumenModel, HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint para exportar todas las facturas con sus servicios (para contabilidad).
+     * 
+     * La respuesta se escribe a medida que se leen las filas de la base de datos, sin
+     * armar el listado en memoria. Formatos: csv (por defecto, una fila por servicio de
+     * cada factura) o ndjson (una línea JSON por factura). Se puede filtrar por estado
+     * de pago (pagada).
+     */
+    @GetMapping("/factura/export")
+    public ResponseEntity<StreamingResponseBody> exportarFacturas(
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(required = false) Boolean pagada) {
+        try {
+            ExportadorFacturas.Formato salida = ExportadorFacturas.Formato.desde(formato);
+            StreamingResponseBody cuerpo = out -> facturaService.exportarFacturas(salida, pagada, out);
+
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(salida.getTipoContenido() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                    .filename(ExportadorFacturas.nombreArchivo(salida)).build().toString())
+                .body(cuerpo);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Endpoint para eliminar muchas facturas pendientes en una sola llamada.
+     * Recibe la lista de IDs y responde cuáles se eliminaron, cuáles no se eliminaron
+     * porque ya estaban pagados y cuáles no existen.
+     */
+    @DeleteMapping("/factura")
+    public ResponseEntity<ResultadoOperacionLote> eliminarFacturas(@RequestBody List<String> ids) {
+        try {
+            ResultadoOperacionLote resultado = facturaService.eliminarFacturas(ids);
+            return new ResponseEntity<>(resultado, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity("Error al procesar la solicitud: " + e.getMessage(), 
+                    HttpStatus.INTERNAL_SERVER_ERROR);
+        }
     }
 
     /**
@@ -236,4 +494,57 @@ public class FacturaController {
                 .body(Collections.singletonMap("error", "Error al procesar la solicitud: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+
+    // ===== EVENTOS =====
+
+    /**
+     * Endpoint para recibir los cambios en facturas y servicios a medida que ocurren
+     * (Server-Sent Events), en lugar de volver a pedir los listados completos.
+     * 
+     * Cada evento lleva como nombre el tipo de cambio (facturas-creadas, facturas-pagadas,
+     * facturas-eliminadas, servicios-registrados o servicios-importados) y como datos un
+     * arreglo JSON con lo que cambió. El evento "resincronizar" indica que se perdieron
+     * eventos y que hay que volver a pedir los listados.
+     */
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirEventos() {
+        return difusorCambios.suscribir();
+    }
+
+    /**
+     * Arma una respuesta 200 con su ETag.
+     * 
+     * "Cache-Control: no-cache" le indica al navegador que puede guardar la respuesta,
+     * pero que antes de volver a usarla debe preguntar si cambió (If-None-Match).
+     */
+    private <T> ResponseEntity<T> conVersion(T cuerpo, String etiqueta) {
+        return ResponseEntity.ok()
+            .eTag(etiqueta)
+            .cacheControl(CacheControl.noCache())
+            .body(cuerpo);
+    }
+
+    /**
+     * Arma una respuesta 200 con el JSON ya convertido de una factura pagada. Se
+     * devuelve sin tipo porque el cuerpo son los bytes, que se escriben tal cual.
+     */
+    private ResponseEntity respuestaGuardada(RespuestasFacturasPagadas.Respuesta respuesta) {
+        return ResponseEntity.ok()
+            .eTag(respuesta.etiqueta())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaTypes.HAL_JSON)
+            .body(respuesta.cuerpo());
+    }
+
+    /**
+     * Convierte una versión en ETag.
+     * 
+     * El ETag es "débil" (W/): identifica el contenido, no los bytes exactos. Así el
+     * servidor puede comprimir la respuesta con gzip (Tomcat no comprime respuestas con
+     * ETag fuerte, porque los bytes comprimidos ya no coincidirían con el original), y
+     * If-None-Match sigue funcionando igual, porque compara las versiones sin la marca W/.
+     */
+    static String etiqueta(String version) {
+        return "W/\"" + version + "\"";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.servicios.vet.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.servicios.vet.model.Factura;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.mediatype.hal.HalMediaTypeConfiguration;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Respuestas ya convertidas a JSON (HAL) de las facturas pagadas.
+ *
+ * Una factura pagada no se puede volver a pagar ni eliminar, y sus líneas no cambian,
+ * así que su respuesta es siempre la misma. La primera vez que se pide se guardan sus
+ * bytes, y las siguientes se envían tal cual: sin consultar la base de datos, sin armar
+ * el modelo HATEOAS y sin pasar por Jackson.
+ *
+ * Los enlaces de la respuesta llevan la URL base de la petición (esquema, host y
+ * puerto); cada respuesta guardada recuerda la suya y solo se usa para peticiones con
+ * la misma base.
+ *
+ * El tamaño total de las respuestas guardadas está limitado por
+ * "vet.facturas-pagadas.capacidad"; al superarlo se descartan las menos usadas.
+ *
+ * Es seguro usarla desde varios hilos a la vez.
+ */
+@Component
+public class RespuestasFacturasPagadas {
+
+    // Bytes que se suman a cada respuesta para estimar lo que ocupa la entrada completa
+    private static final int BYTES_POR_ENTRADA = 128;
+
+    private final ObjectMapper mapperHal;
+    private final Cache<String, Respuesta> respuestas;
+
+    /**
+     * Usa el mismo formato HAL que Spring HATEOAS aplica al resto de las respuestas
+     */
+    @Autowired
+    public RespuestasFacturasPagadas(ObjectMapper objectMapper, HalMediaTypeConfiguration hal,
+                                     @Value("${vet.facturas-pagadas.capacidad:16MB}") DataSize capacidad) {
+        this(hal.configureObjectMapper(objectMapper.copy()), capacidad);
+    }
+
+    RespuestasFacturasPagadas(ObjectMapper mapperHal, DataSize capacidad) {
+        if (capacidad.toBytes() < 1) {
+            throw new IllegalArgumentException("La capacidad de las respuestas guardadas debe ser mayor que cero");
+        }
+        this.mapperHal = mapperHal;
+        this.respuestas = Caffeine.newBuilder()
+            .maximumWeight(capacidad.toBytes())
+            .weigher((String id, Respuesta respuesta) -> respuesta.cuerpo().length + BYTES_POR_ENTRADA)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Busca la respuesta guardada de una factura pagada.
+     *
+     * @param id El ID de la factura
+     * @param base La URL base de la petición actual
+     * @return La respuesta, o null si no está guardada o se guardó para otra URL base
+     */
+    public Respuesta buscar(String id, String base) {
+        Respuesta respuesta = respuestas.getIfPresent(id);
+        return respuesta != null && respuesta.base().equals(base) ? respuesta : null;
+    }
+
+    /**
+     * Convierte a JSON la respuesta de una factura pagada y la guarda.
+     *
+     * @param base La URL base con la que se armaron los enlaces del modelo
+     * @param etiqueta El ETag de la factura
+     * @param modelo El modelo HATEOAS de la factura, que debe estar pagada
+     * @return La respuesta guardada
+     * @throws IllegalArgumentException Si la factura no está pagada
+     */
+    public Respuesta guardar(String base, String etiqueta, EntityModel<Factura> modelo) throws JsonProcessingException {
+        Factura factura = modelo.getContent();
+        if (factura == null || !factura.isPagada()) {
+            throw new IllegalArgumentException("Solo se guardan las respuestas de facturas pagadas");
+        }
+        Respuesta respuesta = new Respuesta(base, etiqueta, mapperHal.writeValueAsBytes(modelo));
+        respuestas.put(factura.getId(), respuesta);
+        return respuesta;
+    }
+
+    /**
+     * Obtiene la caché subyacente (para publicar sus métricas)
+     */
+    public Cache<String, Respuesta> getCache() {
+        return respuestas;
+    }
+
+    /**
+     * Respuesta guardada: la URL base de sus enlaces, su ETag y el JSON ya convertido
+     */
+    public record Respuesta(String base, String etiqueta, byte[] cuerpo) {
+    }
+}
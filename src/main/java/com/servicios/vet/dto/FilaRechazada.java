@@ -0,0 +1,55 @@
+package com.servicios.vet.dto;
+
+/**
+ * Esta clase es un "Data Transfer Object" (DTO) que informa una fila de un archivo
+ * importado que no se pudo guardar, y por qué.
+ */
+public class FilaRechazada {
+    // Número de la fila en el archivo (la primera fila de datos, después del encabezado, es la 2)
+    private long fila;
+
+    // Motivo del rechazo
+    private String error;
+
+    /**
+     * Constructor vacío necesario para que Spring pueda convertir el objeto a JSON y viceversa
+     */
+    public FilaRechazada() {
+    }
+
+    /**
+     * Constructor que permite crear el rechazo con todos sus datos
+     */
+    public FilaRechazada(long fila, String error) {
+        this.fila = fila;
+        this.error = error;
+    }
+
+    /**
+     * Obtiene el número de la fila en el archivo
+     */
+    public long getFila() {
+        return fila;
+    }
+
+    /**
+     * Establece el número de la fila en el archivo
+     */
+    public void setFila(long fila) {
+        this.fila = fila;
+    }
+
+    /**
+     * Obtiene el motivo del rechazo
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Establece el motivo del rechazo
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,75 @@
+package com.servicios.vet.dto;
+
+/**
+ * Esta clase agrupa los filtros opcionales que se pueden aplicar al listar facturas.
+ * 
+ * Cada filtro que quede en null simplemente no se aplica, de modo que un filtro
+ * "vacío" equivale a pedir todas las facturas.
+ */
+public class FiltroFacturas {
+    // Estado de pago buscado (true = pagadas, false = pendientes, null = todas)
+    private Boolean pagada;
+
+    // Total mínimo (inclusive) de las facturas buscadas
+    private Double totalMin;
+
+    // Total máximo (inclusive) de las facturas buscadas
+    private Double totalMax;
+
+    /**
+     * Constructor vacío que crea un filtro sin restricciones
+     */
+    public FiltroFacturas() {
+    }
+
+    /**
+     * Constructor que permite crear el filtro con todos sus criterios
+     */
+    public FiltroFacturas(Boolean pagada, Double totalMin, Double totalMax) {
+        this.pagada = pagada;
+        this.totalMin = totalMin;
+        this.totalMax = totalMax;
+    }
+
+    /**
+     * Obtiene el estado de pago buscado
+     */
+    public Boolean getPagada() {
+        return pagada;
+    }
+
+    /**
+     * Establece el estado de pago buscado
+     */
+    public void setPagada(Boolean pagada) {
+        this.pagada = pagada;
+    }
+
+    /**
+     * Obtiene el total mínimo buscado
+     */
+    public Double getTotalMin() {
+        return totalMin;
+    }
+
+    /**
+     * Establece el total mínimo buscado
+     */
+    public void setTotalMin(Double totalMin) {
+        this.totalMin = totalMin;
+    }
+
+    /**
+     * Obtiene el total máximo buscado
+     */
+    public Double getTotalMax() {
+        return totalMax;
+    }
+
+    /**
+     * Establece el total máximo buscado
+     */
+    public void setTotalMax(Double totalMax) {
+        this.totalMax = totalMax;
+    }
+}
@@ -0,0 +1,58 @@
+package com.servicios.vet.dto;
+
+/**
+ * Esta clase es un "Data Transfer Object" (DTO) con la respuesta al pago de una factura.
+ * 
+ * El pago se registra con una sola sentencia UPDATE, sin leer la factura, así que la
+ * respuesta solo informa el ID y el nuevo estado; los enlaces permiten obtener el
+ * detalle completo si se necesita.
+ */
+public class PagoFactura {
+    // ID de la factura pagada
+    private String id;
+
+    // Estado de pago de la factura (siempre true después de pagarla)
+    private boolean pagada;
+
+    /**
+     * Constructor vacío necesario para que Spring pueda convertir el objeto a JSON y viceversa
+     */
+    public PagoFactura() {
+    }
+
+    /**
+     * Constructor que permite crear la respuesta con todos sus datos
+     */
+    public PagoFactura(String id, boolean pagada) {
+        this.id = id;
+        this.pagada = pagada;
+    }
+
+    /**
+     * Obtiene el ID de la factura pagada
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Establece el ID de la factura pagada
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Indica si la factura quedó pagada
+     */
+    public boolean isPagada() {
+        return pagada;
+    }
+
+    /**
+     * Establece el estado de pago de la factura
+     */
+    public void setPagada(boolean pagada) {
+        this.pagada = pagada;
+    }
+}
@@ -0,0 +1,91 @@
+package com.servicios.vet.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Esta clase es un "Data Transfer Object" (DTO) con el resultado de importar un
+ * archivo CSV de servicios (por ejemplo, una nueva lista de precios).
+ *
+ * Para que la respuesta no crezca sin límite con un archivo lleno de errores, solo se
+ * detallan las primeras MAXIMO_DETALLES filas rechazadas; "rechazados" siempre tiene
+ * la cantidad total.
+ */
+public class ResultadoImportacionServicios {
+    // Cantidad máxima de filas rechazadas que se detallan en la respuesta
+    public static final int MAXIMO_DETALLES = 1000;
+
+    // Cantidad de servicios creados o actualizados
+    private long importados;
+
+    // Cantidad total de filas rechazadas
+    private long rechazados;
+
+    // Detalle de las filas rechazadas (hasta MAXIMO_DETALLES)
+    private List<FilaRechazada> filasRechazadas = new ArrayList<>();
+
+    /**
+     * Constructor vacío necesario para que Spring pueda convertir el objeto a JSON y viceversa
+     */
+    public ResultadoImportacionServicios() {
+    }
+
+    /**
+     * Suma servicios guardados al resultado
+     */
+    public void sumarImportados(long cantidad) {
+        importados += cantidad;
+    }
+
+    /**
+     * Registra una fila rechazada
+     */
+    public void rechazar(long fila, String error) {
+        rechazados++;
+        if (filasRechazadas.size() < MAXIMO_DETALLES) {
+            filasRechazadas.add(new FilaRechazada(fila, error));
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de servicios creados o actualizados
+     */
+    public long getImportados() {
+        return importados;
+    }
+
+    /**
+     * Establece la cantidad de servicios creados o actualizados
+     */
+    public void setImportados(long importados) {
+        this.importados = importados;
+    }
+
+    /**
+     * Obtiene la cantidad total de filas rechazadas
+     */
+    public long getRechazados() {
+        return rechazados;
+    }
+
+    /**
+     * Establece la cantidad total de filas rechazadas
+     */
+    public void setRechazados(long rechazados) {
+        this.rechazados = rechazados;
+    }
+
+    /**
+     * Obtiene el detalle de las filas rechazadas
+     */
+    public List<FilaRechazada> getFilasRechazadas() {
+        return filasRechazadas;
+    }
+
+    /**
+     * Establece el detalle de las filas rechazadas
+     */
+    public void setFilasRechazadas(List<FilaRechazada> filasRechazadas) {
+        this.filasRechazadas = filasRechazadas;
+    }
+}
@@ -0,0 +1,112 @@
+package com.servicios.vet.dto;
+
+/**
+ * Esta clase es un "Data Transfer Object" (DTO) que informa qué pasó con un elemento
+ * de una operación por lotes (por ejemplo, la creación masiva de facturas).
+ * 
+ * Cada elemento del lote recibe su propio resultado, de modo que un elemento con
+ * errores no impide procesar los demás.
+ */
+public class ResultadoItemLote {
+    // Estados posibles de un elemento del lote
+    public static final String CREADA = "CREADA";
+    public static final String RECHAZADA = "RECHAZADA";
+
+    // Posición del elemento en la lista recibida (empieza en 0)
+    private int indice;
+
+    // Resultado del elemento: CREADA o RECHAZADA
+    private String estado;
+
+    // ID de la factura creada (null si fue rechazada)
+    private String facturaId;
+
+    // Motivo del rechazo (null si fue creada)
+    private String error;
+
+    /**
+     * Constructor vacío necesario para que Spring pueda convertir el objeto a JSON y viceversa
+     */
+    public ResultadoItemLote() {
+    }
+
+    /**
+     * Constructor que permite crear el resultado con todos sus datos
+     */
+    public ResultadoItemLote(int indice, String estado, String facturaId, String error) {
+        this.indice = indice;
+        this.estado = estado;
+        this.facturaId = facturaId;
+        this.error = error;
+    }
+
+    /**
+     * Crea el resultado de un elemento que generó una factura
+     */
+    public static ResultadoItemLote creada(int indice, String facturaId) {
+        return new ResultadoItemLote(indice, CREADA, facturaId, null);
+    }
+
+    /**
+     * Crea el resultado de un elemento que no pudo procesarse
+     */
+    public static ResultadoItemLote rechazada(int indice, String error) {
+        return new ResultadoItemLote(indice, RECHAZADA, null, error);
+    }
+
+    /**
+     * Obtiene la posición del elemento en la lista recibida
+     */
+    public int getIndice() {
+        return indice;
+    }
+
+    /**
+     * Establece la posición del elemento en la lista recibida
+     */
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    /**
+     * Obtiene el resultado del elemento (CREADA o RECHAZADA)
+     */
+    public String getEstado() {
+        return estado;
+    }
+
+    /**
+     * Establece el resultado del elemento
+     */
+    public void setEstado(String estado) {
+        this.estado = estado;
+    }
+
+    /**
+     * Obtiene el ID de la factura creada
+     */
+    public String getFacturaId() {
+        return facturaId;
+    }
+
+    /**
+     * Establece el ID de la factura creada
+     */
+    public void setFacturaId(String facturaId) {
+        this.facturaId = facturaId;
+    }
+
+    /**
+     * Obtiene el motivo del rechazo
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Establece el motivo del rechazo
+     */
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,81 @@
+package com.servicios.vet.dto;
+
+import java.util.List;
+
+/**
+ * Esta clase es un "Data Transfer Object" (DTO) con el informe de una creación
+ * masiva de facturas: cuántas se crearon, cuántas se rechazaron y el detalle
+ * de cada elemento en el mismo orden en que se recibieron.
+ */
+public class ResultadoLoteFacturas {
+    // Cantidad de facturas creadas
+    private int creadas;
+
+    // Cantidad de elementos rechazados
+    private int rechazadas;
+
+    // Resultado de cada elemento, en el orden de la solicitud
+    private List<ResultadoItemLote> resultados;
+
+    /**
+     * Constructor vacío necesario para que Spring pueda convertir el objeto a JSON y viceversa
+     */
+    public ResultadoLoteFacturas() {
+    }
+
+    /**
+     * Constructor que calcula los totales a partir del resultado de cada elemento
+     */
+    public ResultadoLoteFacturas(List<ResultadoItemLote> resultados) {
+        this.resultados = resultados;
+        for (ResultadoItemLote resultado : resultados) {
+            if (ResultadoItemLote.CREADA.equals(resultado.getEstado())) {
+                creadas++;
+            } else {
+                rechazadas++;
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de facturas creadas
+     */
+    public int getCreadas() {
+        return creadas;
+    }
+
+    /**
+     * Establece la cantidad de facturas creadas
+     */
+    public void setCreadas(int creadas) {
+        this.creadas = creadas;
+    }
+
+    /**
+     * Obtiene la cantidad de elementos rechazados
+     */
+    public int getRechazadas() {
+        return rechazadas;
+    }
+
+    /**
+     * Establece la cantidad de elementos rechazados
+     */
+    public void setRechazadas(int rechazadas) {
+        this.rechazadas = rechazadas;
+    }
+
+    /**
+     * Obtiene el resultado de cada elemento
+     */
+    public List<ResultadoItemLote> getResultados() {
+        return resultados;
+    }
+
+    /**
+     * Establece el resultado de cada elemento
+     */
+    public void setResultados(List<ResultadoItemLote> resultados) {
+        this.resultados = resultados;
+    }
+}
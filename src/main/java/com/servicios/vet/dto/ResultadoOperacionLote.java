@@ -0,0 +1,79 @@
+package com.servicios.vet.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Esta clase es un "Data Transfer Object" (DTO) con el resultado de una operación
+ * aplicada a muchas facturas a la vez, identificadas por su ID (por ejemplo, el pago
+ * masivo de fin de mes).
+ * 
+ * Cada ID recibido aparece en exactamente una de las tres listas.
+ */
+public class ResultadoOperacionLote {
+    // IDs de las facturas a las que se aplicó la operación
+    private List<String> procesadas = new ArrayList<>();
+
+    // IDs de las facturas que no se modificaron porque ya estaban pagadas
+    private List<String> yaPagadas = new ArrayList<>();
+
+    // IDs que no corresponden a ninguna factura
+    private List<String> noEncontradas = new ArrayList<>();
+
+    /**
+     * Constructor vacío necesario para que Spring pueda convertir el objeto a JSON y viceversa
+     */
+    public ResultadoOperacionLote() {
+    }
+
+    /**
+     * Agrega al resultado los IDs informados por otro resultado parcial (por ejemplo, un tramo)
+     */
+    public void agregar(ResultadoOperacionLote parcial) {
+        procesadas.addAll(parcial.getProcesadas());
+        yaPagadas.addAll(parcial.getYaPagadas());
+        noEncontradas.addAll(parcial.getNoEncontradas());
+    }
+
+    /**
+     * Obtiene los IDs de las facturas a las que se aplicó la operación
+     */
+    public List<String> getProcesadas() {
+        return procesadas;
+    }
+
+    /**
+     * Establece los IDs de las facturas a las que se aplicó la operación
+     */
+    public void setProcesadas(List<String> procesadas) {
+        this.procesadas = procesadas;
+    }
+
+    /**
+     * Obtiene los IDs de las facturas que ya estaban pagadas
+     */
+    public List<String> getYaPagadas() {
+        return yaPagadas;
+    }
+
+    /**
+     * Establece los IDs de las facturas que ya estaban pagadas
+     */
+    public void setYaPagadas(List<String> yaPagadas) {
+        this.yaPagadas = yaPagadas;
+    }
+
+    /**
+     * Obtiene los IDs que no corresponden a ninguna factura
+     */
+    public List<String> getNoEncontradas() {
+        return noEncontradas;
+    }
+
+    /**
+     * Establece los IDs que no corresponden a ninguna factura
+     */
+    public void setNoEncontradas(List<String> noEncontradas) {
+        this.noEncontradas = noEncontradas;
+    }
+}
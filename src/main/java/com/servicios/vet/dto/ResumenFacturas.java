@@ -0,0 +1,132 @@
+package com.servicios.vet.dto;
+
+import com.servicios.vet.model.Moneda;
+
+/**
+ * Esta clase es un "Data Transfer Object" (DTO) con el resumen de facturación:
+ * cuánto se ha facturado, cuánto se ha cobrado y cuánto queda por cobrar.
+ *
+ * Los montos se calculan en centavos y se entregan con dos decimales, igual que
+ * los totales de las facturas.
+ */
+public class ResumenFacturas {
+    // Cantidad de facturas emitidas
+    private long facturas;
+
+    // Cantidad de facturas pagadas
+    private long pagadas;
+
+    // Cantidad de facturas pendientes de pago
+    private long pendientes;
+
+    // Suma de los totales de todas las facturas
+    private double totalFacturado;
+
+    // Suma de los totales de las facturas pagadas
+    private double totalPagado;
+
+    // Suma de los totales de las facturas pendientes (cuentas por cobrar)
+    private double porCobrar;
+
+    /**
+     * Constructor vacío necesario para que Spring pueda convertir el objeto a JSON y viceversa
+     */
+    public ResumenFacturas() {
+    }
+
+    /**
+     * Crea el resumen a partir de los contadores en centavos
+     */
+    public ResumenFacturas(long facturas, long facturadoCentavos, long pagadas, long pagadoCentavos) {
+        this.facturas = facturas;
+        this.pagadas = pagadas;
+        this.pendientes = facturas - pagadas;
+        this.totalFacturado = Moneda.aMonto(facturadoCentavos);
+        this.totalPagado = Moneda.aMonto(pagadoCentavos);
+        this.porCobrar = Moneda.aMonto(facturadoCentavos - pagadoCentavos);
+    }
+
+    /**
+     * Obtiene la cantidad de facturas emitidas
+     */
+    public long getFacturas() {
+        return facturas;
+    }
+
+    /**
+     * Establece la cantidad de facturas emitidas
+     */
+    public void setFacturas(long facturas) {
+        this.facturas = facturas;
+    }
+
+    /**
+     * Obtiene la cantidad de facturas pagadas
+     */
+    public long getPagadas() {
+        return pagadas;
+    }
+
+    /**
+     * Establece la cantidad de facturas pagadas
+     */
+    public void setPagadas(long pagadas) {
+        this.pagadas = pagadas;
+    }
+
+    /**
+     * Obtiene la cantidad de facturas pendientes de pago
+     */
+    public long getPendientes() {
+        return pendientes;
+    }
+
+    /**
+     * Establece la cantidad de facturas pendientes de pago
+     */
+    public void setPendientes(long pendientes) {
+        this.pendientes = pendientes;
+    }
+
+    /**
+     * Obtiene la suma de los totales de todas las facturas
+     */
+    public double getTotalFacturado() {
+        return totalFacturado;
+    }
+
+    /**
+     * Establece la suma de los totales de todas las facturas
+     */
+    public void setTotalFacturado(double totalFacturado) {
+        this.totalFacturado = totalFacturado;
+    }
+
+    /**
+     * Obtiene la suma de los totales de las facturas pagadas
+     */
+    public double getTotalPagado() {
+        return totalPagado;
+    }
+
+    /**
+     * Establece la suma de los totales de las facturas pagadas
+     */
+    public void setTotalPagado(double totalPagado) {
+        this.totalPagado = totalPagado;
+    }
+
+    /**
+     * Obtiene la suma de los totales de las facturas pendientes
+     */
+    public double getPorCobrar() {
+        return porCobrar;
+    }
+
+    /**
+     * Establece la suma de los totales de las facturas pendientes
+     */
+    public void setPorCobrar(double porCobrar) {
+        this.porCobrar = porCobrar;
+    }
+}
@@ -0,0 +1,120 @@
+package com.servicios.vet.dto;
+
+import java.util.List;
+
+/**
+ * Esta clase es un "Data Transfer Object" (DTO) con lo que cambió en las facturas o en
+ * los servicios desde la última sincronización de un terminal.
+ * 
+ * El terminal guarda "token" y lo envía en la próxima sincronización (?since=token).
+ * Si "hayMas" es true, la respuesta se cortó por tamaño y debe pedirse enseguida la
+ * siguiente con el nuevo token. Un mismo registro puede llegar más de una vez (por
+ * ejemplo, si cambió durante la sincronización); el terminal debe reemplazar la copia
+ * que ya tenga.
+ * 
+ * @param <T> Factura o Servicio
+ */
+public class Sincronizacion<T> {
+    // Registros creados o modificados, ordenados por el momento del cambio
+    private List<T> cambios;
+
+    // IDs de los registros eliminados
+    private List<String> eliminados;
+
+    // Token para la próxima sincronización
+    private String token;
+
+    // Indica si quedan cambios que no entraron en esta respuesta
+    private boolean hayMas;
+
+    // Indica si es una sincronización completa: el terminal debe descartar lo que tenía
+    // y quedarse solo con lo que reciba en esta respuesta y en las siguientes de "hayMas"
+    private boolean completa;
+
+    /**
+     * Constructor vacío necesario para que Spring pueda convertir el objeto a JSON y viceversa
+     */
+    public Sincronizacion() {
+    }
+
+    /**
+     * Constructor que permite crear la respuesta con todos sus datos
+     */
+    public Sincronizacion(List<T> cambios, List<String> eliminados, String token, boolean hayMas, boolean completa) {
+        this.cambios = cambios;
+        this.eliminados = eliminados;
+        this.token = token;
+        this.hayMas = hayMas;
+        this.completa = completa;
+    }
+
+    /**
+     * Obtiene los registros creados o modificados
+     */
+    public List<T> getCambios() {
+        return cambios;
+    }
+
+    /**
+     * Establece los registros creados o modificados
+     */
+    public void setCambios(List<T> cambios) {
+        this.cambios = cambios;
+    }
+
+    /**
+     * Obtiene los IDs de los registros eliminados
+     */
+    public List<String> getEliminados() {
+        return eliminados;
+    }
+
+    /**
+     * Establece los IDs de los registros eliminados
+     */
+    public void setEliminados(List<String> eliminados) {
+        this.eliminados = eliminados;
+    }
+
+    /**
+     * Obtiene el token para la próxima sincronización
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Establece el token para la próxima sincronización
+     */
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Indica si quedan cambios por pedir con el nuevo token
+     */
+    public boolean isHayMas() {
+        return hayMas;
+    }
+
+    /**
+     * Establece si quedan cambios por pedir
+     */
+    public void setHayMas(boolean hayMas) {
+        this.hayMas = hayMas;
+    }
+
+    /**
+     * Indica si es una sincronización completa
+     */
+    public boolean isCompleta() {
+        return completa;
+    }
+
+    /**
+     * Establece si es una sincronización completa
+     */
+    public void setCompleta(boolean completa) {
+        this.completa = completa;
+    }
+}
\ No newline at end of file
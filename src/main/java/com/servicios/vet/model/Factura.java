@@ -1,45 +1,111 @@
 package com.servicios.vet.model;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Type;
+import org.springframework.data.domain.Persistable;
+import org.springframework.hateoas.server.core.Relation;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.JoinTable;
-import jakarta.persistence.ManyToMany;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 /**
  * Esta clase representa una factura de servicios veterinarios.
  * Es como un documento que registra los servicios brindados a un cliente
  * y calcula cuánto debe pagar en total.
+ * 
+ * Cada servicio cobrado es una línea (ver LineaFactura) con una copia de su nombre y
+ * precio; si el mismo servicio se cobra varias veces, se suma a la cantidad de su línea.
  */
 @Entity
-@Table(name = "FACTURAS")
-public class Factura {
+@Table(name = "FACTURAS", indexes = {
+    // Índices que permiten paginar por ID aplicando los filtros del listado
+    @Index(name = "IDX_FACTURAS_PAGADA_ID", columnList = "PAGADA, FACTURA_ID"),
+    @Index(name = "IDX_FACTURAS_TOTAL_ID", columnList = "TOTAL_CENTAVOS, FACTURA_ID"),
+    // Índice que permite leer solo las facturas que cambiaron desde una sincronización
+    @Index(name = "IDX_FACTURAS_ACTUALIZADA", columnList = "ACTUALIZADA, FACTURA_ID")
+})
+@Relation(itemRelation = "factura", collectionRelation = "facturas")
+public class Factura implements Persistable<String> {
+    // Región de la caché de segundo nivel donde se guardan las líneas (ver application.conf)
+    public static final String REGION_CACHE_LINEAS = "lineas-factura";
+
+    // Nombre con el que Hibernate identifica la colección de líneas (para desalojarla)
+    public static final String ROL_LINEAS = "com.servicios.vet.model.Factura.lineas";
+
     // Un código único para identificar cada factura
+    // (se guarda en la base de datos como 16 bytes; ver IdBinarioType)
     @Id
+    @Type(IdBinarioType.class)
     @Column(name = "FACTURA_ID")
     private String id;
     
-    // Lista de servicios veterinarios incluidos en esta factura
-    @ManyToMany
-    @JoinTable(
-        name = "FACTURA_SERVICIOS",
-        joinColumns = @JoinColumn(name = "FACTURA_ID"),
-        inverseJoinColumns = @JoinColumn(name = "SERVICIO_ID")
-    )
-    private List<Servicio> servicios;
+    // Líneas de la factura, guardadas en la tabla FACTURA_LINEAS con la factura como dueña.
+    // Leerlas no requiere cruzar con SERVICIOS: la clave primaria (FACTURA_ID, LINEA)
+    // permite traer todas las líneas de una factura con un solo recorrido del índice.
+    // Se cargan bajo demanda; si varias facturas las necesitan, Hibernate las trae
+    // en lotes (una sola consulta para hasta 100 facturas) en vez de una por factura.
+    // Como las líneas no cambian después de crear la factura, se guardan también en la
+    // caché de segundo nivel: las que están ahí no se vuelven a leer de la base de datos
+    // (pagar la factura no las afecta; al borrarla se desalojan).
+    @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = REGION_CACHE_LINEAS)
+    @BatchSize(size = 100)
+    @CollectionTable(name = "FACTURA_LINEAS", joinColumns = @JoinColumn(name = "FACTURA_ID"))
+    @OrderColumn(name = "LINEA")
+    private List<LineaFactura> lineas;
     
-    // El monto total a pagar, calculado sumando el costo de todos los servicios
-    @Column(name = "TOTAL", nullable = false)
-    private double total;
+    // El monto total a pagar en centavos, calculado sumando los montos de todas las líneas
+    @Column(name = "TOTAL_CENTAVOS", nullable = false)
+    private long totalCentavos;
     
     // Indica si la factura ya fue pagada (true) o aún está pendiente (false)
     @Column(name = "PAGADA", nullable = false)
     private boolean pagada;
 
+    // Versión de la fila, que aumenta con cada cambio. Hibernate la verifica al guardar
+    // la entidad, y el pago la incrementa en la misma sentencia UPDATE que marca la factura.
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private long version;
+
+    // Momento en que se creó la factura
+    @Column(name = "CREADA", nullable = false, updatable = false)
+    private Instant creada;
+
+    // Momento del último cambio (la creación o el pago). El pago es un UPDATE directo
+    // que no pasa por la entidad, así que lo actualiza en la misma sentencia.
+    @Column(name = "ACTUALIZADA", nullable = false)
+    private Instant actualizada;
+
+    // Indica si la factura todavía no se ha guardado. Como el ID lo asignamos nosotros,
+    // sin esta marca Spring Data tendría que consultar la base de datos antes de insertar.
+    @Transient
+    private boolean nueva = true;
+
     /**
      * Constructor vacío que crea una factura en estado "no pagada" por defecto
      */
@@ -49,25 +115,84 @@ public class Factura {
 
     /**
      * Constructor que crea una factura con ID y servicios específicos.
-     * El total se calcula automáticamente y la factura se marca como no pagada.
+     * 
+     * Los servicios repetidos se agrupan en una sola línea con su cantidad, en el orden
+     * en que aparecen por primera vez. El total se calcula automáticamente y la factura
+     * se marca como no pagada.
      */
     public Factura(String id, List<Servicio> servicios) {
         this.id = id;
-        this.servicios = servicios;
+        this.lineas = agruparEnLineas(servicios);
         this.pagada = false;
         this.calcularTotal();
     }
 
     /**
-     * Método interno que suma el costo de todos los servicios para obtener el total
+     * Arma una línea por cada servicio distinto, sumando las repeticiones
+     */
+    private static List<LineaFactura> agruparEnLineas(List<Servicio> servicios) {
+        Map<String, LineaFactura> porServicio = new LinkedHashMap<>();
+        for (int i = 0, cantidad = servicios.size(); i < cantidad; i++) {
+            Servicio servicio = servicios.get(i);
+            porServicio.merge(servicio.getId(), new LineaFactura(servicio, 1), LineaFactura::sumar);
+        }
+        return new ArrayList<>(porServicio.values());
+    }
+
+    /**
+     * Método interno que suma el monto de todas las líneas para obtener el total.
+     * La suma es en centavos (exacta) y recorre la lista por posición, sin crear
+     * objetos intermedios.
+     * 
+     * @throws ArithmeticException Si el total no cabe en un long
      */
     private void calcularTotal() {
-        this.total = servicios.stream().mapToDouble(Servicio::getCosto).sum();
+        long suma = 0;
+        for (int i = 0, cantidad = lineas.size(); i < cantidad; i++) {
+            suma = Math.addExact(suma, lineas.get(i).getSubtotalCentavos());
+        }
+        this.totalCentavos = suma;
+    }
+
+    /**
+     * Registra el momento de creación antes de insertar la factura
+     */
+    @PrePersist
+    void registrarCreacion() {
+        this.creada = Instantes.ahora();
+        this.actualizada = this.creada;
+    }
+
+    /**
+     * Registra el momento del cambio antes de actualizar la factura
+     */
+    @PreUpdate
+    void registrarCambio() {
+        this.actualizada = Instantes.ahora();
+    }
+
+    /**
+     * Marca la factura como ya existente en la base de datos, después de leerla o guardarla
+     */
+    @PostLoad
+    @PostPersist
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+
+    /**
+     * Indica a Spring Data si la factura debe insertarse (true) o actualizarse (false)
+     */
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return nueva;
     }
 
     /**
      * Obtiene el identificador único de la factura
      */
+    @Override
     public String getId() {
         return id;
     }
@@ -80,25 +205,49 @@ public class Factura {
     }
 
     /**
-     * Obtiene la lista de servicios incluidos en la factura
+     * Obtiene las líneas de la factura (no se pueden modificar)
      */
-    public List<Servicio> getServicios() {
-        return servicios;
+    public List<LineaFactura> getLineas() {
+        return Collections.unmodifiableList(lineas);
     }
 
     /**
-     * Establece o reemplaza la lista de servicios y recalcula el total
+     * Obtiene el monto total a pagar por todos los servicios
      */
-    public void setServicios(List<Servicio> servicios) {
-        this.servicios = servicios;
-        this.calcularTotal();
+    public double getTotal() {
+        return Moneda.aMonto(totalCentavos);
     }
 
     /**
-     * Obtiene el monto total a pagar por todos los servicios
+     * Obtiene el monto total en centavos, que es como se guarda y se suma
      */
-    public double getTotal() {
-        return total;
+    @JsonIgnore
+    public long getTotalCentavos() {
+        return totalCentavos;
+    }
+
+    /**
+     * Obtiene la versión de la fila, que cambia cada vez que la factura se modifica
+     */
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Obtiene el momento en que se creó la factura
+     */
+    @JsonIgnore
+    public Instant getCreada() {
+        return creada;
+    }
+
+    /**
+     * Obtiene el momento del último cambio de la factura
+     */
+    @JsonIgnore
+    public Instant getActualizada() {
+        return actualizada;
     }
 
     /**
@@ -0,0 +1,73 @@
+package com.servicios.vet.model;
+
+import java.time.Instant;
+
+import org.hibernate.annotations.Type;
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Esta clase registra que una factura fue eliminada, y cuándo.
+ * 
+ * Al eliminar una factura su fila desaparece, así que un terminal que sincroniza solo
+ * lo que cambió no tendría cómo enterarse. Esta marca queda en su lugar para que la
+ * sincronización la informe (ver SincronizacionService). Las marcas se depuran después
+ * de "vet.sincronizacion.retencion"; un terminal que no sincronizó en ese tiempo recibe
+ * todas las facturas de nuevo.
+ */
+@Entity
+@Table(name = "FACTURAS_ELIMINADAS", indexes = {
+    // Índice que permite leer solo las eliminaciones posteriores a una sincronización
+    @Index(name = "IDX_FACTURAS_ELIMINADAS_FECHA", columnList = "ELIMINADA, FACTURA_ID")
+})
+public class FacturaEliminada implements Persistable<String> {
+    // ID de la factura eliminada (se guarda como 16 bytes; ver IdBinarioType)
+    @Id
+    @Type(IdBinarioType.class)
+    @Column(name = "FACTURA_ID")
+    private String id;
+
+    // Momento en que se eliminó la factura
+    @Column(name = "ELIMINADA", nullable = false)
+    private Instant eliminada;
+
+    /**
+     * Constructor vacío requerido por JPA
+     */
+    protected FacturaEliminada() {
+    }
+
+    public FacturaEliminada(String id, Instant eliminada) {
+        this.id = id;
+        this.eliminada = eliminada;
+    }
+
+    /**
+     * Obtiene el ID de la factura eliminada
+     */
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene el momento en que se eliminó la factura
+     */
+    public Instant getEliminada() {
+        return eliminada;
+    }
+
+    /**
+     * Las marcas solo se insertan (una factura se elimina una sola vez), así que Spring
+     * Data nunca necesita consultar si ya existen antes de guardarlas
+     */
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.servicios.vet.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Esta clase representa una "franja" de los contadores del resumen de facturación.
+ *
+ * El resumen (cantidad de facturas, total facturado y total pagado) se mantiene al día
+ * con cada cambio en las facturas, para responder sin recorrer la tabla FACTURAS.
+ * Si todos los cambios actualizaran una misma fila, las transacciones simultáneas
+ * tendrían que esperar su turno para modificarla; por eso los contadores se reparten
+ * en varias filas (franjas), cada cambio suma en una franja elegida al azar y el
+ * resumen es la suma de todas las franjas.
+ *
+ * Cada franja cuenta además cuántos cambios sumó ("cambios"). La suma de esa columna
+ * solo crece, así que sirve como número de versión del listado de facturas (ETag).
+ */
+@Entity
+@Table(name = "RESUMEN_FACTURAS")
+public class FranjaResumen {
+    // Número de la franja (de 0 a la cantidad de franjas menos uno)
+    @Id
+    @Column(name = "FRANJA")
+    private int franja;
+
+    // Cantidad de facturas
+    @Column(name = "FACTURAS", nullable = false)
+    private long facturas;
+
+    // Suma de los totales de las facturas, en centavos
+    @Column(name = "FACTURADO_CENTAVOS", nullable = false)
+    private long facturadoCentavos;
+
+    // Cantidad de facturas pagadas
+    @Column(name = "PAGADAS", nullable = false)
+    private long pagadas;
+
+    // Suma de los totales de las facturas pagadas, en centavos
+    @Column(name = "PAGADO_CENTAVOS", nullable = false)
+    private long pagadoCentavos;
+
+    // Cantidad de cambios sumados en esta franja; no se reinicia al reconciliar
+    @Column(name = "CAMBIOS", nullable = false)
+    private long cambios;
+
+    /**
+     * Constructor vacío requerido por JPA
+     */
+    public FranjaResumen() {
+    }
+
+    /**
+     * Crea una franja con todos sus contadores en cero
+     */
+    public FranjaResumen(int franja) {
+        this.franja = franja;
+    }
+
+    /**
+     * Reemplaza todos los contadores de la franja (usado al reconciliar)
+     */
+    public void establecer(long facturas, long facturadoCentavos, long pagadas, long pagadoCentavos) {
+        this.facturas = facturas;
+        this.facturadoCentavos = facturadoCentavos;
+        this.pagadas = pagadas;
+        this.pagadoCentavos = pagadoCentavos;
+    }
+
+    /**
+     * Cuenta un cambio en las facturas que no pasó por la aplicación (detectado al reconciliar)
+     */
+    public void registrarCambio() {
+        this.cambios++;
+    }
+
+    public int getFranja() {
+        return franja;
+    }
+
+    public long getFacturas() {
+        return facturas;
+    }
+
+    public long getFacturadoCentavos() {
+        return facturadoCentavos;
+    }
+
+    public long getPagadas() {
+        return pagadas;
+    }
+
+    public long getPagadoCentavos() {
+        return pagadoCentavos;
+    }
+
+    public long getCambios() {
+        return cambios;
+    }
+}
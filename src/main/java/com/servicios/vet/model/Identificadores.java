@@ -0,0 +1,115 @@
+package com.servicios.vet.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Genera y convierte los identificadores de servicios y facturas.
+ * 
+ * Los IDs son UUID versión 7: los primeros 48 bits son el instante de creación en
+ * milisegundos, de modo que los IDs nuevos siempre quedan "al final" del índice de la
+ * clave primaria en vez de repartirse al azar por todo el árbol, como pasaba con los
+ * UUID aleatorios. Dentro de un mismo milisegundo un contador de 12 bits mantiene el
+ * orden, y los últimos 62 bits son aleatorios para que los IDs no se puedan adivinar.
+ * 
+ * Hacia afuera (JSON, URLs) los IDs se siguen mostrando como el texto de 36 caracteres
+ * de siempre; en la base de datos se guardan como 16 bytes (RAW(16) en Oracle).
+ */
+public final class Identificadores {
+    // Cantidad de bytes que ocupa un ID en la base de datos
+    public static final int LONGITUD_BYTES = 16;
+
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    // Último valor usado de (milisegundos << 12 | contador), para garantizar orden creciente
+    private static final AtomicLong ULTIMO_INSTANTE = new AtomicLong();
+
+    private Identificadores() {
+    }
+
+    /**
+     * Genera un nuevo ID ordenado por tiempo, en su forma de texto
+     */
+    public static String nuevo() {
+        long ahora = System.currentTimeMillis() << 12;
+        long instante = ULTIMO_INSTANTE.updateAndGet(ultimo -> Math.max(ahora, ultimo + 1));
+
+        // 48 bits de milisegundos, 4 bits de versión (7) y 12 bits de contador
+        long masSignificativos = ((instante >>> 12) << 16) | 0x7000L | (instante & 0x0FFFL);
+        // 2 bits de variante (10) y 62 bits aleatorios
+        long menosSignificativos = (ALEATORIO.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(masSignificativos, menosSignificativos).toString();
+    }
+
+    /**
+     * Indica si el texto tiene el formato de un ID (UUID de 36 caracteres)
+     */
+    public static boolean esValido(String id) {
+        if (id == null || id.length() != 36) {
+            return false;
+        }
+        try {
+            UUID.fromString(id);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Obtiene la forma de texto de un ID tal como sale de la base de datos (en minúsculas).
+     * Los clientes pueden enviar los IDs en mayúsculas; compararlos sin convertirlos
+     * antes haría que el mismo ID pareciera otro.
+     * 
+     * @throws IllegalArgumentException Si el texto no es un ID válido
+     */
+    public static String canonico(String id) {
+        if (!esValido(id)) {
+            throw new IllegalArgumentException("Identificador inválido: " + id);
+        }
+        return UUID.fromString(id).toString();
+    }
+
+    /**
+     * Convierte un ID de texto en los 16 bytes con que se guarda en la base de datos
+     * 
+     * @throws IllegalArgumentException Si el texto no es un ID válido
+     */
+    public static byte[] aBytes(String id) {
+        if (!esValido(id)) {
+            throw new IllegalArgumentException("Identificador inválido: " + id);
+        }
+        UUID uuid = UUID.fromString(id);
+        byte[] bytes = new byte[LONGITUD_BYTES];
+        escribir(uuid.getMostSignificantBits(), bytes, 0);
+        escribir(uuid.getLeastSignificantBits(), bytes, 8);
+        return bytes;
+    }
+
+    /**
+     * Convierte los 16 bytes leídos de la base de datos en el ID de texto
+     */
+    public static String desdeBytes(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        return new UUID(leer(bytes, 0), leer(bytes, 8)).toString();
+    }
+
+    private static void escribir(long valor, byte[] destino, int desde) {
+        for (int i = 7; i >= 0; i--) {
+            destino[desde + i] = (byte) valor;
+            valor >>>= 8;
+        }
+    }
+
+    private static long leer(byte[] origen, int desde) {
+        long valor = 0;
+        for (int i = 0; i < 8; i++) {
+            valor = (valor << 8) | (origen[desde + i] & 0xFF);
+        }
+        return valor;
+    }
+}
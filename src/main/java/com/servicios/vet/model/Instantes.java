@@ -0,0 +1,25 @@
+package com.servicios.vet.model;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Momentos en que se crean, modifican o eliminan facturas y servicios.
+ * 
+ * La base de datos guarda las fechas con precisión de microsegundos (TIMESTAMP(6)).
+ * Los momentos se recortan a esa precisión antes de guardarlos, para que el valor que
+ * queda en memoria sea el mismo que se lee después y las comparaciones de la
+ * sincronización (ver SincronizacionService) no dependan de dónde salió el valor.
+ */
+public final class Instantes {
+
+    private Instantes() {
+    }
+
+    /**
+     * Obtiene el momento actual, recortado a microsegundos
+     */
+    public static Instant ahora() {
+        return Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
\ No newline at end of file
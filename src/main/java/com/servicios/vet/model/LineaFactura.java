@@ -0,0 +1,119 @@
+package com.servicios.vet.model;
+
+import org.hibernate.annotations.Type;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Esta clase representa una línea de una factura: un servicio cobrado y cuántas veces.
+ *
+ * La línea guarda una copia del nombre y del precio del servicio en el momento de
+ * facturar. Si después el servicio cambia de nombre o de precio en el catálogo, la
+ * factura sigue mostrando lo que efectivamente se cobró, y su total sigue coincidiendo
+ * con la suma de sus líneas.
+ *
+ * Las líneas no se modifican después de crear la factura.
+ */
+@Embeddable
+public class LineaFactura {
+    // ID del servicio cobrado (se guarda como 16 bytes; ver IdBinarioType)
+    @Type(IdBinarioType.class)
+    @Column(name = "SERVICIO_ID", nullable = false)
+    private String servicioId;
+
+    // Nombre del servicio al momento de facturar
+    @Column(name = "NOMBRE", nullable = false)
+    private String nombre;
+
+    // Precio de una unidad del servicio al momento de facturar, en centavos
+    @Column(name = "PRECIO_UNITARIO_CENTAVOS", nullable = false)
+    private long precioUnitarioCentavos;
+
+    // Cuántas veces se cobró el servicio en la factura
+    @Column(name = "CANTIDAD", nullable = false)
+    private int cantidad;
+
+    /**
+     * Constructor vacío requerido por JPA
+     */
+    protected LineaFactura() {
+    }
+
+    /**
+     * Crea una línea copiando el nombre y el precio actuales del servicio
+     */
+    public LineaFactura(Servicio servicio, int cantidad) {
+        this(servicio.getId(), servicio.getNombre(), servicio.getCostoCentavos(), cantidad);
+    }
+
+    private LineaFactura(String servicioId, String nombre, long precioUnitarioCentavos, int cantidad) {
+        this.servicioId = servicioId;
+        this.nombre = nombre;
+        this.precioUnitarioCentavos = precioUnitarioCentavos;
+        this.cantidad = cantidad;
+    }
+
+    /**
+     * Devuelve una nueva línea con las cantidades de esta y de otra línea del mismo servicio
+     */
+    public LineaFactura sumar(LineaFactura otra) {
+        return new LineaFactura(servicioId, nombre, precioUnitarioCentavos,
+            Math.addExact(cantidad, otra.cantidad));
+    }
+
+    /**
+     * Obtiene el ID del servicio cobrado
+     */
+    public String getServicioId() {
+        return servicioId;
+    }
+
+    /**
+     * Obtiene el nombre del servicio al momento de facturar
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Obtiene el precio de una unidad al momento de facturar
+     */
+    public double getPrecioUnitario() {
+        return Moneda.aMonto(precioUnitarioCentavos);
+    }
+
+    /**
+     * Obtiene el precio de una unidad en centavos
+     */
+    @JsonIgnore
+    public long getPrecioUnitarioCentavos() {
+        return precioUnitarioCentavos;
+    }
+
+    /**
+     * Obtiene cuántas veces se cobró el servicio
+     */
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene el monto de la línea (precio unitario por cantidad)
+     */
+    public double getSubtotal() {
+        return Moneda.aMonto(getSubtotalCentavos());
+    }
+
+    /**
+     * Obtiene el monto de la línea en centavos
+     *
+     * @throws ArithmeticException Si el monto no cabe en un long
+     */
+    @JsonIgnore
+    public long getSubtotalCentavos() {
+        return Math.multiplyExact(precioUnitarioCentavos, cantidad);
+    }
+}
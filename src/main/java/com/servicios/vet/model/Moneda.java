@@ -0,0 +1,51 @@
+package com.servicios.vet.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversión entre montos de dinero y su representación en unidades mínimas (centavos).
+ * 
+ * Los costos y totales se guardan y se suman como números enteros de centavos, de modo
+ * que las sumas son exactas (con double, 0.1 + 0.2 da 0.30000000000000004) y no generan
+ * objetos intermedios. Hacia afuera (JSON) los montos se siguen mostrando con decimales.
+ */
+public final class Moneda {
+    // Cantidad de decimales de la moneda (centavos)
+    public static final int ESCALA = 2;
+
+    // Unidades mínimas que tiene una unidad de la moneda (10 ^ ESCALA)
+    public static final long UNIDADES_MINIMAS = 100;
+
+    private Moneda() {
+    }
+
+    /**
+     * Convierte un monto con decimales a centavos, redondeando al centavo más cercano
+     * 
+     * @throws ArithmeticException Si el monto no cabe en un long
+     */
+    public static long aCentavos(double monto) {
+        return aCentavos(BigDecimal.valueOf(monto));
+    }
+
+    /**
+     * Convierte un monto decimal exacto (por ejemplo, leído de un archivo) a centavos,
+     * redondeando al centavo más cercano
+     * 
+     * @throws ArithmeticException Si el monto no cabe en un long
+     */
+    public static long aCentavos(BigDecimal monto) {
+        return monto
+            .setScale(ESCALA, RoundingMode.HALF_UP)
+            .unscaledValue()
+            .longValueExact();
+    }
+
+    /**
+     * Convierte un monto en centavos al valor con decimales que se muestra al cliente
+     */
+    public static double aMonto(long centavos) {
+        return BigDecimal.valueOf(centavos, ESCALA).doubleValue();
+    }
+}
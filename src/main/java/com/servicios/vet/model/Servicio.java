@@ -1,19 +1,36 @@
 package com.servicios.vet.model;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.Type;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
 /**
  * Esta clase representa un servicio veterinario que puede ofrecerse a los clientes.
  * Es como una ficha que guarda la información de cada tipo de servicio disponible.
+ *
+ * Los servicios no están en la caché de segundo nivel de Hibernate: la única copia en
+ * memoria es CatalogoServicios, que se invalida en un solo lugar.
  */
 @Entity
-@Table(name = "SERVICIOS")
+@Table(name = "SERVICIOS", indexes = {
+    // Índice que permite leer solo los servicios que cambiaron desde una sincronización
+    @Index(name = "IDX_SERVICIOS_ACTUALIZADO", columnList = "ACTUALIZADO, SERVICIO_ID")
+})
 public class Servicio {
     // Un código único para identificar cada servicio (como una cédula de identidad)
+    // (se guarda en la base de datos como 16 bytes; ver IdBinarioType)
     @Id
+    @Type(IdBinarioType.class)
     @Column(name = "SERVICIO_ID")
     private String id;
     
@@ -21,9 +38,18 @@ public class Servicio {
     @Column(name = "NOMBRE", nullable = false)
     private String nombre;
     
-    // Cuánto cuesta este servicio (en la moneda local)
-    @Column(name = "COSTO", nullable = false)
-    private double costo;
+    // Cuánto cuesta este servicio, en centavos de la moneda local (ver Moneda)
+    @Column(name = "COSTO_CENTAVOS", nullable = false)
+    private long costoCentavos;
+
+    // Momento en que se registró el servicio
+    @Column(name = "CREADO", nullable = false, updatable = false)
+    private Instant creado;
+
+    // Momento del último cambio de nombre o costo. La importación escribe con SQL
+    // directo, así que lo actualiza en la misma sentencia.
+    @Column(name = "ACTUALIZADO", nullable = false)
+    private Instant actualizado;
 
     /**
      * Constructor vacío necesario para que Spring pueda crear objetos
@@ -38,7 +64,24 @@ public class Servicio {
     public Servicio(String id, String nombre, double costo) {
         this.id = id;
         this.nombre = nombre;
-        this.costo = costo;
+        this.costoCentavos = Moneda.aCentavos(costo);
+    }
+
+    /**
+     * Registra el momento de creación antes de insertar el servicio
+     */
+    @PrePersist
+    void registrarCreacion() {
+        this.creado = Instantes.ahora();
+        this.actualizado = this.creado;
+    }
+
+    /**
+     * Registra el momento del cambio antes de actualizar el servicio
+     */
+    @PreUpdate
+    void registrarCambio() {
+        this.actualizado = Instantes.ahora();
     }
 
     // Los siguientes métodos son "getters" y "setters" que permiten
@@ -76,13 +119,45 @@ public class Servicio {
      * Obtiene el costo/precio del servicio
      */
     public double getCosto() {
-        return costo;
+        return Moneda.aMonto(costoCentavos);
     }
 
     /**
-     * Establece o cambia el costo del servicio
+     * Establece o cambia el costo del servicio (se redondea al centavo)
      */
     public void setCosto(double costo) {
-        this.costo = costo;
+        this.costoCentavos = Moneda.aCentavos(costo);
+    }
+
+    /**
+     * Obtiene el costo del servicio en centavos, que es como se guarda y se suma
+     */
+    @JsonIgnore
+    public long getCostoCentavos() {
+        return costoCentavos;
+    }
+
+    /**
+     * Establece o cambia el costo del servicio en centavos
+     */
+    @JsonIgnore
+    public void setCostoCentavos(long costoCentavos) {
+        this.costoCentavos = costoCentavos;
+    }
+
+    /**
+     * Obtiene el momento en que se registró el servicio
+     */
+    @JsonIgnore
+    public Instant getCreado() {
+        return creado;
+    }
+
+    /**
+     * Obtiene el momento del último cambio del servicio
+     */
+    @JsonIgnore
+    public Instant getActualizado() {
+        return actualizado;
     }
 } 
\ No newline at end of file
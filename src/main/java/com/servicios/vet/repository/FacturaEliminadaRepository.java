@@ -0,0 +1,30 @@
+package com.servicios.vet.repository;
+
+import com.servicios.vet.model.FacturaEliminada;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface FacturaEliminadaRepository extends JpaRepository<FacturaEliminada, String> {
+
+    // Eliminaciones posteriores a una posición (momento y ID), en el mismo orden que
+    // FacturaRepository.buscarCambiadas para poder intercalar ambos resultados
+    @Query("SELECT e FROM FacturaEliminada e"
+        + " WHERE e.eliminada >= :desde AND (e.eliminada > :desde OR e.id > :despuesDe)"
+        + " ORDER BY e.eliminada ASC, e.id ASC")
+    List<FacturaEliminada> buscarPosteriores(@Param("desde") Instant desde,
+                                             @Param("despuesDe") String despuesDe,
+                                             Limit limite);
+
+    // Borra las marcas anteriores a un momento, en una sola sentencia
+    @Modifying
+    @Query("DELETE FROM FacturaEliminada e WHERE e.eliminada < :antesDe")
+    int depurar(@Param("antesDe") Instant antesDe);
+}
\ No newline at end of file
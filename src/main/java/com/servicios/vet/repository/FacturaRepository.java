@@ -1,10 +1,127 @@
 package com.servicios.vet.repository;
 
 import com.servicios.vet.model.Factura;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface FacturaRepository extends JpaRepository<Factura, String> {
-    // Métodos personalizados pueden ser agregados aquí si es necesario
-} 
\ No newline at end of file
+
+    // Busca una factura junto con sus líneas en una sola consulta (JOIN con FACTURA_LINEAS)
+    @EntityGraph(attributePaths = "lineas")
+    Optional<Factura> findConLineasById(String id);
+
+    // Marca la factura como pagada solo si todavía no lo estaba, en una sola sentencia
+    // y sin leerla antes. Devuelve 1 si se pagó, o 0 si no existe o ya estaba pagada;
+    // como la condición se evalúa en la base de datos, dos pagos simultáneos no pueden
+    // tener éxito ambos. También registra el momento del cambio (para la sincronización).
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Factura f SET f.pagada = true, f.version = f.version + 1, f.actualizada = :ahora"
+        + " WHERE f.id = :id AND f.pagada = false")
+    int marcarPagada(@Param("id") String id, @Param("ahora") Instant ahora);
+
+    // Lee solo el ID y el estado de pago de varias facturas, sin cargar las entidades,
+    // y bloquea sus filas hasta el final de la transacción para que nadie las pague
+    // mientras se procesa un pago o una eliminación
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f.id AS id, f.pagada AS pagada FROM Factura f WHERE f.id IN :ids")
+    List<EstadoPago> bloquearEstadosPago(@Param("ids") Collection<String> ids);
+
+    // Marca como pagadas varias facturas en una sola sentencia (las que no lo estaban)
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Factura f SET f.pagada = true, f.version = f.version + 1, f.actualizada = :ahora"
+        + " WHERE f.id IN :ids AND f.pagada = false")
+    int marcarPagadas(@Param("ids") Collection<String> ids, @Param("ahora") Instant ahora);
+
+    // Borra varias facturas, solo si no están pagadas. Hibernate ejecuta antes una
+    // sentencia equivalente sobre la tabla de líneas (FACTURA_LINEAS), con la misma
+    // condición, así que son dos sentencias en total sin importar cuántas facturas sean.
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Factura f WHERE f.id IN :ids AND f.pagada = false")
+    int eliminarPendientes(@Param("ids") Collection<String> ids);
+
+    // Lee solo la versión de una factura (para responder 304 Not Modified sin cargarla)
+    @Query("SELECT f.version FROM Factura f WHERE f.id = :id")
+    Optional<Long> buscarVersion(@Param("id") String id);
+
+    // Calcula los contadores del resumen recorriendo todas las facturas; solo la usa
+    // la reconciliación, que corrige los contadores que se mantienen con cada cambio
+    @Query("SELECT COUNT(f) AS facturas,"
+        + " COALESCE(SUM(f.totalCentavos), 0) AS facturadoCentavos,"
+        + " COALESCE(SUM(CASE WHEN f.pagada = true THEN 1 ELSE 0 END), 0) AS pagadas,"
+        + " COALESCE(SUM(CASE WHEN f.pagada = true THEN f.totalCentavos ELSE 0 END), 0) AS pagadoCentavos"
+        + " FROM Factura f")
+    FranjaResumenRepository.Totales calcularTotales();
+
+    // Las siguientes consultas implementan la paginación por cursor (keyset):
+    // en vez de usar OFFSET, filtran por el ID de la última factura vista y
+    // ordenan por la clave primaria, de modo que cada página cuesta lo mismo
+    // sin importar cuántas facturas haya antes. Los totales se comparan en centavos.
+
+    @Query("SELECT f FROM Factura f"
+        + " WHERE (:pagada IS NULL OR f.pagada = :pagada)"
+        + " AND (:totalMin IS NULL OR f.totalCentavos >= :totalMin)"
+        + " AND (:totalMax IS NULL OR f.totalCentavos <= :totalMax)"
+        + " ORDER BY f.id ASC")
+    List<Factura> buscarPrimeraPagina(@Param("pagada") Boolean pagada,
+                                      @Param("totalMin") Long totalMin,
+                                      @Param("totalMax") Long totalMax,
+                                      Limit limite);
+
+    @Query("SELECT f FROM Factura f"
+        + " WHERE f.id > :despuesDe"
+        + " AND (:pagada IS NULL OR f.pagada = :pagada)"
+        + " AND (:totalMin IS NULL OR f.totalCentavos >= :totalMin)"
+        + " AND (:totalMax IS NULL OR f.totalCentavos <= :totalMax)"
+        + " ORDER BY f.id ASC")
+    List<Factura> buscarPosteriores(@Param("despuesDe") String despuesDe,
+                                    @Param("pagada") Boolean pagada,
+                                    @Param("totalMin") Long totalMin,
+                                    @Param("totalMax") Long totalMax,
+                                    Limit limite);
+
+    // Devuelve las facturas en orden descendente; el servicio las invierte
+    @Query("SELECT f FROM Factura f"
+        + " WHERE f.id < :antesDe"
+        + " AND (:pagada IS NULL OR f.pagada = :pagada)"
+        + " AND (:totalMin IS NULL OR f.totalCentavos >= :totalMin)"
+        + " AND (:totalMax IS NULL OR f.totalCentavos <= :totalMax)"
+        + " ORDER BY f.id DESC")
+    List<Factura> buscarAnteriores(@Param("antesDe") String antesDe,
+                                   @Param("pagada") Boolean pagada,
+                                   @Param("totalMin") Long totalMin,
+                                   @Param("totalMax") Long totalMax,
+                                   Limit limite);
+
+    // Facturas creadas o modificadas después de una posición (momento del cambio y ID),
+    // ordenadas por esa misma posición; la usa la sincronización. La primera condición
+    // permite recorrer el índice IDX_FACTURAS_ACTUALIZADA desde la posición.
+    @Query("SELECT f FROM Factura f"
+        + " WHERE f.actualizada >= :desde AND (f.actualizada > :desde OR f.id > :despuesDe)"
+        + " ORDER BY f.actualizada ASC, f.id ASC")
+    List<Factura> buscarCambiadas(@Param("desde") Instant desde,
+                                  @Param("despuesDe") String despuesDe,
+                                  Limit limite);
+
+    /**
+     * ID y estado de pago de una factura, leídos sin cargar la entidad completa
+     */
+    interface EstadoPago {
+        String getId();
+
+        boolean isPagada();
+    }
+}
@@ -0,0 +1,81 @@
+package com.servicios.vet.repository;
+
+import com.servicios.vet.model.FranjaResumen;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FranjaResumenRepository extends JpaRepository<FranjaResumen, Integer> {
+
+    // Suma todas las franjas; son pocas filas, así que cuesta lo mismo sin importar
+    // cuántas facturas haya
+    @Query("SELECT COALESCE(SUM(r.facturas), 0) AS facturas,"
+        + " COALESCE(SUM(r.facturadoCentavos), 0) AS facturadoCentavos,"
+        + " COALESCE(SUM(r.pagadas), 0) AS pagadas,"
+        + " COALESCE(SUM(r.pagadoCentavos), 0) AS pagadoCentavos"
+        + " FROM FranjaResumen r")
+    Totales sumarFranjas();
+
+    // Suma los cambios de todas las franjas: crece con cada alta, pago o baja de facturas
+    @Query("SELECT COALESCE(SUM(r.cambios), 0) FROM FranjaResumen r")
+    long sumarCambios();
+
+    // Bloquea todas las franjas hasta el final de la transacción; mientras tanto,
+    // ninguna otra transacción puede terminar de aplicar un cambio en el resumen
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM FranjaResumen r ORDER BY r.franja")
+    List<FranjaResumen> bloquearTodas();
+
+    // Suma facturas nuevas a una franja
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FranjaResumen r SET r.facturas = r.facturas + :cantidad,"
+        + " r.facturadoCentavos = r.facturadoCentavos + :centavos,"
+        + " r.cambios = r.cambios + 1"
+        + " WHERE r.franja = :franja")
+    int sumarAltas(@Param("franja") int franja,
+                   @Param("cantidad") long cantidad,
+                   @Param("centavos") long centavos);
+
+    // Suma a una franja los pagos de las facturas indicadas, leyendo sus totales
+    // en la misma sentencia (se ejecuta después de marcarlas como pagadas)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FranjaResumen r SET"
+        + " r.pagadas = r.pagadas + (SELECT COUNT(f) FROM Factura f WHERE f.id IN :ids),"
+        + " r.pagadoCentavos = r.pagadoCentavos"
+        + " + (SELECT COALESCE(SUM(f.totalCentavos), 0) FROM Factura f WHERE f.id IN :ids),"
+        + " r.cambios = r.cambios + 1"
+        + " WHERE r.franja = :franja")
+    int sumarPagos(@Param("franja") int franja, @Param("ids") Collection<String> ids);
+
+    // Resta de una franja las facturas indicadas, leyendo sus totales en la misma
+    // sentencia (se ejecuta antes de borrarlas; solo se borran facturas pendientes)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE FranjaResumen r SET"
+        + " r.facturas = r.facturas - (SELECT COUNT(f) FROM Factura f WHERE f.id IN :ids),"
+        + " r.facturadoCentavos = r.facturadoCentavos"
+        + " - (SELECT COALESCE(SUM(f.totalCentavos), 0) FROM Factura f WHERE f.id IN :ids),"
+        + " r.cambios = r.cambios + 1"
+        + " WHERE r.franja = :franja")
+    int restarBajas(@Param("franja") int franja, @Param("ids") Collection<String> ids);
+
+    /**
+     * Contadores del resumen de facturación, sumados o calculados desde las facturas
+     */
+    interface Totales {
+        long getFacturas();
+
+        long getFacturadoCentavos();
+
+        long getPagadas();
+
+        long getPagadoCentavos();
+    }
+}
@@ -1,10 +1,24 @@
 package com.servicios.vet.repository;
 
 import com.servicios.vet.model.Servicio;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+
 @Repository
 public interface ServicioRepository extends JpaRepository<Servicio, String> {
-    // Métodos personalizados pueden ser agregados aquí si es necesario
-} 
\ No newline at end of file
+
+    // Servicios registrados o modificados después de una posición (momento del cambio y
+    // ID), ordenados por esa misma posición; la usa la sincronización
+    @Query("SELECT s FROM Servicio s"
+        + " WHERE s.actualizado >= :desde AND (s.actualizado > :desde OR s.id > :despuesDe)"
+        + " ORDER BY s.actualizado ASC, s.id ASC")
+    List<Servicio> buscarCambiados(@Param("desde") Instant desde,
+                                   @Param("despuesDe") String despuesDe,
+                                   Limit limite);
+}
@@ -0,0 +1,103 @@
+package com.servicios.vet.service;
+
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Servicio;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cambio en las facturas o en los servicios, que FacturaService publica como evento de
+ * Spring dentro de la transacción que lo produce.
+ *
+ * Quien escucha con @TransactionalEventListener lo recibe recién cuando la transacción
+ * se confirma; si se deshace, el evento se descarta. Los clientes conectados a
+ * /api/eventos lo reciben así, sin tener que volver a pedir los listados completos.
+ *
+ * Cada evento agrupa todo lo que cambió en una transacción (por ejemplo, un tramo de
+ * una creación o de un pago masivo), para enviar un solo mensaje por tramo.
+ */
+public class CambioDatos {
+
+    /**
+     * Tipo de cambio; el nombre es el que recibe el cliente como nombre del evento
+     */
+    public enum Tipo {
+        // Facturas nuevas (datos: id, total y pagada de cada una)
+        FACTURAS_CREADAS("facturas-creadas"),
+        // Facturas pagadas (datos: sus IDs)
+        FACTURAS_PAGADAS("facturas-pagadas"),
+        // Facturas eliminadas (datos: sus IDs)
+        FACTURAS_ELIMINADAS("facturas-eliminadas"),
+        // Servicios registrados (datos: los servicios)
+        SERVICIOS_REGISTRADOS("servicios-registrados"),
+        // Importación de servicios desde CSV (sin datos: el cliente vuelve a pedir el catálogo)
+        SERVICIOS_IMPORTADOS("servicios-importados");
+
+        private final String nombre;
+
+        Tipo(String nombre) {
+            this.nombre = nombre;
+        }
+
+        /**
+         * Obtiene el nombre del evento que recibe el cliente
+         */
+        public String getNombre() {
+            return nombre;
+        }
+    }
+
+    /**
+     * Datos de una factura nueva: lo que muestra una fila del listado
+     */
+    public record FacturaCreada(String id, double total, boolean pagada) {
+    }
+
+    private final Tipo tipo;
+    private final List<?> datos;
+
+    private CambioDatos(Tipo tipo, List<?> datos) {
+        this.tipo = tipo;
+        this.datos = datos;
+    }
+
+    public static CambioDatos facturasCreadas(List<Factura> facturas) {
+        List<FacturaCreada> creadas = new ArrayList<>(facturas.size());
+        for (Factura factura : facturas) {
+            creadas.add(new FacturaCreada(factura.getId(), factura.getTotal(), factura.isPagada()));
+        }
+        return new CambioDatos(Tipo.FACTURAS_CREADAS, creadas);
+    }
+
+    public static CambioDatos facturasPagadas(List<String> ids) {
+        return new CambioDatos(Tipo.FACTURAS_PAGADAS, new ArrayList<>(ids));
+    }
+
+    public static CambioDatos facturasEliminadas(List<String> ids) {
+        return new CambioDatos(Tipo.FACTURAS_ELIMINADAS, new ArrayList<>(ids));
+    }
+
+    public static CambioDatos servicioRegistrado(Servicio servicio) {
+        return new CambioDatos(Tipo.SERVICIOS_REGISTRADOS, Collections.singletonList(servicio));
+    }
+
+    public static CambioDatos serviciosImportados() {
+        return new CambioDatos(Tipo.SERVICIOS_IMPORTADOS, Collections.emptyList());
+    }
+
+    /**
+     * Obtiene el tipo de cambio
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Obtiene lo que cambió: facturas nuevas, IDs o servicios, según el tipo
+     */
+    public List<?> getDatos() {
+        return datos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,263 @@
+package com.servicios.vet.service;
+
+import com.servicios.vet.model.Identificadores;
+import com.servicios.vet.model.Servicio;
+import com.servicios.vet.repository.ServicioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copia en memoria del catálogo de servicios veterinarios.
+ * 
+ * El catálogo es pequeño y cambia muy poco, pero se consulta en cada listado,
+ * en cada detalle y en cada factura que se crea. Esta clase guarda los servicios
+ * ya leídos para no volver a pedirlos a la base de datos:
+ * - Las lecturas que encuentran el servicio en memoria cuentan como "aciertos"
+ * - Las que tienen que ir a la base de datos cuentan como "fallos"
+ * - Cuando se registra un servicio, se guarda también aquí (escritura directa)
+ * 
+ * La cantidad de servicios en memoria está limitada por "vet.catalogo.capacidad".
+ * Si se supera, se descartan servicios (cada descarte cuenta como "desalojo") y el
+ * listado completo vuelve a leerse desde la base de datos.
+ * 
+ * También lleva la versión del catálogo, que cambia con cada servicio registrado o
+ * importado; el controlador la usa como ETag para responder 304 Not Modified. La
+ * versión incluye el momento en que arrancó la aplicación, para que no se repita
+ * después de un reinicio.
+ * 
+ * Es la única caché de servicios (no están en la caché de segundo nivel de Hibernate),
+ * así que invalidar() basta para que las próximas lecturas vean lo que se guardó con
+ * SQL directo, como la importación.
+ * 
+ * Es seguro usarla desde varios hilos a la vez.
+ */
+@Component
+public class CatalogoServicios {
+    private final ServicioRepository servicioRepository;
+    private final int capacidad;
+
+    // Servicios en memoria, indexados por su ID
+    private final ConcurrentHashMap<String, Servicio> servicios = new ConcurrentHashMap<>();
+
+    // Indica si el mapa contiene el catálogo completo (y sirve para responder el listado)
+    private volatile boolean completo = false;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+    private final AtomicLong desalojos = new AtomicLong();
+
+    // Identifica este arranque de la aplicación y cuenta los cambios en el catálogo desde entonces
+    private final String arranque = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong cambios = new AtomicLong();
+
+    @Autowired
+    public CatalogoServicios(ServicioRepository servicioRepository,
+                             @Value("${vet.catalogo.capacidad:10000}") int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad del catálogo debe ser mayor que cero");
+        }
+        this.servicioRepository = servicioRepository;
+        this.capacidad = capacidad;
+    }
+
+    /**
+     * Busca un servicio por su ID, primero en memoria y luego en la base de datos.
+     * 
+     * @param id El identificador del servicio
+     * @return El servicio, o vacío si no existe
+     */
+    public Optional<Servicio> buscar(String id) {
+        // Un texto que no tiene formato de ID no puede existir; evitamos la consulta
+        if (!Identificadores.esValido(id)) {
+            fallos.incrementAndGet();
+            return Optional.empty();
+        }
+        String canonico = Identificadores.canonico(id);
+        Servicio servicio = servicios.get(canonico);
+        if (servicio != null) {
+            aciertos.incrementAndGet();
+            return Optional.of(servicio);
+        }
+
+        fallos.incrementAndGet();
+        Optional<Servicio> leido = servicioRepository.findById(canonico);
+        leido.ifPresent(this::guardarLeido);
+        return leido;
+    }
+
+    /**
+     * Busca varios servicios a la vez. Los que no están en memoria se piden a la
+     * base de datos en una sola consulta; si todos están en memoria no hay consulta.
+     * 
+     * @param ids Los identificadores buscados, en mayúsculas o minúsculas
+     * @return Los servicios encontrados indexados por su ID canónico (ver Identificadores.canonico);
+     *         los inexistentes no aparecen
+     */
+    public Map<String, Servicio> buscarTodos(Collection<String> ids) {
+        Map<String, Servicio> encontrados = new HashMap<>();
+        Set<String> faltantes = new LinkedHashSet<>();
+
+        for (String id : ids) {
+            // Los textos sin formato de ID no se consultan: simplemente no existen
+            if (!Identificadores.esValido(id)) {
+                fallos.incrementAndGet();
+                continue;
+            }
+            String canonico = Identificadores.canonico(id);
+            if (encontrados.containsKey(canonico) || faltantes.contains(canonico)) {
+                continue;
+            }
+            Servicio servicio = servicios.get(canonico);
+            if (servicio != null) {
+                encontrados.put(canonico, servicio);
+            } else {
+                fallos.incrementAndGet();
+                faltantes.add(canonico);
+            }
+        }
+        aciertos.addAndGet(encontrados.size());
+
+        if (!faltantes.isEmpty()) {
+            for (Servicio servicio : servicioRepository.findAllById(faltantes)) {
+                guardarLeido(servicio);
+                encontrados.put(servicio.getId(), servicio);
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * Obtiene todos los servicios del catálogo.
+     * La primera vez (o después de un desalojo) se leen desde la base de datos.
+     */
+    public List<Servicio> listar() {
+        if (completo) {
+            aciertos.incrementAndGet();
+            return new ArrayList<>(servicios.values());
+        }
+
+        fallos.incrementAndGet();
+        List<Servicio> todos = servicioRepository.findAll();
+        if (todos.size() <= capacidad) {
+            todos.forEach(this::guardarLeido);
+            completo = servicios.size() <= capacidad;
+        }
+        return todos;
+    }
+
+    /**
+     * Guarda en memoria un servicio recién registrado o modificado en la base de datos.
+     * Reemplaza cualquier versión anterior del mismo servicio, aunque su ID llegue
+     * escrito con otras mayúsculas.
+     */
+    public void registrar(Servicio servicio) {
+        servicios.put(Identificadores.canonico(servicio.getId()), servicio);
+        cambios.incrementAndGet();
+        respetarCapacidad();
+    }
+
+    /**
+     * Descarta todo el contenido en memoria; la próxima lectura irá a la base de datos.
+     */
+    public void invalidar() {
+        completo = false;
+        servicios.clear();
+        cambios.incrementAndGet();
+    }
+
+    /**
+     * Obtiene la versión actual del catálogo. Los cambios se cuentan después de
+     * guardarse en la base de datos, así que quien lee la versión antes que los datos
+     * nunca asocia una versión nueva a datos viejos.
+     */
+    public String version() {
+        return arranque + "." + cambios.get();
+    }
+
+    /**
+     * Guarda un servicio leído de la base de datos, sin pisar una versión más nueva
+     * que se haya registrado mientras tanto.
+     */
+    private void guardarLeido(Servicio servicio) {
+        servicios.putIfAbsent(servicio.getId(), servicio);
+        respetarCapacidad();
+    }
+
+    /**
+     * Descarta servicios hasta volver a la capacidad configurada
+     */
+    private void respetarCapacidad() {
+        if (servicios.size() <= capacidad) {
+            return;
+        }
+        completo = false;
+        Iterator<String> ids = servicios.keySet().iterator();
+        while (servicios.size() > capacidad && ids.hasNext()) {
+            ids.next();
+            ids.remove();
+            desalojos.incrementAndGet();
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de lecturas respondidas desde memoria
+     */
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    /**
+     * Obtiene la cantidad de lecturas que tuvieron que ir a la base de datos
+     */
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    /**
+     * Obtiene la cantidad de servicios descartados por superar la capacidad
+     */
+    public long getDesalojos() {
+        return desalojos.get();
+    }
+
+    /**
+     * Obtiene la cantidad de servicios guardados en memoria en este momento
+     */
+    public int getTamano() {
+        return servicios.size();
+    }
+
+    /**
+     * Obtiene la cantidad máxima de servicios que se guardan en memoria
+     */
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    /**
+     * Resume los contadores del catálogo en un mapa listo para devolver como JSON
+     */
+    public Map<String, Long> estadisticas() {
+        Map<String, Long> resumen = new LinkedHashMap<>();
+        resumen.put("aciertos", getAciertos());
+        resumen.put("fallos", getFallos());
+        resumen.put("desalojos", getDesalojos());
+        resumen.put("tamano", (long) getTamano());
+        resumen.put("capacidad", (long) getCapacidad());
+        return resumen;
+    }
+}
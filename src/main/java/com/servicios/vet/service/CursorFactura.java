@@ -0,0 +1,103 @@
+package com.servicios.vet.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.servicios.vet.model.Identificadores;
+
+/**
+ * Representa la posición desde la que se debe continuar un listado paginado de facturas.
+ * 
+ * En lugar de pedir "la página 500" (lo que obliga a la base de datos a recorrer y
+ * descartar todas las filas anteriores), el cursor recuerda el ID de la última (o primera)
+ * factura mostrada y la dirección en la que se avanza. Así la siguiente consulta puede
+ * saltar directamente a esa posición usando el índice de la clave primaria.
+ * 
+ * Para el cliente el cursor es un texto opaco (Base64 apto para URLs) que solo debe
+ * devolver tal cual lo recibió en los enlaces "next" y "prev".
+ */
+public final class CursorFactura {
+
+    /**
+     * Dirección en la que se recorre el listado a partir del cursor
+     */
+    public enum Direccion {
+        SIGUIENTE, ANTERIOR
+    }
+
+    private static final String PREFIJO_SIGUIENTE = "s|";
+    private static final String PREFIJO_ANTERIOR = "a|";
+
+    private final Direccion direccion;
+    private final String facturaId;
+
+    private CursorFactura(Direccion direccion, String facturaId) {
+        this.direccion = direccion;
+        this.facturaId = facturaId;
+    }
+
+    /**
+     * Crea un cursor que avanza hacia las facturas posteriores a la indicada
+     */
+    public static CursorFactura siguiente(String facturaId) {
+        return new CursorFactura(Direccion.SIGUIENTE, facturaId);
+    }
+
+    /**
+     * Crea un cursor que retrocede hacia las facturas anteriores a la indicada
+     */
+    public static CursorFactura anterior(String facturaId) {
+        return new CursorFactura(Direccion.ANTERIOR, facturaId);
+    }
+
+    /**
+     * Convierte el texto recibido del cliente nuevamente en un cursor.
+     * 
+     * @param token El cursor tal como fue entregado al cliente
+     * @return El cursor decodificado
+     * @throws IllegalArgumentException Si el texto no es un cursor válido
+     */
+    public static CursorFactura decodificar(String token) {
+        String contenido;
+        try {
+            contenido = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido: " + token);
+        }
+
+        if (contenido.length() > PREFIJO_SIGUIENTE.length()
+                && Identificadores.esValido(contenido.substring(PREFIJO_SIGUIENTE.length()))) {
+            String id = contenido.substring(PREFIJO_SIGUIENTE.length());
+            if (contenido.startsWith(PREFIJO_SIGUIENTE)) {
+                return siguiente(id);
+            }
+            if (contenido.startsWith(PREFIJO_ANTERIOR)) {
+                return anterior(id);
+            }
+        }
+        throw new IllegalArgumentException("Cursor de paginación inválido: " + token);
+    }
+
+    /**
+     * Convierte el cursor en el texto opaco que se entrega al cliente
+     */
+    public String codificar() {
+        String prefijo = direccion == Direccion.SIGUIENTE ? PREFIJO_SIGUIENTE : PREFIJO_ANTERIOR;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((prefijo + facturaId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Obtiene la dirección en la que avanza el cursor
+     */
+    public Direccion getDireccion() {
+        return direccion;
+    }
+
+    /**
+     * Obtiene el ID de la factura que sirve de límite (exclusivo) para la consulta
+     */
+    public String getFacturaId() {
+        return facturaId;
+    }
+}
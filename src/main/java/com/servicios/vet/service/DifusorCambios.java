@@ -0,0 +1,267 @@
+package com.servicios.vet.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envía los cambios en facturas y servicios a los clientes conectados a /api/eventos
+ * (Server-Sent Events), para que actualicen sus listados sin volver a pedirlos completos.
+ *
+ * Los cambios llegan como CambioDatos recién cuando se confirma la transacción que los
+ * produjo, así que un cliente nunca ve una factura que después se deshizo. Todas las
+ * operaciones de FacturaService los publican dentro de una transacción; uno publicado
+ * fuera de una transacción se descarta. Cada cambio se convierte a JSON una sola vez y
+ * los mismos bytes se envían a todos los clientes.
+ *
+ * Quien confirma la transacción no escribe en las conexiones: solo deja el evento en la
+ * cola de cada cliente, y el envío se hace en un pool fijo de "vet.eventos.hilos" hilos,
+ * de a un envío a la vez por cliente. El pool no se comparte con el ejecutor de tareas
+ * de la aplicación, así que las exportaciones o demás trabajo asíncrono de Spring MVC no
+ * demoran los eventos. Cada cola tiene lugar para "vet.eventos.cola" eventos; si un
+ * cliente lento la llena, se descartan sus eventos pendientes y recibe en su lugar un
+ * evento "resincronizar", que le indica volver a pedir los listados.
+ *
+ * Escribir en una conexión bloquea el hilo hasta que el cliente recibe los datos o hasta
+ * que el servidor corta la escritura (server.tomcat.connection-timeout); en ese caso el
+ * cliente se quita y el navegador se vuelve a conectar. Mientras tanto los demás clientes
+ * se atienden con los otros hilos del pool.
+ *
+ * Cada "vet.eventos.latido-ms" se envía un comentario a todos los clientes, para que los
+ * proxies no corten la conexión por inactividad y para detectar los que se desconectaron.
+ *
+ * Es seguro usarla desde varios hilos a la vez.
+ */
+@Component
+public class DifusorCambios {
+
+    private static final Logger log = LoggerFactory.getLogger(DifusorCambios.class);
+
+    // Eventos fijos, armados una sola vez
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> CONECTADO =
+        SseEmitter.event().comment("conectado").build();
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> LATIDO =
+        SseEmitter.event().comment("latido").build();
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> RESINCRONIZAR =
+        SseEmitter.event().name("resincronizar").data("{}").build();
+
+    // Envíos que pueden esperar un hilo libre; cada cliente tiene como máximo uno programado
+    static final int ENVIOS_PENDIENTES_MAXIMOS = 10000;
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService ejecutor;
+    private final int capacidadCola;
+    private final Duration tiempoMaximo;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final AtomicLong desbordes = new AtomicLong();
+
+    @Autowired
+    public DifusorCambios(ObjectMapper objectMapper,
+                          @Value("${vet.eventos.hilos:4}") int hilos,
+                          @Value("${vet.eventos.cola:256}") int capacidadCola,
+                          @Value("${vet.eventos.tiempo-maximo:30m}") Duration tiempoMaximo) {
+        this(objectMapper, crearEjecutor(hilos), capacidadCola, tiempoMaximo);
+    }
+
+    /**
+     * Usa el pool indicado para los envíos (las pruebas lo reemplazan para controlar cuándo se ejecutan)
+     */
+    DifusorCambios(ObjectMapper objectMapper, ExecutorService ejecutor, int capacidadCola, Duration tiempoMaximo) {
+        if (capacidadCola < 2) {
+            throw new IllegalArgumentException("La cola de eventos de cada cliente debe tener lugar para al menos dos eventos");
+        }
+        this.objectMapper = objectMapper;
+        this.ejecutor = ejecutor;
+        this.capacidadCola = capacidadCola;
+        this.tiempoMaximo = tiempoMaximo;
+    }
+
+    /**
+     * Crea el pool de envíos: una cantidad fija de hilos y una cola de espera acotada
+     */
+    private static ExecutorService crearEjecutor(int hilos) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("El envío de eventos necesita al menos un hilo");
+        }
+        CustomizableThreadFactory fabrica = new CustomizableThreadFactory("vet-eventos-");
+        fabrica.setDaemon(true);
+        return new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(ENVIOS_PENDIENTES_MAXIMOS), fabrica);
+    }
+
+    /**
+     * Detiene los envíos al cerrar la aplicación
+     */
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Conecta un nuevo cliente. La conexión se cierra después de "vet.eventos.tiempo-maximo";
+     * el navegador (EventSource) se vuelve a conectar solo.
+     */
+    public SseEmitter suscribir() {
+        SseEmitter emisor = new SseEmitter(tiempoMaximo.toMillis());
+        agregar(emisor);
+        return emisor;
+    }
+
+    /**
+     * Registra un emisor ya creado y le envía un primer comentario, para que el cliente
+     * reciba la respuesta (y sepa que está conectado) sin esperar al primer cambio
+     */
+    void agregar(SseEmitter emisor) {
+        Suscriptor suscriptor = new Suscriptor(emisor);
+        suscriptores.add(suscriptor);
+        emisor.onCompletion(() -> suscriptores.remove(suscriptor));
+        emisor.onError(e -> suscriptores.remove(suscriptor));
+        emisor.onTimeout(emisor::complete);
+        suscriptor.encolar(CONECTADO);
+    }
+
+    /**
+     * Envía un cambio a todos los clientes, cuando se confirma la transacción que lo publicó
+     */
+    @TransactionalEventListener
+    public void publicar(CambioDatos cambio) {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+
+        Set<ResponseBodyEmitter.DataWithMediaType> evento;
+        try {
+            evento = SseEmitter.event()
+                .id(Long.toString(secuencia.incrementAndGet()))
+                .name(cambio.getTipo().getNombre())
+                .data(objectMapper.writeValueAsString(cambio.getDatos()))
+                .build();
+        } catch (JsonProcessingException e) {
+            // La transacción ya se confirmó: no se puede fallar aquí. Los clientes vuelven a leer todo.
+            log.warn("No se pudo convertir a JSON el evento {}: {}", cambio.getTipo(), e.getMessage());
+            evento = RESINCRONIZAR;
+        }
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.encolar(evento);
+        }
+    }
+
+    /**
+     * Envía un comentario a todos los clientes para mantener abiertas las conexiones
+     */
+    @Scheduled(fixedDelayString = "${vet.eventos.latido-ms:30000}")
+    public void latir() {
+        for (Suscriptor suscriptor : suscriptores) {
+            suscriptor.encolar(LATIDO);
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de clientes conectados
+     */
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    /**
+     * Obtiene cuántas veces se descartaron los eventos pendientes de un cliente por llenar su cola
+     */
+    public long getDesbordes() {
+        return desbordes.get();
+    }
+
+    /**
+     * Un cliente conectado, con su cola de eventos pendientes de enviar
+     */
+    private final class Suscriptor {
+        private final SseEmitter emisor;
+        private final ArrayBlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> cola =
+            new ArrayBlockingQueue<>(capacidadCola);
+
+        // Indica si hay una tarea enviando los eventos de este cliente
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        Suscriptor(SseEmitter emisor) {
+            this.emisor = emisor;
+        }
+
+        /**
+         * Deja un evento en la cola y, si no hay un envío en curso, lo programa
+         */
+        void encolar(Set<ResponseBodyEmitter.DataWithMediaType> evento) {
+            synchronized (cola) {
+                if (!cola.offer(evento)) {
+                    // El cliente no da abasto: lo pendiente ya no sirve, debe volver a leer todo
+                    cola.clear();
+                    cola.offer(RESINCRONIZAR);
+                    desbordes.incrementAndGet();
+                }
+            }
+            programarEnvio();
+        }
+
+        private void programarEnvio() {
+            if (!enviando.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                ejecutor.execute(this::enviar);
+            } catch (RejectedExecutionException e) {
+                // La aplicación se está deteniendo, o hay más envíos esperando que los que se admiten
+                enviando.set(false);
+                desconectar();
+            }
+        }
+
+        /**
+         * Envía los eventos de la cola en orden, hasta vaciarla
+         */
+        private void enviar() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> evento;
+                while ((evento = cola.poll()) != null) {
+                    emisor.send(evento);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // El cliente se desconectó, la conexión ya se cerró o el servidor cortó la escritura
+                desconectar();
+            } finally {
+                enviando.set(false);
+            }
+
+            // Un evento pudo llegar justo después de vaciar la cola y antes de liberar el envío
+            if (!cola.isEmpty()) {
+                programarEnvio();
+            }
+        }
+
+        private void desconectar() {
+            suscriptores.remove(this);
+            cola.clear();
+        }
+    }
+}
\ No newline at end of file
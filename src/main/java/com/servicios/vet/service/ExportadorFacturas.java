@@ -0,0 +1,253 @@
+package com.servicios.vet.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.servicios.vet.model.Identificadores;
+import com.servicios.vet.model.Moneda;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Exporta todas las facturas con sus líneas, escribiendo cada fila a medida que
+ * llega de la base de datos.
+ *
+ * La consulta se recorre con un cursor de solo avance y se piden a la base de datos
+ * "vet.export.fetch-size" filas por viaje; ninguna fila se guarda después de escribirla,
+ * así que la memoria usada no depende de cuántas facturas haya. La conexión queda
+ * ocupada mientras dura la exportación.
+ *
+ * Formatos:
+ * - CSV: una fila por cada línea de cada factura (las facturas sin líneas tienen
+ *   una fila con las columnas de la línea vacías)
+ * - NDJSON: una línea JSON por factura, con sus líneas en una lista
+ *
+ * Los montos se escriben con dos decimales exactos, calculados desde los centavos.
+ */
+@Component
+public class ExportadorFacturas {
+
+    // Las filas vienen ordenadas por factura, así que sus líneas llegan juntas. Las
+    // líneas tienen su propia copia del nombre y el precio: no hace falta leer SERVICIOS.
+    private static final String CONSULTA =
+        "SELECT F.FACTURA_ID, F.PAGADA, F.TOTAL_CENTAVOS,"
+        + " L.SERVICIO_ID, L.NOMBRE, L.PRECIO_UNITARIO_CENTAVOS, L.CANTIDAD"
+        + " FROM FACTURAS F"
+        + " LEFT JOIN FACTURA_LINEAS L ON L.FACTURA_ID = F.FACTURA_ID";
+
+    private static final String ORDEN = " ORDER BY F.FACTURA_ID, L.LINEA";
+
+    private static final String ENCABEZADO_CSV =
+        "factura_id,pagada,total,servicio_id,servicio_nombre,precio_unitario,cantidad";
+
+    /**
+     * Formatos de exportación disponibles
+     */
+    public enum Formato {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String tipoContenido;
+        private final String extension;
+
+        Formato(String tipoContenido, String extension) {
+            this.tipoContenido = tipoContenido;
+            this.extension = extension;
+        }
+
+        /**
+         * Obtiene el formato a partir del parámetro de la petición (sin distinguir mayúsculas)
+         *
+         * @throws IllegalArgumentException Si el formato no existe
+         */
+        public static Formato desde(String nombre) {
+            for (Formato formato : values()) {
+                if (formato.name().equalsIgnoreCase(nombre)) {
+                    return formato;
+                }
+            }
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + nombre
+                + " (use csv o ndjson)");
+        }
+
+        public String getTipoContenido() {
+            return tipoContenido;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    public ExportadorFacturas(DataSource dataSource,
+                              @Value("${vet.export.fetch-size:1000}") int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("El fetch size de la exportación debe ser mayor que cero");
+        }
+        // JdbcTemplate propio, para no cambiar el fetch size de las demás consultas
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Escribe las facturas en el formato indicado.
+     *
+     * @param formato El formato de salida
+     * @param pagada Si no es null, solo se exportan las facturas con ese estado de pago
+     * @param salida Donde se escribe la exportación (no se cierra)
+     */
+    public void exportar(Formato formato, Boolean pagada, OutputStream salida) throws IOException {
+        String sql = pagada == null ? CONSULTA + ORDEN : CONSULTA + " WHERE F.PAGADA = ?" + ORDEN;
+        Object[] parametros = pagada == null ? new Object[0] : new Object[] { pagada };
+
+        try {
+            if (formato == Formato.CSV) {
+                exportarCsv(sql, parametros, salida);
+            } else {
+                exportarNdjson(sql, parametros, salida);
+            }
+        } catch (UncheckedIOException e) {
+            // El cliente cortó la descarga o falló la escritura
+            throw e.getCause();
+        }
+    }
+
+    private void exportarCsv(String sql, Object[] parametros, OutputStream salida) throws IOException {
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        escritor.write(ENCABEZADO_CSV);
+        escritor.write('\n');
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) fila -> {
+            try {
+                escritor.write(Identificadores.desdeBytes(fila.getBytes(1)));
+                escritor.write(',');
+                escritor.write(Boolean.toString(fila.getBoolean(2)));
+                escritor.write(',');
+                escritor.write(monto(fila.getLong(3)).toPlainString());
+                escritor.write(',');
+                byte[] servicioId = fila.getBytes(4);
+                if (servicioId != null) {
+                    escritor.write(Identificadores.desdeBytes(servicioId));
+                    escritor.write(',');
+                    escribirCampoCsv(escritor, fila.getString(5));
+                    escritor.write(',');
+                    escritor.write(monto(fila.getLong(6)).toPlainString());
+                    escritor.write(',');
+                    escritor.write(Integer.toString(fila.getInt(7)));
+                } else {
+                    escritor.write(",,,");
+                }
+                escritor.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, parametros);
+
+        escritor.flush();
+    }
+
+    private void exportarNdjson(String sql, Object[] parametros, OutputStream salida) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(salida, JsonEncoding.UTF8);
+        // Cada factura en su propia línea
+        json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        // ID de la factura que se está escribiendo; sus líneas llegan en filas consecutivas
+        String[] actual = new String[1];
+
+        jdbcTemplate.query(sql, (RowCallbackHandler) fila -> {
+            try {
+                String facturaId = Identificadores.desdeBytes(fila.getBytes(1));
+                if (!facturaId.equals(actual[0])) {
+                    if (actual[0] != null) {
+                        cerrarFactura(json);
+                    }
+                    actual[0] = facturaId;
+                    abrirFactura(json, facturaId, fila);
+                }
+                byte[] servicioId = fila.getBytes(4);
+                if (servicioId != null) {
+                    json.writeStartObject();
+                    json.writeStringField("servicioId", Identificadores.desdeBytes(servicioId));
+                    json.writeStringField("nombre", fila.getString(5));
+                    json.writeFieldName("precioUnitario");
+                    json.writeNumber(monto(fila.getLong(6)));
+                    json.writeNumberField("cantidad", fila.getInt(7));
+                    json.writeEndObject();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, parametros);
+
+        if (actual[0] != null) {
+            cerrarFactura(json);
+            json.writeRaw('\n');
+        }
+        json.close();
+    }
+
+    private void abrirFactura(JsonGenerator json, String facturaId, ResultSet fila) throws IOException, SQLException {
+        json.writeStartObject();
+        json.writeStringField("id", facturaId);
+        json.writeBooleanField("pagada", fila.getBoolean(2));
+        json.writeFieldName("total");
+        json.writeNumber(monto(fila.getLong(3)));
+        json.writeArrayFieldStart("lineas");
+    }
+
+    private void cerrarFactura(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * Escribe un texto como campo CSV, entre comillas si contiene separadores o comillas
+     */
+    private void escribirCampoCsv(Writer escritor, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            escritor.write(valor);
+            return;
+        }
+        escritor.write('"');
+        escritor.write(valor.replace("\"", "\"\""));
+        escritor.write('"');
+    }
+
+    /**
+     * Convierte centavos en un monto con dos decimales exactos
+     */
+    private static BigDecimal monto(long centavos) {
+        return BigDecimal.valueOf(centavos, Moneda.ESCALA);
+    }
+
+    /**
+     * Nombre sugerido para el archivo descargado
+     */
+    public static String nombreArchivo(Formato formato) {
+        return "facturas." + formato.getExtension();
+    }
+}
@@ -1,16 +1,46 @@
 package com.servicios.vet.service;
 
+import com.servicios.vet.dto.FacturaRequestDTO;
+import com.servicios.vet.dto.FiltroFacturas;
+import com.servicios.vet.dto.ResultadoImportacionServicios;
+import com.servicios.vet.dto.ResultadoItemLote;
+import com.servicios.vet.dto.ResultadoLoteFacturas;
+import com.servicios.vet.dto.ResultadoOperacionLote;
+import com.servicios.vet.dto.ResumenFacturas;
+import com.servicios.vet.dto.Sincronizacion;
 import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Identificadores;
+import com.servicios.vet.model.Instantes;
+import com.servicios.vet.model.Moneda;
 import com.servicios.vet.model.Servicio;
 import com.servicios.vet.repository.FacturaRepository;
 import com.servicios.vet.repository.ServicioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Esta clase contiene toda la lógica de negocio para gestionar servicios y facturas.
@@ -20,16 +50,60 @@ import java.util.UUID;
  * 
  * Al estar marcada con @Service, Spring la reconoce como un componente que puede
  * ser inyectado en otras clases (como el controlador).
+ * 
+ * Cada operación que crea, paga o elimina facturas, o que registra o importa servicios,
+ * publica un CambioDatos dentro de su transacción; los clientes conectados a /api/eventos
+ * lo reciben cuando la transacción se confirma (ver DifusorCambios).
  */
 @Service
 public class FacturaService {
+    // Tamaño de página usado cuando el cliente no indica uno
+    public static final int TAMANO_PAGINA_POR_DEFECTO = 20;
+
+    // Tamaño máximo de página permitido, para acotar memoria y latencia por petición
+    public static final int TAMANO_PAGINA_MAXIMO = 100;
+
+    // Cantidad máxima de facturas que se aceptan en una creación por lotes
+    public static final int TAMANO_LOTE_MAXIMO = 5000;
+
+    // Facturas que se guardan en cada transacción de una creación por lotes
+    // (coincide con hibernate.jdbc.batch_size para enviar cada tramo en un solo lote JDBC)
+    public static final int FACTURAS_POR_TRANSACCION = 50;
+
+    // Cantidad máxima de IDs que se aceptan en una operación masiva (pago o eliminación)
+    public static final int TAMANO_LOTE_IDS_MAXIMO = 10000;
+
+    // IDs que se procesan en cada sentencia (y transacción) de una operación masiva;
+    // queda por debajo del límite de 1000 elementos de una lista IN en Oracle
+    public static final int IDS_POR_SENTENCIA = 500;
+
     private final FacturaRepository facturaRepository;
     private final ServicioRepository servicioRepository;
+    private final CatalogoServicios catalogoServicios;
+    private final ResumenFacturasService resumenFacturasService;
+    private final ExportadorFacturas exportadorFacturas;
+    private final ImportadorServicios importadorServicios;
+    private final SincronizacionService sincronizacionService;
+    private final TransactionTemplate transaccion;
+    private final Cache cacheSegundoNivel;
+    private final ApplicationEventPublisher eventos;
 
     @Autowired
-    public FacturaService(FacturaRepository facturaRepository, ServicioRepository servicioRepository) {
+    public FacturaService(FacturaRepository facturaRepository, ServicioRepository servicioRepository,
+                          CatalogoServicios catalogoServicios, ResumenFacturasService resumenFacturasService,
+                          ExportadorFacturas exportadorFacturas, ImportadorServicios importadorServicios,
+                          SincronizacionService sincronizacionService,
+                          PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory, ApplicationEventPublisher eventos) {
         this.facturaRepository = facturaRepository;
         this.servicioRepository = servicioRepository;
+        this.catalogoServicios = catalogoServicios;
+        this.resumenFacturasService = resumenFacturasService;
+        this.exportadorFacturas = exportadorFacturas;
+        this.importadorServicios = importadorServicios;
+        this.sincronizacionService = sincronizacionService;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.cacheSegundoNivel = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.eventos = eventos;
     }
 
     // ===== MÉTODOS PARA GESTIONAR SERVICIOS =====
@@ -37,21 +111,77 @@ public class FacturaService {
     /**
      * Registra un nuevo servicio en el sistema.
      * 
-     * Si el servicio no tiene ID, le genera uno automáticamente.
+     * Si el servicio no tiene ID, le genera uno automáticamente. Si el cliente
+     * envía su propio ID, debe tener formato UUID (se guarda como 16 bytes).
      * Valida que el servicio tenga datos correctos antes de guardarlo.
      * 
      * @param servicio El servicio a registrar
      * @return El servicio guardado (con ID generado si era nuevo)
      * @throws IllegalArgumentException Si el servicio tiene datos inválidos
      */
+    @Transactional
+    @OperacionMedida
     public Servicio agregarServicio(Servicio servicio) {
-        // Si no tiene ID o está vacío, generamos uno aleatorio
+        validarServicio(servicio);
+        
+        // Guardamos el servicio en la base de datos y actualizamos la copia en memoria; el
+        // flush hace que un error al guardar aparezca antes de tocar la copia en memoria
+        Servicio guardado = servicioRepository.saveAndFlush(servicio);
+        catalogoServicios.registrar(guardado);
+        eventos.publishEvent(CambioDatos.servicioRegistrado(guardado));
+        return guardado;
+    }
+
+    /**
+     * Importa muchos servicios desde un archivo CSV (por ejemplo, una nueva lista de precios).
+     * 
+     * El archivo se lee fila por fila; cada fila se valida con las mismas reglas que
+     * agregarServicio y las válidas se guardan en lotes JDBC (ver ImportadorServicios).
+     * Si una fila trae el ID de un servicio existente, se actualizan su nombre y costo.
+     * Al terminar se descarta la copia en memoria del catálogo, para que las próximas
+     * lecturas vean los servicios importados, y, si se guardó algún servicio, se avisa
+     * a los clientes conectados.
+     * 
+     * @param entrada El contenido del archivo CSV (columnas id, nombre y costo)
+     * @return Cuántos servicios se guardaron y qué filas se rechazaron
+     * @throws IllegalArgumentException Si el archivo está vacío o le faltan columnas
+     * @throws IOException Si falla la lectura del archivo
+     */
+    @OperacionMedida
+    public ResultadoImportacionServicios importarServicios(InputStream entrada) throws IOException {
+        ResultadoImportacionServicios resultado = new ResultadoImportacionServicios();
+        try {
+            return importadorServicios.importar(entrada, this::validarServicio, resultado);
+        } finally {
+            // Aunque falle a mitad de camino, los tramos anteriores ya quedaron guardados
+            catalogoServicios.invalidar();
+            if (resultado.getImportados() > 0) {
+                // Cada tramo se confirmó en su propia transacción; el aviso va en una más,
+                // para que se envíe como los demás cambios: al confirmarse
+                transaccion.executeWithoutResult(estado -> eventos.publishEvent(CambioDatos.serviciosImportados()));
+            }
+        }
+    }
+
+    /**
+     * Verifica que un servicio tenga datos correctos antes de guardarlo, y le genera
+     * un ID si no trae uno.
+     * 
+     * @throws IllegalArgumentException Si el servicio tiene datos inválidos
+     */
+    private void validarServicio(Servicio servicio) {
+        // Si no tiene ID o está vacío, generamos uno nuevo
         if (servicio.getId() == null || servicio.getId().isEmpty()) {
-            servicio.setId(UUID.randomUUID().toString());
+            servicio.setId(nuevoId());
+        } else if (!Identificadores.esValido(servicio.getId())) {
+            throw new IllegalArgumentException("El ID del servicio debe tener formato UUID: " + servicio.getId());
+        } else {
+            // Lo guardamos en minúsculas, como se lee de la base de datos
+            servicio.setId(Identificadores.canonico(servicio.getId()));
         }
         
-        // Verificamos que el costo sea positivo
-        if (servicio.getCosto() <= 0) {
+        // Verificamos que el costo sea positivo (al menos un centavo)
+        if (servicio.getCostoCentavos() <= 0) {
             throw new IllegalArgumentException("El costo del servicio debe ser mayor que cero");
         }
         
@@ -59,9 +189,6 @@ public class FacturaService {
         if (servicio.getNombre() == null || servicio.getNombre().isEmpty()) {
             throw new IllegalArgumentException("El nombre del servicio no puede estar vacío");
         }
-        
-        // Guardamos el servicio en el mapa usando su ID como llave
-        return servicioRepository.save(servicio);
     }
 
     /**
@@ -71,9 +198,10 @@ public class FacturaService {
      * @return El servicio encontrado
      * @throws IllegalArgumentException Si no existe un servicio con ese ID
      */
+    @OperacionMedida
     public Servicio obtenerServicio(String id) {
-        return servicioRepository.findById(id)
-            .orElseThrow(() -> new IllegalArgumentException("No existe servicio con ID: " + id));
+        return catalogoServicios.buscar(id)
+            .orElseThrow(() -> new NoEncontradoException("No existe servicio con ID: " + id));
     }
 
     /**
@@ -81,73 +209,639 @@ public class FacturaService {
      * 
      * @return Lista de todos los servicios
      */
+    @OperacionMedida
     public List<Servicio> listarServicios() {
-        return servicioRepository.findAll();
+        return catalogoServicios.listar();
+    }
+
+    /**
+     * Obtiene la versión del catálogo de servicios, que cambia cada vez que se registra
+     * o importa un servicio. El controlador la usa como ETag del listado y del detalle.
+     */
+    public String versionServicios() {
+        return "s" + catalogoServicios.version();
+    }
+
+    /**
+     * Obtiene los contadores de la copia en memoria del catálogo de servicios
+     * (aciertos, fallos, desalojos, tamaño y capacidad).
+     */
+    public Map<String, Long> obtenerEstadisticasCatalogo() {
+        return catalogoServicios.estadisticas();
     }
 
     // ===== MÉTODOS PARA GESTIONAR FACTURAS =====
     
     @Transactional
+    @OperacionMedida
     public Factura crearFactura(List<String> serviciosIds) {
         // Verificamos que haya al menos un servicio
+        validarServiciosIds(serviciosIds);
+
+        // Convertimos los IDs en objetos Servicio (una sola consulta, y solo si no están en memoria)
+        Map<String, Servicio> catalogo = catalogoServicios.buscarTodos(new LinkedHashSet<>(serviciosIds));
+        List<Servicio> serviciosFactura = armarServicios(serviciosIds, catalogo);
+
+        // Generamos un ID único para la factura
+        String facturaId = nuevoId();
+        
+        // Creamos la factura: cada servicio distinto es una línea con copia de su nombre y precio
+        Factura nuevaFactura = new Factura(facturaId, serviciosFactura);
+        
+        // Guardamos la factura en la base de datos y la sumamos al resumen
+        Factura guardada = facturaRepository.save(nuevaFactura);
+        resumenFacturasService.registrarAltas(1, guardada.getTotalCentavos());
+        eventos.publishEvent(CambioDatos.facturasCreadas(Collections.singletonList(guardada)));
+        return guardada;
+    }
+
+    /**
+     * Crea muchas facturas en una sola llamada.
+     * 
+     * Las facturas se guardan en tramos de FACTURAS_POR_TRANSACCION, cada tramo en su
+     * propia transacción y con los INSERT agrupados en lotes JDBC. Los servicios de
+     * todo un tramo se resuelven con una sola consulta.
+     * 
+     * Cada solicitud se valida por separado: las que tienen errores se informan como
+     * rechazadas y no impiden crear las demás. Si un tramo falla al guardarse, se
+     * reintenta factura por factura para aislar la que provoca el error.
+     * 
+     * @param solicitudes Las facturas a crear, cada una con sus IDs de servicios
+     * @return El informe con el resultado de cada solicitud, en el mismo orden
+     * @throws IllegalArgumentException Si el lote está vacío o supera TAMANO_LOTE_MAXIMO
+     */
+    @OperacionMedida
+    public ResultadoLoteFacturas crearFacturas(List<FacturaRequestDTO> solicitudes) {
+        if (solicitudes == null || solicitudes.isEmpty()) {
+            throw new IllegalArgumentException("Debe incluir al menos una factura en el lote");
+        }
+        if (solicitudes.size() > TAMANO_LOTE_MAXIMO) {
+            throw new IllegalArgumentException("El lote no puede tener más de " + TAMANO_LOTE_MAXIMO + " facturas");
+        }
+
+        ResultadoItemLote[] resultados = new ResultadoItemLote[solicitudes.size()];
+        for (int inicio = 0; inicio < solicitudes.size(); inicio += FACTURAS_POR_TRANSACCION) {
+            int fin = Math.min(solicitudes.size(), inicio + FACTURAS_POR_TRANSACCION);
+            crearTramo(solicitudes, inicio, fin, resultados);
+        }
+        return new ResultadoLoteFacturas(Arrays.asList(resultados));
+    }
+
+    /**
+     * Valida y guarda las solicitudes entre las posiciones inicio (incluida) y fin (excluida)
+     */
+    private void crearTramo(List<FacturaRequestDTO> solicitudes, int inicio, int fin, ResultadoItemLote[] resultados) {
+        // Reunimos los IDs de servicios de todo el tramo para resolverlos de una vez
+        Set<String> idsTramo = new LinkedHashSet<>();
+        for (int i = inicio; i < fin; i++) {
+            List<String> serviciosIds = serviciosIdsDe(solicitudes.get(i));
+            if (serviciosIds != null) {
+                idsTramo.addAll(serviciosIds);
+            }
+        }
+        Map<String, Servicio> catalogo = idsTramo.isEmpty()
+            ? Collections.emptyMap()
+            : catalogoServicios.buscarTodos(idsTramo);
+
+        // Armamos las facturas válidas y rechazamos las demás
+        List<Factura> nuevas = new ArrayList<>();
+        List<Integer> posiciones = new ArrayList<>();
+        for (int i = inicio; i < fin; i++) {
+            try {
+                List<String> serviciosIds = serviciosIdsDe(solicitudes.get(i));
+                validarServiciosIds(serviciosIds);
+                nuevas.add(new Factura(nuevoId(), armarServicios(serviciosIds, catalogo)));
+                posiciones.add(i);
+            } catch (IllegalArgumentException e) {
+                resultados[i] = ResultadoItemLote.rechazada(i, e.getMessage());
+            }
+        }
+        if (nuevas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transaccion.executeWithoutResult(estado -> {
+                facturaRepository.saveAll(nuevas);
+                facturaRepository.flush();
+                resumenFacturasService.registrarAltas(nuevas.size(), sumarTotales(nuevas));
+                eventos.publishEvent(CambioDatos.facturasCreadas(nuevas));
+            });
+            for (int j = 0; j < nuevas.size(); j++) {
+                resultados[posiciones.get(j)] = ResultadoItemLote.creada(posiciones.get(j), nuevas.get(j).getId());
+            }
+        } catch (DataAccessException | TransactionException e) {
+            // El tramo completo se deshizo: reintentamos una por una para aislar la que falla
+            for (int j = 0; j < nuevas.size(); j++) {
+                int posicion = posiciones.get(j);
+                // Se arma de nuevo desde la solicitud: la instancia anterior quedó marcada como guardada
+                Factura reintento = new Factura(nuevas.get(j).getId(),
+                    armarServicios(serviciosIdsDe(solicitudes.get(posicion)), catalogo));
+                try {
+                    transaccion.executeWithoutResult(estado -> {
+                        facturaRepository.saveAndFlush(reintento);
+                        resumenFacturasService.registrarAltas(1, reintento.getTotalCentavos());
+                        eventos.publishEvent(CambioDatos.facturasCreadas(Collections.singletonList(reintento)));
+                    });
+                    resultados[posicion] = ResultadoItemLote.creada(posicion, reintento.getId());
+                } catch (DataAccessException | TransactionException ex) {
+                    resultados[posicion] = ResultadoItemLote.rechazada(posicion,
+                        "Error al guardar la factura: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Suma los totales de varias facturas, en centavos
+     */
+    private long sumarTotales(List<Factura> facturas) {
+        long suma = 0;
+        for (int i = 0, cantidad = facturas.size(); i < cantidad; i++) {
+            suma = Math.addExact(suma, facturas.get(i).getTotalCentavos());
+        }
+        return suma;
+    }
+
+    /**
+     * Obtiene los IDs de servicios de una solicitud, tolerando solicitudes nulas
+     */
+    private List<String> serviciosIdsDe(FacturaRequestDTO solicitud) {
+        return solicitud != null ? solicitud.getServiciosIds() : null;
+    }
+
+    /**
+     * Verifica que la solicitud incluya al menos un servicio
+     */
+    private void validarServiciosIds(List<String> serviciosIds) {
         if (serviciosIds == null || serviciosIds.isEmpty()) {
             throw new IllegalArgumentException("Debe incluir al menos un servicio en la factura");
         }
+    }
+
+    /**
+     * Genera el identificador de una nueva factura o servicio.
+     * Son UUID ordenados por tiempo, para que las inserciones vayan al final del índice.
+     */
+    private String nuevoId() {
+        return Identificadores.nuevo();
+    }
+
+    /**
+     * Convierte una lista de IDs en los servicios correspondientes, a partir de los
+     * servicios ya resueltos desde el catálogo.
+     * 
+     * El resultado conserva el orden y las repeticiones de la lista original
+     * (un servicio puede facturarse dos veces).
+     * 
+     * @param serviciosIds Los IDs de los servicios de la factura
+     * @param catalogo Los servicios encontrados, indexados por su ID canónico (ver CatalogoServicios.buscarTodos)
+     * @return Los servicios, en el mismo orden que los IDs recibidos
+     * @throws IllegalArgumentException Si uno o más IDs no existen (se informan todos juntos)
+     */
+    private List<Servicio> armarServicios(List<String> serviciosIds, Map<String, Servicio> catalogo) {
+        // Reunimos todos los IDs inexistentes para informarlos en un solo error
+        List<String> faltantes = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(serviciosIds)) {
+            if (!catalogo.containsKey(claveServicio(id))) {
+                faltantes.add(id);
+            }
+        }
+        if (faltantes.size() == 1) {
+            throw new NoEncontradoException("No existe servicio con ID: " + faltantes.get(0));
+        }
+        if (!faltantes.isEmpty()) {
+            throw new NoEncontradoException("No existen servicios con ID: " + String.join(", ", faltantes));
+        }
 
-        // Convertimos los IDs en objetos Servicio
-        List<Servicio> serviciosFactura = new ArrayList<>();
+        List<Servicio> servicios = new ArrayList<>(serviciosIds.size());
         for (String id : serviciosIds) {
-            Servicio servicio = servicioRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("No existe servicio con ID: " + id));
-            serviciosFactura.add(servicio);
+            servicios.add(catalogo.get(claveServicio(id)));
         }
+        return servicios;
+    }
 
-        // Generamos un ID único para la factura
-        String facturaId = UUID.randomUUID().toString();
-        
-        // Creamos la factura con los servicios
-        Factura nuevaFactura = new Factura(facturaId, serviciosFactura);
-        
-        // Guardamos la factura en la base de datos
-        return facturaRepository.save(nuevaFactura);
+    /**
+     * Obtiene la clave con que un servicio aparece en el catálogo: su ID canónico, o el
+     * texto tal cual si no tiene formato de ID (y por lo tanto no puede estar)
+     */
+    private static String claveServicio(String id) {
+        return Identificadores.esValido(id) ? Identificadores.canonico(id) : id;
     }
 
+    /**
+     * Busca una factura por su ID, junto con sus líneas, en una sola consulta.
+     * 
+     * @param id El identificador único de la factura
+     * @return La factura encontrada con sus líneas ya cargadas
+     * @throws IllegalArgumentException Si no existe una factura con ese ID
+     */
     @Transactional(readOnly = true)
+    @OperacionMedida
     public Factura obtenerFactura(String id) {
-        return facturaRepository.findById(id)
-            .orElseThrow(() -> new IllegalArgumentException("No existe factura con ID: " + id));
+        // Un texto que no tiene formato de ID no puede existir; evitamos la consulta
+        if (!Identificadores.esValido(id)) {
+            throw new NoEncontradoException("No existe factura con ID: " + id);
+        }
+        return facturaRepository.findConLineasById(id)
+            .orElseThrow(() -> new NoEncontradoException("No existe factura con ID: " + id));
     }
 
+    /**
+     * Obtiene la versión de una factura sin cargarla (una consulta por clave primaria).
+     * 
+     * Es el número de versión de la factura, que cambia al pagarla. Los cambios en el
+     * catálogo no la afectan: las líneas guardan su propia copia de nombre y precio.
+     * 
+     * @param id El identificador único de la factura
+     * @throws IllegalArgumentException Si no existe una factura con ese ID
+     */
+    @Transactional(readOnly = true)
+    public String versionFactura(String id) {
+        // Un texto que no tiene formato de ID no puede existir; evitamos la consulta
+        if (!Identificadores.esValido(id)) {
+            throw new NoEncontradoException("No existe factura con ID: " + id);
+        }
+        long version = facturaRepository.buscarVersion(id)
+            .orElseThrow(() -> new NoEncontradoException("No existe factura con ID: " + id));
+        return versionFactura(version);
+    }
+
+    /**
+     * Obtiene la versión de una factura ya cargada (ver versionFactura(String))
+     */
+    public String versionFactura(Factura factura) {
+        return versionFactura(factura.getVersion());
+    }
+
+    private String versionFactura(long version) {
+        return "v" + version;
+    }
+
+    /**
+     * Obtiene la versión del listado de facturas, que cambia con cada alta, pago o baja.
+     * Se calcula sumando los contadores del resumen, sin recorrer las facturas.
+     */
+    public String versionFacturas() {
+        return "f" + resumenFacturasService.obtenerVersion();
+    }
+
+    /**
+     * Marca una factura como pagada.
+     * 
+     * El pago es una sola sentencia UPDATE condicionada a que la factura no esté pagada,
+     * sin cargar la factura. Solo si no se actualizó ninguna fila se consulta si la
+     * factura existe, para informar el error correcto.
+     * 
+     * @param id El identificador único de la factura
+     * @throws IllegalArgumentException Si no existe una factura con ese ID
+     * @throws IllegalStateException Si la factura ya estaba pagada
+     */
     @Transactional
-    public Factura pagarFactura(String id) {
-        Factura factura = obtenerFactura(id);
-        
-        // Verificamos que la factura no esté ya pagada
-        if (factura.isPagada()) {
-            throw new IllegalStateException("La factura ya ha sido pagada");
+    @OperacionMedida
+    public void pagarFactura(String id) {
+        // Un texto que no tiene formato de ID no puede existir; evitamos la consulta
+        if (!Identificadores.esValido(id)) {
+            throw new NoEncontradoException("No existe factura con ID: " + id);
         }
-        
-        // Marcamos la factura como pagada
-        factura.setPagada(true);
-        return facturaRepository.save(factura);
+        // El resumen y los eventos deben recibir el ID como lo conocen los clientes
+        id = Identificadores.canonico(id);
+        if (facturaRepository.marcarPagada(id, Instantes.ahora()) == 1) {
+            resumenFacturasService.registrarPagos(Collections.singletonList(id));
+            eventos.publishEvent(CambioDatos.facturasPagadas(Collections.singletonList(id)));
+            return;
+        }
+
+        // No se actualizó ninguna fila: la factura no existe o ya estaba pagada
+        if (!facturaRepository.existsById(id)) {
+            throw new NoEncontradoException("No existe factura con ID: " + id);
+        }
+        throw new IllegalStateException("La factura ya ha sido pagada");
+    }
+
+    /**
+     * Marca muchas facturas como pagadas (por ejemplo, la liquidación de fin de mes).
+     * 
+     * Los IDs se procesan en tramos de IDS_POR_SENTENCIA, cada uno en su propia
+     * transacción: se bloquean las filas del tramo leyendo solo su estado de pago y
+     * luego se pagan las pendientes con un único UPDATE. Nunca se cargan las facturas
+     * ni sus servicios. Los IDs repetidos se informan una sola vez.
+     * 
+     * @param ids Los IDs de las facturas a pagar
+     * @return Qué IDs se pagaron, cuáles ya estaban pagados y cuáles no existen
+     * @throws IllegalArgumentException Si la lista está vacía o supera TAMANO_LOTE_IDS_MAXIMO
+     */
+    @OperacionMedida
+    public ResultadoOperacionLote pagarFacturas(List<String> ids) {
+        return procesarEnTramos(ids, this::pagarTramo);
+    }
+
+    /**
+     * Paga las facturas pendientes de un tramo; debe ejecutarse dentro de una transacción
+     */
+    private ResultadoOperacionLote pagarTramo(List<String> tramo) {
+        ResultadoOperacionLote resultado = clasificarBloqueando(tramo);
+
+        // Las filas están bloqueadas, así que el UPDATE afecta exactamente a las pendientes
+        if (!resultado.getProcesadas().isEmpty()) {
+            facturaRepository.marcarPagadas(resultado.getProcesadas(), Instantes.ahora());
+            resumenFacturasService.registrarPagos(resultado.getProcesadas());
+            eventos.publishEvent(CambioDatos.facturasPagadas(resultado.getProcesadas()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Elimina muchas facturas pendientes de pago (por ejemplo, para depurar borradores).
+     * 
+     * Igual que el pago masivo, los IDs se procesan en tramos de IDS_POR_SENTENCIA, cada
+     * uno en su propia transacción, con sentencias que afectan a todo el tramo a la vez.
+     * Las facturas pagadas no se eliminan y se informan como ya pagadas.
+     * 
+     * @param ids Los IDs de las facturas a eliminar
+     * @return Qué IDs se eliminaron, cuáles estaban pagados y cuáles no existen
+     * @throws IllegalArgumentException Si la lista está vacía o supera TAMANO_LOTE_IDS_MAXIMO
+     */
+    @OperacionMedida
+    public ResultadoOperacionLote eliminarFacturas(List<String> ids) {
+        return procesarEnTramos(ids, this::eliminarTramo);
+    }
+
+    /**
+     * Elimina las facturas pendientes de un tramo; debe ejecutarse dentro de una transacción.
+     * 
+     * Se bloquean las filas del tramo leyendo solo su estado de pago, y luego se borran las
+     * pendientes junto con sus filas en la tabla intermedia, sin cargar ninguna entidad.
+     * Cada factura borrada deja una marca en FACTURAS_ELIMINADAS (ver SincronizacionService).
+     */
+    private ResultadoOperacionLote eliminarTramo(List<String> tramo) {
+        ResultadoOperacionLote resultado = clasificarBloqueando(tramo);
+
+        if (!resultado.getProcesadas().isEmpty()) {
+            // Se restan del resumen antes de borrarlas, mientras todavía se pueden leer sus totales
+            resumenFacturasService.registrarBajas(resultado.getProcesadas());
+            facturaRepository.eliminarPendientes(resultado.getProcesadas());
+            // Marca para que los terminales que sincronizan se enteren de la eliminación
+            sincronizacionService.registrarEliminaciones(resultado.getProcesadas());
+            // El DELETE masivo no pasa por la caché de segundo nivel: quitamos las líneas
+            // de las facturas borradas para no ocupar lugar con datos que ya no existen
+            for (String id : resultado.getProcesadas()) {
+                cacheSegundoNivel.evictCollectionData(Factura.ROL_LINEAS, id);
+            }
+            eventos.publishEvent(CambioDatos.facturasEliminadas(resultado.getProcesadas()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Aplica una operación masiva en tramos de IDS_POR_SENTENCIA IDs, cada tramo en su
+     * propia transacción, y junta los resultados de todos los tramos
+     */
+    private ResultadoOperacionLote procesarEnTramos(List<String> ids,
+                                                    Function<List<String>, ResultadoOperacionLote> operacion) {
+        ResultadoOperacionLote resultado = new ResultadoOperacionLote();
+        List<String> validos = separarIdsValidos(ids, resultado);
+
+        for (int inicio = 0; inicio < validos.size(); inicio += IDS_POR_SENTENCIA) {
+            List<String> tramo = validos.subList(inicio, Math.min(validos.size(), inicio + IDS_POR_SENTENCIA));
+            resultado.agregar(transaccion.execute(estado -> operacion.apply(tramo)));
+        }
+        return resultado;
+    }
+
+    /**
+     * Bloquea las filas de un tramo y clasifica sus IDs según el estado de pago:
+     * las pendientes quedan como "procesadas" (a las que se aplicará la operación)
+     */
+    private ResultadoOperacionLote clasificarBloqueando(List<String> tramo) {
+        Map<String, Boolean> pagadas = new HashMap<>();
+        for (FacturaRepository.EstadoPago estado : facturaRepository.bloquearEstadosPago(tramo)) {
+            pagadas.put(estado.getId(), estado.isPagada());
+        }
+
+        ResultadoOperacionLote resultado = new ResultadoOperacionLote();
+        for (String id : tramo) {
+            Boolean pagada = pagadas.get(id);
+            if (pagada == null) {
+                resultado.getNoEncontradas().add(id);
+            } else if (pagada) {
+                resultado.getYaPagadas().add(id);
+            } else {
+                resultado.getProcesadas().add(id);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Valida la lista de IDs de una operación masiva y la deja sin repeticiones.
+     * Los IDs sin formato válido se informan directamente como no encontrados.
+     * Los válidos se pasan a su forma canónica (ver Identificadores.canonico), para que
+     * un ID en mayúsculas encuentre su factura y no se cuente dos veces.
+     * 
+     * @return Los IDs con formato válido en forma canónica, sin repetir y en el orden recibido
+     * @throws IllegalArgumentException Si la lista está vacía o supera TAMANO_LOTE_IDS_MAXIMO
+     */
+    private List<String> separarIdsValidos(List<String> ids, ResultadoOperacionLote resultado) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Debe incluir al menos un ID de factura");
+        }
+        if (ids.size() > TAMANO_LOTE_IDS_MAXIMO) {
+            throw new IllegalArgumentException("No se pueden procesar más de " + TAMANO_LOTE_IDS_MAXIMO + " facturas a la vez");
+        }
+
+        Set<String> validos = new LinkedHashSet<>();
+        for (String id : new LinkedHashSet<>(ids)) {
+            if (Identificadores.esValido(id)) {
+                validos.add(Identificadores.canonico(id));
+            } else {
+                resultado.getNoEncontradas().add(id);
+            }
+        }
+        return new ArrayList<>(validos);
+    }
+
+    /**
+     * Obtiene el resumen de facturación: total facturado, total pagado y por cobrar.
+     * 
+     * Se lee de contadores que se actualizan con cada factura creada, pagada o eliminada,
+     * así que no recorre las facturas.
+     * 
+     * @return El resumen de facturación
+     */
+    @OperacionMedida
+    public ResumenFacturas obtenerResumen() {
+        return resumenFacturasService.obtenerResumen();
+    }
+
+    /**
+     * Exporta todas las facturas con sus servicios, escribiéndolas a medida que se leen.
+     * 
+     * No usa una transacción de JPA ni carga entidades: las filas se recorren con un
+     * cursor de JDBC y se escriben una por una (ver ExportadorFacturas), así que la
+     * memoria usada no depende de cuántas facturas haya.
+     * 
+     * @param formato CSV o NDJSON
+     * @param pagada Si no es null, solo se exportan las facturas con ese estado de pago
+     * @param salida Donde se escribe la exportación
+     * @throws IOException Si falla la escritura (por ejemplo, si el cliente cortó la descarga)
+     */
+    @OperacionMedida
+    public void exportarFacturas(ExportadorFacturas.Formato formato, Boolean pagada, OutputStream salida)
+            throws IOException {
+        exportadorFacturas.exportar(formato, pagada, salida);
+    }
+
+    /**
+     * Obtiene las facturas creadas, pagadas o eliminadas desde la sincronización anterior
+     * de un terminal (ver SincronizacionService).
+     * 
+     * @param token Token recibido en la sincronización anterior, o vacío para recibir todas
+     * @param tamano Cantidad máxima de cambios, o null para usar el valor por defecto
+     * @return Las facturas cambiadas, los IDs de las eliminadas y el token para la próxima vez
+     * @throws IllegalArgumentException Si el token o el tamaño son inválidos
+     */
+    @OperacionMedida
+    public Sincronizacion<Factura> sincronizarFacturas(String token, Integer tamano) {
+        return sincronizacionService.sincronizarFacturas(token, tamano);
+    }
+
+    /**
+     * Obtiene los servicios registrados o modificados desde la sincronización anterior
+     * de un terminal (ver SincronizacionService).
+     * 
+     * @param token Token recibido en la sincronización anterior, o vacío para recibir todos
+     * @param tamano Cantidad máxima de cambios, o null para usar el valor por defecto
+     * @return Los servicios cambiados y el token para la próxima vez
+     * @throws IllegalArgumentException Si el token o el tamaño son inválidos
+     */
+    @OperacionMedida
+    public Sincronizacion<Servicio> sincronizarServicios(String token, Integer tamano) {
+        return sincronizacionService.sincronizarServicios(token, tamano);
     }
 
+    /**
+     * Obtiene una página del listado de facturas, ordenado por ID.
+     * 
+     * La paginación es por cursor: el cliente envía el cursor recibido en la página
+     * anterior y la consulta continúa desde esa factura, sin recorrer las previas.
+     * 
+     * @param cursor Cursor entregado en una página anterior, o null para la primera página
+     * @param tamano Cantidad de facturas por página, o null para usar el valor por defecto
+     * @param filtro Filtros opcionales por estado de pago y rango de total
+     * @return La página de facturas con los cursores para avanzar o retroceder
+     * @throws IllegalArgumentException Si el cursor, el tamaño o los filtros son inválidos
+     */
     @Transactional(readOnly = true)
-    public List<Factura> listarFacturas() {
-        return facturaRepository.findAll();
+    @OperacionMedida
+    public PaginaFacturas listarFacturas(String cursor, Integer tamano, FiltroFacturas filtro) {
+        int limite = normalizarTamanoPagina(tamano);
+        FiltroFacturas criterios = filtro != null ? filtro : new FiltroFacturas();
+
+        // Los totales se guardan en centavos; convertimos los límites del filtro
+        Long totalMin = criterios.getTotalMin() != null ? Moneda.aCentavos(criterios.getTotalMin()) : null;
+        Long totalMax = criterios.getTotalMax() != null ? Moneda.aCentavos(criterios.getTotalMax()) : null;
+        if (totalMin != null && totalMax != null && totalMin > totalMax) {
+            throw new IllegalArgumentException("El total mínimo no puede ser mayor que el total máximo");
+        }
+
+        // Pedimos una factura extra para saber si existe otra página en esa dirección
+        Limit limiteConsulta = Limit.of(limite + 1);
+        List<Factura> facturas;
+        boolean haySiguiente;
+        boolean hayAnterior;
+
+        if (cursor == null || cursor.isEmpty()) {
+            facturas = facturaRepository.buscarPrimeraPagina(
+                criterios.getPagada(), totalMin, totalMax, limiteConsulta);
+            haySiguiente = facturas.size() > limite;
+            hayAnterior = false;
+            facturas = recortar(facturas, limite);
+        } else {
+            CursorFactura posicion = CursorFactura.decodificar(cursor);
+            if (posicion.getDireccion() == CursorFactura.Direccion.SIGUIENTE) {
+                facturas = facturaRepository.buscarPosteriores(posicion.getFacturaId(),
+                    criterios.getPagada(), totalMin, totalMax, limiteConsulta);
+                haySiguiente = facturas.size() > limite;
+                hayAnterior = true;
+                facturas = recortar(facturas, limite);
+            } else {
+                facturas = facturaRepository.buscarAnteriores(posicion.getFacturaId(),
+                    criterios.getPagada(), totalMin, totalMax, limiteConsulta);
+                hayAnterior = facturas.size() > limite;
+                haySiguiente = true;
+                facturas = recortar(facturas, limite);
+                // La consulta hacia atrás viene en orden descendente
+                Collections.reverse(facturas);
+            }
+        }
+
+        String cursorSiguiente = null;
+        String cursorAnterior = null;
+        if (!facturas.isEmpty()) {
+            // Inicializamos las líneas de la página: las que están en la caché de segundo
+            // nivel se toman de ahí y las demás se leen juntas en una sola consulta
+            // (Hibernate carga en lote las listas pendientes; ver Factura)
+            for (Factura factura : facturas) {
+                factura.getLineas().size();
+            }
+
+            if (haySiguiente) {
+                cursorSiguiente = CursorFactura.siguiente(facturas.get(facturas.size() - 1).getId()).codificar();
+            }
+            if (hayAnterior) {
+                cursorAnterior = CursorFactura.anterior(facturas.get(0).getId()).codificar();
+            }
+        }
+
+        return new PaginaFacturas(facturas, cursorSiguiente, cursorAnterior, limite);
     }
 
+    /**
+     * Valida el tamaño de página pedido y lo ajusta al máximo permitido
+     */
+    private int normalizarTamanoPagina(Integer tamano) {
+        if (tamano == null) {
+            return TAMANO_PAGINA_POR_DEFECTO;
+        }
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero");
+        }
+        return Math.min(tamano, TAMANO_PAGINA_MAXIMO);
+    }
+
+    /**
+     * Descarta la factura extra pedida para detectar si hay más páginas
+     */
+    private List<Factura> recortar(List<Factura> facturas, int limite) {
+        return new ArrayList<>(facturas.size() > limite ? facturas.subList(0, limite) : facturas);
+    }
+
+    /**
+     * Elimina una factura que todavía no ha sido pagada.
+     * 
+     * No se carga la factura: se bloquea su fila leyendo solo el estado de pago y se
+     * borra con sentencias directas (sus servicios y luego la factura).
+     * 
+     * @param id El identificador único de la factura
+     * @throws IllegalArgumentException Si no existe una factura con ese ID
+     * @throws IllegalStateException Si la factura ya fue pagada
+     */
     @Transactional
+    @OperacionMedida
     public void eliminarFactura(String id) {
-        Factura factura = obtenerFactura(id);
-        System.out.println("Factura encontrada: " + factura);
-        // Verificamos que la factura no esté pagada
-        if (factura.isPagada()) {
+        // Un texto que no tiene formato de ID no puede existir; evitamos la consulta
+        if (!Identificadores.esValido(id)) {
+            throw new NoEncontradoException("No existe factura con ID: " + id);
+        }
+
+        // El bloqueo devuelve los IDs en forma canónica; comparamos con esa forma
+        ResultadoOperacionLote resultado = eliminarTramo(Collections.singletonList(Identificadores.canonico(id)));
+        if (!resultado.getNoEncontradas().isEmpty()) {
+            throw new NoEncontradoException("No existe factura con ID: " + id);
+        }
+        if (!resultado.getYaPagadas().isEmpty()) {
             throw new IllegalStateException("No se puede eliminar una factura ya pagada");
         }
-        System.out.println("Factura eliminada: " + factura);
-        // Eliminamos la factura
-        facturaRepository.delete(factura);
-        System.out.println("Factura eliminada: " + factura);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,319 @@
+package com.servicios.vet.service;
+
+import com.servicios.vet.dto.ResultadoImportacionServicios;
+import com.servicios.vet.model.Identificadores;
+import com.servicios.vet.model.Instantes;
+import com.servicios.vet.model.Moneda;
+import com.servicios.vet.model.Servicio;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Importa servicios desde un archivo CSV, leyéndolo fila por fila.
+ *
+ * El archivo debe tener un encabezado con las columnas "nombre" y "costo", y puede
+ * tener una columna "id" (las demás se ignoran). Si una fila trae ID y ese servicio
+ * ya existe, se actualizan su nombre y su costo; si no, se crea. Un campo entre comillas
+ * puede ocupar varias líneas (como los que escribe ExportadorFacturas).
+ *
+ * Las filas válidas se guardan en tramos de FILAS_POR_TRAMO, cada tramo en su propia
+ * transacción y con una sola sentencia MERGE enviada en lote JDBC. Solo se guarda en
+ * memoria el tramo en curso, así que el tamaño del archivo no influye en la memoria usada.
+ * Si un tramo falla al guardarse, se reintenta fila por fila para aislar la que
+ * provoca el error.
+ *
+ * Como el MERGE no pasa por Hibernate, quien importa debe invalidar la copia en memoria
+ * del catálogo (ver FacturaService.importarServicios).
+ */
+@Component
+public class ImportadorServicios {
+
+    // Filas que se guardan en cada lote JDBC (y transacción)
+    public static final int FILAS_POR_TRAMO = 1000;
+
+    // Largo máximo de una fila que ocupa varias líneas; una comilla sin cerrar no puede
+    // hacer que se lea el resto del archivo en memoria
+    static final int LARGO_MAXIMO_FILA = 64 * 1024;
+
+    // Inserta el servicio o, si ya existe uno con ese ID, actualiza su nombre y costo.
+    // Un servicio que no cambió no se toca, para que la sincronización de los terminales
+    // no lo vuelva a enviar cada vez que se importa la misma lista de precios.
+    // Los CAST le indican el tipo de cada parámetro a la base de datos (H2 no lo deduce).
+    private static final String MERGE =
+        "MERGE INTO SERVICIOS S"
+        + " USING (SELECT CAST(? AS RAW(16)) AS SERVICIO_ID, CAST(? AS VARCHAR2(255 CHAR)) AS NOMBRE,"
+        + " CAST(? AS NUMBER(19)) AS COSTO_CENTAVOS, CAST(? AS TIMESTAMP(6) WITH TIME ZONE) AS MOMENTO FROM DUAL) N"
+        + " ON (S.SERVICIO_ID = N.SERVICIO_ID)"
+        + " WHEN MATCHED THEN UPDATE SET S.NOMBRE = N.NOMBRE, S.COSTO_CENTAVOS = N.COSTO_CENTAVOS,"
+        + " S.ACTUALIZADO = N.MOMENTO"
+        + " WHERE S.NOMBRE <> N.NOMBRE OR S.COSTO_CENTAVOS <> N.COSTO_CENTAVOS"
+        + " WHEN NOT MATCHED THEN INSERT (SERVICIO_ID, NOMBRE, COSTO_CENTAVOS, CREADO, ACTUALIZADO)"
+        + " VALUES (N.SERVICIO_ID, N.NOMBRE, N.COSTO_CENTAVOS, N.MOMENTO, N.MOMENTO)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaccion;
+
+    @Autowired
+    public ImportadorServicios(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Lee el archivo y guarda sus servicios.
+     *
+     * @param entrada El contenido del archivo CSV, en UTF-8
+     * @param validar Valida cada servicio (y le asigna ID si no trae); lanza
+     *                IllegalArgumentException para rechazar la fila
+     * @return Cuántos servicios se guardaron y qué filas se rechazaron
+     * @throws IllegalArgumentException Si el archivo está vacío o le faltan columnas
+     */
+    public ResultadoImportacionServicios importar(InputStream entrada, Consumer<Servicio> validar) throws IOException {
+        return importar(entrada, validar, new ResultadoImportacionServicios());
+    }
+
+    /**
+     * Lee el archivo y guarda sus servicios, anotando el avance en el resultado recibido.
+     * Si la lectura falla a mitad de camino, el resultado sigue contando los servicios
+     * de los tramos que ya quedaron guardados.
+     *
+     * @param resultado Donde se suman los servicios guardados y las filas rechazadas
+     * @see #importar(InputStream, Consumer)
+     */
+    public ResultadoImportacionServicios importar(InputStream entrada, Consumer<Servicio> validar,
+                                                  ResultadoImportacionServicios resultado) throws IOException {
+        BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        Columnas columnas = leerEncabezado(lector.readLine());
+
+        List<Servicio> tramo = new ArrayList<>(FILAS_POR_TRAMO);
+        List<Long> filas = new ArrayList<>(FILAS_POR_TRAMO);
+
+        // Las filas se numeran por la línea del archivo en que empiezan, contando el encabezado
+        long siguienteLinea = 2;
+        Registro registro;
+        while ((registro = leerRegistro(lector)) != null) {
+            long numeroFila = siguienteLinea;
+            siguienteLinea += registro.lineas();
+            if (registro.texto().isBlank()) {
+                continue;
+            }
+            try {
+                Servicio servicio = leerServicio(separarCampos(registro.texto()), columnas);
+                validar.accept(servicio);
+                tramo.add(servicio);
+                filas.add(numeroFila);
+            } catch (IllegalArgumentException e) {
+                resultado.rechazar(numeroFila, e.getMessage());
+            }
+
+            if (tramo.size() == FILAS_POR_TRAMO) {
+                guardarTramo(tramo, filas, resultado);
+                tramo.clear();
+                filas.clear();
+            }
+        }
+        if (!tramo.isEmpty()) {
+            guardarTramo(tramo, filas, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Guarda un tramo con un lote JDBC; si falla, reintenta fila por fila
+     */
+    private void guardarTramo(List<Servicio> tramo, List<Long> filas, ResultadoImportacionServicios resultado) {
+        try {
+            transaccion.executeWithoutResult(estado -> guardar(tramo));
+            resultado.sumarImportados(tramo.size());
+        } catch (DataAccessException | TransactionException e) {
+            // El tramo completo se deshizo: reintentamos uno por uno para aislar el que falla
+            for (int i = 0; i < tramo.size(); i++) {
+                List<Servicio> uno = Collections.singletonList(tramo.get(i));
+                try {
+                    transaccion.executeWithoutResult(estado -> guardar(uno));
+                    resultado.sumarImportados(1);
+                } catch (DataAccessException | TransactionException ex) {
+                    resultado.rechazar(filas.get(i), "Error al guardar el servicio: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private void guardar(List<Servicio> servicios) {
+        // Todo el tramo comparte el momento del cambio, igual que si se guardara con Hibernate
+        OffsetDateTime momento = OffsetDateTime.ofInstant(Instantes.ahora(), ZoneOffset.UTC);
+        jdbcTemplate.batchUpdate(MERGE, servicios, servicios.size(), (sentencia, servicio) -> {
+            sentencia.setBytes(1, Identificadores.aBytes(servicio.getId()));
+            sentencia.setString(2, servicio.getNombre());
+            sentencia.setLong(3, servicio.getCostoCentavos());
+            sentencia.setObject(4, momento);
+        });
+    }
+
+    /**
+     * Posición de cada columna en el archivo (-1 si no está)
+     */
+    private record Columnas(int id, int nombre, int costo) {
+    }
+
+    private Columnas leerEncabezado(String encabezado) {
+        if (encabezado == null) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+        // Quitamos la marca de orden de bytes que agregan algunas planillas al guardar en UTF-8
+        if (encabezado.startsWith("\uFEFF")) {
+            encabezado = encabezado.substring(1);
+        }
+
+        int id = -1;
+        int nombre = -1;
+        int costo = -1;
+        List<String> campos = separarCampos(encabezado);
+        for (int i = 0; i < campos.size(); i++) {
+            switch (campos.get(i).trim().toLowerCase(Locale.ROOT)) {
+                case "id" -> id = i;
+                case "nombre" -> nombre = i;
+                case "costo" -> costo = i;
+                default -> {
+                    // Columna desconocida: se ignora
+                }
+            }
+        }
+        if (nombre < 0 || costo < 0) {
+            throw new IllegalArgumentException("El archivo debe tener un encabezado con las columnas nombre y costo");
+        }
+        return new Columnas(id, nombre, costo);
+    }
+
+    private Servicio leerServicio(List<String> campos, Columnas columnas) {
+        String id = columnas.id() >= 0 ? campo(campos, columnas.id()) : null;
+        String nombre = campo(campos, columnas.nombre());
+        String costo = campo(campos, columnas.costo());
+
+        // El costo se lee como decimal exacto y se convierte directamente a centavos
+        long centavos;
+        try {
+            centavos = Moneda.aCentavos(new BigDecimal(costo));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El costo no es un número: " + costo);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("El costo es demasiado grande: " + costo);
+        }
+
+        Servicio servicio = new Servicio();
+        servicio.setId(id);
+        servicio.setNombre(nombre);
+        servicio.setCostoCentavos(centavos);
+        return servicio;
+    }
+
+    private String campo(List<String> campos, int posicion) {
+        return posicion < campos.size() ? campos.get(posicion).trim() : "";
+    }
+
+    /**
+     * Una fila del archivo y cuántas líneas ocupa
+     */
+    private record Registro(String texto, int lineas) {
+    }
+
+    /**
+     * Lee la siguiente fila: una línea o, si un campo entre comillas incluye saltos de
+     * línea, todas las que ocupa ese campo (unidas con "\n"). Si la fila supera
+     * LARGO_MAXIMO_FILA sin cerrar las comillas, se devuelve así y separarCampos la rechaza.
+     *
+     * @return La fila, o null al final del archivo
+     */
+    private static Registro leerRegistro(BufferedReader lector) throws IOException {
+        String linea = lector.readLine();
+        if (linea == null) {
+            return null;
+        }
+        StringBuilder texto = new StringBuilder(linea);
+        int lineas = 1;
+        boolean entreComillas = cambiaComillas(linea, false);
+        while (entreComillas && texto.length() <= LARGO_MAXIMO_FILA) {
+            String siguiente = lector.readLine();
+            if (siguiente == null) {
+                break;
+            }
+            texto.append('\n').append(siguiente);
+            lineas++;
+            entreComillas = cambiaComillas(siguiente, entreComillas);
+        }
+        return new Registro(texto.toString(), lineas);
+    }
+
+    /**
+     * Indica si al final de la línea se está dentro de un campo entre comillas. Una comilla
+     * escrita dos veces abre y cierra, así que basta con contarlas.
+     */
+    private static boolean cambiaComillas(String linea, boolean entreComillas) {
+        for (int i = 0; i < linea.length(); i++) {
+            if (linea.charAt(i) == '"') {
+                entreComillas = !entreComillas;
+            }
+        }
+        return entreComillas;
+    }
+
+    /**
+     * Separa una fila CSV en campos. Los campos pueden ir entre comillas dobles (para
+     * incluir comas o saltos de línea) y una comilla dentro de un campo se escribe dos veces.
+     *
+     * @throws IllegalArgumentException Si una comilla queda sin cerrar
+     */
+    static List<String> separarCampos(String linea) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                        actual.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("La fila tiene comillas sin cerrar");
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+}
@@ -0,0 +1,15 @@
+package com.servicios.vet.service;
+
+/**
+ * Indica que no existe la factura o el servicio pedido.
+ *
+ * Extiende IllegalArgumentException para que quien ya atrapa esa excepción (el
+ * controlador responde 404, la creación por lotes rechaza la fila) no tenga que
+ * cambiar; las métricas la distinguen por su tipo (ver MetricasFacturaService).
+ */
+public class NoEncontradoException extends IllegalArgumentException {
+
+    public NoEncontradoException(String mensaje) {
+        super(mensaje);
+    }
+}
\ No newline at end of file
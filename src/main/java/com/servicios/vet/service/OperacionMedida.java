@@ -0,0 +1,18 @@
+package com.servicios.vet.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca una operación de FacturaService cuyo tiempo y resultado se registran en la
+ * métrica "vet.factura.operaciones" (ver MetricasFacturaService).
+ *
+ * Solo se marcan las operaciones que pide un cliente: las consultas auxiliares, como
+ * las versiones que usan los ETag o las estadísticas del catálogo, no se miden.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OperacionMedida {
+}
@@ -0,0 +1,54 @@
+package com.servicios.vet.service;
+
+import com.servicios.vet.model.Factura;
+
+import java.util.List;
+
+/**
+ * Resultado de consultar una página del listado de facturas.
+ * 
+ * Además de las facturas de la página, indica los cursores necesarios para pedir
+ * la página siguiente y la anterior. Un cursor en null significa que no hay más
+ * facturas en esa dirección.
+ */
+public class PaginaFacturas {
+    private final List<Factura> facturas;
+    private final String cursorSiguiente;
+    private final String cursorAnterior;
+    private final int tamano;
+
+    public PaginaFacturas(List<Factura> facturas, String cursorSiguiente, String cursorAnterior, int tamano) {
+        this.facturas = facturas;
+        this.cursorSiguiente = cursorSiguiente;
+        this.cursorAnterior = cursorAnterior;
+        this.tamano = tamano;
+    }
+
+    /**
+     * Obtiene las facturas de la página, ordenadas por ID
+     */
+    public List<Factura> getFacturas() {
+        return facturas;
+    }
+
+    /**
+     * Obtiene el cursor para la página siguiente, o null si esta es la última
+     */
+    public String getCursorSiguiente() {
+        return cursorSiguiente;
+    }
+
+    /**
+     * Obtiene el cursor para la página anterior, o null si esta es la primera
+     */
+    public String getCursorAnterior() {
+        return cursorAnterior;
+    }
+
+    /**
+     * Obtiene el tamaño de página efectivamente aplicado
+     */
+    public int getTamano() {
+        return tamano;
+    }
+}
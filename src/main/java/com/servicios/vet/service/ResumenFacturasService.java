@@ -0,0 +1,211 @@
+package com.servicios.vet.service;
+
+import com.servicios.vet.dto.ResumenFacturas;
+import com.servicios.vet.model.FranjaResumen;
+import com.servicios.vet.repository.FacturaRepository;
+import com.servicios.vet.repository.FranjaResumenRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mantiene el resumen de facturación (total facturado, total pagado y por cobrar).
+ *
+ * Los contadores se guardan en la tabla RESUMEN_FACTURAS, repartidos en
+ * "vet.resumen.franjas" filas (ver FranjaResumen). FacturaService los actualiza en la
+ * misma transacción que crea, paga o elimina facturas, así que el resumen siempre
+ * coincide con las facturas confirmadas, y leerlo cuesta lo mismo sin importar
+ * cuántas facturas haya.
+ *
+ * La reconciliación vuelve a calcular los contadores desde la tabla FACTURAS, por si
+ * alguien modificó las facturas por fuera de la aplicación. Se ejecuta al iniciar y
+ * según "vet.resumen.reconciliacion" (por defecto, todos los días a las 3:00).
+ *
+ * Además, las franjas cuentan los cambios registrados; su suma es la versión del
+ * listado de facturas que usa el controlador para responder 304 Not Modified.
+ */
+@Service
+public class ResumenFacturasService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenFacturasService.class);
+
+    private final FranjaResumenRepository franjaResumenRepository;
+    private final FacturaRepository facturaRepository;
+    private final TransactionTemplate transaccion;
+    private final int franjas;
+
+    @Autowired
+    public ResumenFacturasService(FranjaResumenRepository franjaResumenRepository,
+                                  FacturaRepository facturaRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${vet.resumen.franjas:16}") int franjas) {
+        if (franjas < 1) {
+            throw new IllegalArgumentException("La cantidad de franjas del resumen debe ser mayor que cero");
+        }
+        this.franjaResumenRepository = franjaResumenRepository;
+        this.facturaRepository = facturaRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.franjas = franjas;
+    }
+
+    /**
+     * Crea las franjas que falten y calcula los contadores antes de atender peticiones;
+     * sin sus filas, los cambios en las facturas no tendrían dónde sumarse.
+     */
+    @PostConstruct
+    public void inicializar() {
+        try {
+            transaccion.executeWithoutResult(estado -> reconciliarBloqueando());
+        } catch (DataAccessException e) {
+            // Otra instancia de la aplicación puede estar creando las mismas franjas
+            log.warn("No se pudo reconciliar el resumen de facturación al iniciar: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene el resumen de facturación sumando las franjas.
+     */
+    @Transactional(readOnly = true)
+    public ResumenFacturas obtenerResumen() {
+        FranjaResumenRepository.Totales totales = franjaResumenRepository.sumarFranjas();
+        return aResumen(totales);
+    }
+
+    /**
+     * Obtiene la versión actual de las facturas: un número que crece cada vez que se
+     * confirma un alta, un pago o una baja. Cuesta lo mismo sin importar cuántas
+     * facturas haya (suma las franjas).
+     */
+    @Transactional(readOnly = true)
+    public long obtenerVersion() {
+        return franjaResumenRepository.sumarCambios();
+    }
+
+    /**
+     * Suma facturas nuevas al resumen. Debe llamarse dentro de la transacción que las guarda.
+     *
+     * @param cantidad Cantidad de facturas creadas
+     * @param centavos Suma de sus totales, en centavos
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAltas(long cantidad, long centavos) {
+        if (cantidad > 0) {
+            franjaResumenRepository.sumarAltas(elegirFranja(), cantidad, centavos);
+        }
+    }
+
+    /**
+     * Suma al resumen el pago de las facturas indicadas. Debe llamarse dentro de la
+     * transacción que las paga, después de marcarlas como pagadas.
+     *
+     * @param ids IDs de las facturas que se acaban de pagar
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarPagos(Collection<String> ids) {
+        if (!ids.isEmpty()) {
+            franjaResumenRepository.sumarPagos(elegirFranja(), ids);
+        }
+    }
+
+    /**
+     * Resta del resumen las facturas indicadas, que deben estar pendientes de pago.
+     * Debe llamarse dentro de la transacción que las elimina, antes de borrarlas.
+     *
+     * @param ids IDs de las facturas que se van a eliminar
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarBajas(Collection<String> ids) {
+        if (!ids.isEmpty()) {
+            franjaResumenRepository.restarBajas(elegirFranja(), ids);
+        }
+    }
+
+    /**
+     * Vuelve a calcular los contadores desde la tabla FACTURAS.
+     *
+     * @return El resumen después de reconciliar
+     */
+    @Scheduled(cron = "${vet.resumen.reconciliacion:0 0 3 * * *}")
+    @Transactional
+    public ResumenFacturas reconciliar() {
+        return reconciliarBloqueando();
+    }
+
+    /**
+     * Bloquea todas las franjas, calcula los totales desde las facturas y los deja en
+     * la franja 0 (las demás quedan en cero).
+     *
+     * Mientras las franjas están bloqueadas, ninguna transacción que modifique facturas
+     * puede confirmarse: las que ya se confirmaron aparecen en el cálculo, y las que
+     * están en curso sumarán su cambio sobre el valor reconciliado.
+     */
+    private ResumenFacturas reconciliarBloqueando() {
+        Map<Integer, FranjaResumen> existentes = new HashMap<>();
+        for (FranjaResumen franja : franjaResumenRepository.bloquearTodas()) {
+            existentes.put(franja.getFranja(), franja);
+        }
+
+        long facturasAntes = 0;
+        long facturadoAntes = 0;
+        long pagadasAntes = 0;
+        long pagadoAntes = 0;
+        for (FranjaResumen franja : existentes.values()) {
+            facturasAntes += franja.getFacturas();
+            facturadoAntes += franja.getFacturadoCentavos();
+            pagadasAntes += franja.getPagadas();
+            pagadoAntes += franja.getPagadoCentavos();
+        }
+
+        for (int i = 0; i < franjas; i++) {
+            if (!existentes.containsKey(i)) {
+                existentes.put(i, franjaResumenRepository.save(new FranjaResumen(i)));
+            }
+        }
+
+        FranjaResumenRepository.Totales totales = facturaRepository.calcularTotales();
+        for (FranjaResumen franja : existentes.values()) {
+            if (franja.getFranja() == 0) {
+                franja.establecer(totales.getFacturas(), totales.getFacturadoCentavos(),
+                    totales.getPagadas(), totales.getPagadoCentavos());
+            } else {
+                franja.establecer(0, 0, 0, 0);
+            }
+        }
+
+        if (facturasAntes != totales.getFacturas() || facturadoAntes != totales.getFacturadoCentavos()
+                || pagadasAntes != totales.getPagadas() || pagadoAntes != totales.getPagadoCentavos()) {
+            // Las facturas cambiaron sin pasar por la aplicación: cambia también su versión
+            existentes.get(0).registrarCambio();
+            log.warn("Resumen de facturación corregido: facturas {} -> {}, facturado {} -> {}, pagadas {} -> {}, pagado {} -> {} (centavos)",
+                facturasAntes, totales.getFacturas(), facturadoAntes, totales.getFacturadoCentavos(),
+                pagadasAntes, totales.getPagadas(), pagadoAntes, totales.getPagadoCentavos());
+        }
+        return aResumen(totales);
+    }
+
+    /**
+     * Elige al azar la franja donde sumar un cambio, para repartir los bloqueos
+     */
+    private int elegirFranja() {
+        return ThreadLocalRandom.current().nextInt(franjas);
+    }
+
+    private ResumenFacturas aResumen(FranjaResumenRepository.Totales totales) {
+        return new ResumenFacturas(totales.getFacturas(), totales.getFacturadoCentavos(),
+            totales.getPagadas(), totales.getPagadoCentavos());
+    }
+}
@@ -0,0 +1,243 @@
+package com.servicios.vet.service;
+
+import com.servicios.vet.dto.Sincronizacion;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.FacturaEliminada;
+import com.servicios.vet.model.Instantes;
+import com.servicios.vet.model.Servicio;
+import com.servicios.vet.repository.FacturaEliminadaRepository;
+import com.servicios.vet.repository.FacturaRepository;
+import com.servicios.vet.repository.ServicioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entrega a los terminales de las clínicas solo lo que cambió desde su última
+ * sincronización, en lugar de todas las facturas y servicios.
+ *
+ * Cada factura y cada servicio guarda el momento de su último cambio, y cada factura
+ * eliminada deja una marca (FacturaEliminada). Los cambios se recorren ordenados por
+ * (momento, ID) con índices sobre esas columnas, así que cada consulta cuesta lo mismo
+ * sin importar cuántos registros haya; el token de sincronización (TokenSincronizacion)
+ * guarda la posición alcanzada.
+ *
+ * Una transacción registra el momento del cambio antes de confirmarse, así que un cambio
+ * puede aparecer en la base de datos con un momento algo anterior al de una consulta
+ * que ya pasó por ahí. Por eso, al terminar un recorrido, el token vuelve
+ * "vet.sincronizacion.margen" hacia atrás: la próxima sincronización vuelve a revisar
+ * ese intervalo y el terminal puede recibir algún registro repetido, pero no se pierde
+ * ninguno. El margen debe ser mayor que la transacción de escritura más larga (y que la
+ * diferencia de reloj entre instancias de la aplicación).
+ *
+ * Las marcas de facturas eliminadas se depuran después de "vet.sincronizacion.retencion";
+ * un token más viejo que eso inicia una sincronización completa.
+ */
+@Service
+public class SincronizacionService {
+
+    // Cambios que se entregan por respuesta cuando el cliente no indica una cantidad
+    public static final int TAMANO_POR_DEFECTO = 500;
+
+    // Cambios máximos por respuesta, para acotar memoria y latencia por petición
+    public static final int TAMANO_MAXIMO = 2000;
+
+    private static final Logger log = LoggerFactory.getLogger(SincronizacionService.class);
+
+    private final FacturaRepository facturaRepository;
+    private final ServicioRepository servicioRepository;
+    private final FacturaEliminadaRepository facturaEliminadaRepository;
+    private final Duration margen;
+    private final Duration retencion;
+
+    @Autowired
+    public SincronizacionService(FacturaRepository facturaRepository, ServicioRepository servicioRepository,
+                                 FacturaEliminadaRepository facturaEliminadaRepository,
+                                 @Value("${vet.sincronizacion.margen:10s}") Duration margen,
+                                 @Value("${vet.sincronizacion.retencion:30d}") Duration retencion) {
+        if (margen.isNegative() || retencion.compareTo(margen) <= 0) {
+            throw new IllegalArgumentException("La retención de la sincronización debe ser mayor que su margen");
+        }
+        this.facturaRepository = facturaRepository;
+        this.servicioRepository = servicioRepository;
+        this.facturaEliminadaRepository = facturaEliminadaRepository;
+        this.margen = margen;
+        this.retencion = retencion;
+    }
+
+    /**
+     * Obtiene las facturas creadas, pagadas o eliminadas desde la sincronización anterior.
+     *
+     * @param token Token de la sincronización anterior, o vacío para recibir todas las facturas
+     * @param tamano Cantidad máxima de cambios, o null para usar el valor por defecto
+     * @return Las facturas cambiadas (con sus líneas), los IDs de las eliminadas y el nuevo token
+     * @throws IllegalArgumentException Si el token o el tamaño son inválidos
+     */
+    @Transactional(readOnly = true)
+    public Sincronizacion<Factura> sincronizarFacturas(String token, Integer tamano) {
+        int limite = normalizarTamano(tamano);
+        Instant ahora = Instantes.ahora();
+        TokenSincronizacion posicion = leerToken(token, ahora);
+
+        // Pedimos un registro extra de cada lista para saber si quedan más
+        List<Factura> cambiadas = facturaRepository.buscarCambiadas(
+            posicion.getMomento(), posicion.getId(), Limit.of(limite + 1));
+        // Una sincronización completa reemplaza todo: no necesita las eliminaciones
+        List<FacturaEliminada> eliminadas = posicion.isCompleta()
+            ? Collections.emptyList()
+            : facturaEliminadaRepository.buscarPosteriores(posicion.getMomento(), posicion.getId(), Limit.of(limite + 1));
+
+        // Intercalamos ambas listas por (momento, ID) hasta completar el tamaño pedido
+        List<Factura> cambios = new ArrayList<>();
+        List<String> eliminados = new ArrayList<>();
+        TokenSincronizacion ultima = posicion;
+        int i = 0;
+        int j = 0;
+        while (cambios.size() + eliminados.size() < limite && (i < cambiadas.size() || j < eliminadas.size())) {
+            if (j == eliminadas.size() || (i < cambiadas.size() && anterior(
+                    cambiadas.get(i).getActualizada(), cambiadas.get(i).getId(),
+                    eliminadas.get(j).getEliminada(), eliminadas.get(j).getId()))) {
+                Factura factura = cambiadas.get(i++);
+                cambios.add(factura);
+                ultima = ultima.despuesDe(factura.getActualizada(), factura.getId());
+            } else {
+                FacturaEliminada eliminada = eliminadas.get(j++);
+                eliminados.add(eliminada.getId());
+                ultima = ultima.despuesDe(eliminada.getEliminada(), eliminada.getId());
+            }
+        }
+
+        // Inicializamos las líneas: las que están en la caché de segundo nivel se toman
+        // de ahí y las demás se leen en lotes (ver Factura)
+        for (Factura factura : cambios) {
+            factura.getLineas().size();
+        }
+
+        boolean hayMas = i < cambiadas.size() || j < eliminadas.size();
+        return new Sincronizacion<>(cambios, eliminados, siguienteToken(posicion, ultima, hayMas, ahora).codificar(),
+            hayMas, posicion.isCompleta());
+    }
+
+    /**
+     * Obtiene los servicios registrados, modificados o importados desde la sincronización
+     * anterior. Los servicios no se eliminan, así que no hay eliminaciones que informar.
+     *
+     * @param token Token de la sincronización anterior, o vacío para recibir todos los servicios
+     * @param tamano Cantidad máxima de cambios, o null para usar el valor por defecto
+     * @return Los servicios cambiados y el nuevo token
+     * @throws IllegalArgumentException Si el token o el tamaño son inválidos
+     */
+    @Transactional(readOnly = true)
+    public Sincronizacion<Servicio> sincronizarServicios(String token, Integer tamano) {
+        int limite = normalizarTamano(tamano);
+        Instant ahora = Instantes.ahora();
+        TokenSincronizacion posicion = leerToken(token, ahora);
+
+        List<Servicio> cambiados = servicioRepository.buscarCambiados(
+            posicion.getMomento(), posicion.getId(), Limit.of(limite + 1));
+        boolean hayMas = cambiados.size() > limite;
+        List<Servicio> cambios = new ArrayList<>(hayMas ? cambiados.subList(0, limite) : cambiados);
+
+        TokenSincronizacion ultima = cambios.isEmpty()
+            ? posicion
+            : posicion.despuesDe(cambios.get(cambios.size() - 1).getActualizado(), cambios.get(cambios.size() - 1).getId());
+        return new Sincronizacion<>(cambios, Collections.emptyList(),
+            siguienteToken(posicion, ultima, hayMas, ahora).codificar(), hayMas, posicion.isCompleta());
+    }
+
+    /**
+     * Deja la marca de las facturas eliminadas. Debe llamarse dentro de la transacción que
+     * las elimina; las marcas se insertan en lotes JDBC.
+     *
+     * @param ids IDs de las facturas que se eliminan
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarEliminaciones(Collection<String> ids) {
+        Instant ahora = Instantes.ahora();
+        List<FacturaEliminada> marcas = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            marcas.add(new FacturaEliminada(id, ahora));
+        }
+        facturaEliminadaRepository.saveAll(marcas);
+    }
+
+    /**
+     * Borra las marcas de facturas eliminadas más viejas que la retención.
+     * Se ejecuta según "vet.sincronizacion.depuracion" (por defecto, todos los días a las 3:30).
+     *
+     * @return Cantidad de marcas borradas
+     */
+    @Scheduled(cron = "${vet.sincronizacion.depuracion:0 30 3 * * *}")
+    @Transactional
+    public int depurarEliminaciones() {
+        int borradas = facturaEliminadaRepository.depurar(Instantes.ahora().minus(retencion));
+        if (borradas > 0) {
+            log.info("Marcas de facturas eliminadas depuradas: {}", borradas);
+        }
+        return borradas;
+    }
+
+    /**
+     * Interpreta el token recibido. Sin token, o con uno anterior a la retención (cuyas
+     * eliminaciones ya pueden estar depuradas), empieza una sincronización completa.
+     */
+    private TokenSincronizacion leerToken(String token, Instant ahora) {
+        if (token == null || token.isEmpty()) {
+            return TokenSincronizacion.completa(ahora.minus(margen));
+        }
+        TokenSincronizacion posicion = TokenSincronizacion.decodificar(token);
+        if (!posicion.isCompleta() && posicion.getMomento().isBefore(ahora.minus(retencion))) {
+            return TokenSincronizacion.completa(ahora.minus(margen));
+        }
+        return posicion;
+    }
+
+    /**
+     * Calcula el token de la próxima sincronización.
+     *
+     * Si quedan cambios, continúa después del último entregado. Si no, la próxima pide
+     * los cambios desde "margen" antes de ahora (o, al terminar una sincronización
+     * completa, desde que empezó), para no perder transacciones que se confirmaron tarde.
+     */
+    private TokenSincronizacion siguienteToken(TokenSincronizacion posicion, TokenSincronizacion ultima,
+                                               boolean hayMas, Instant ahora) {
+        if (hayMas) {
+            return ultima;
+        }
+        return TokenSincronizacion.desde(posicion.isCompleta() ? posicion.getInicio() : ahora.minus(margen));
+    }
+
+    /**
+     * Indica si la posición (momento1, id1) va antes que (momento2, id2)
+     */
+    private static boolean anterior(Instant momento1, String id1, Instant momento2, String id2) {
+        int comparacion = momento1.compareTo(momento2);
+        return comparacion < 0 || (comparacion == 0 && id1.compareTo(id2) < 0);
+    }
+
+    /**
+     * Valida el tamaño pedido y lo ajusta al máximo permitido
+     */
+    private int normalizarTamano(Integer tamano) {
+        if (tamano == null) {
+            return TAMANO_POR_DEFECTO;
+        }
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de la sincronización debe ser mayor que cero");
+        }
+        return Math.min(tamano, TAMANO_MAXIMO);
+    }
+}
\ No newline at end of file
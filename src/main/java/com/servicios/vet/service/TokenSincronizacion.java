@@ -0,0 +1,138 @@
+package com.servicios.vet.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+import com.servicios.vet.model.Identificadores;
+
+/**
+ * Representa hasta dónde llegó un terminal al sincronizar facturas o servicios.
+ * 
+ * Los cambios se recorren ordenados por el momento del cambio y, a igualdad de
+ * momento, por ID. El token guarda la posición del último cambio entregado, así que la
+ * próxima consulta continúa desde ahí usando el índice, igual que CursorFactura.
+ * 
+ * Un token "completo" continúa una sincronización completa (el terminal no tenía datos,
+ * o su token era tan viejo que ya se depuraron las marcas de facturas eliminadas). Ese
+ * token recuerda además cuándo empezó la sincronización completa, para que al terminar
+ * se informen las eliminaciones ocurridas mientras el terminal recorría las páginas.
+ * 
+ * Para el cliente el token es un texto opaco (Base64 apto para URLs) que solo debe
+ * devolver tal cual lo recibió.
+ */
+public final class TokenSincronizacion {
+
+    // ID menor que cualquier otro: una posición con este ID incluye todo lo ocurrido en su momento
+    static final String ID_MINIMO = "00000000-0000-0000-0000-000000000000";
+
+    private static final String PREFIJO_CAMBIOS = "d";
+    private static final String PREFIJO_COMPLETA = "c";
+    private static final String SEPARADOR = "|";
+
+    private final boolean completa;
+    private final Instant momento;
+    private final String id;
+    private final Instant inicio;
+
+    private TokenSincronizacion(boolean completa, Instant momento, String id, Instant inicio) {
+        this.completa = completa;
+        this.momento = momento;
+        this.id = id;
+        this.inicio = inicio;
+    }
+
+    /**
+     * Crea el token que empieza una sincronización completa
+     * 
+     * @param inicio Desde cuándo se deben informar los cambios al terminar de recorrerla
+     */
+    public static TokenSincronizacion completa(Instant inicio) {
+        return new TokenSincronizacion(true, Instant.EPOCH, ID_MINIMO, inicio);
+    }
+
+    /**
+     * Crea el token que pide los cambios ocurridos desde un momento (incluido)
+     */
+    public static TokenSincronizacion desde(Instant momento) {
+        return new TokenSincronizacion(false, momento, ID_MINIMO, null);
+    }
+
+    /**
+     * Crea el token que continúa el mismo recorrido después del cambio indicado
+     */
+    public TokenSincronizacion despuesDe(Instant momento, String id) {
+        return new TokenSincronizacion(completa, momento, id, inicio);
+    }
+
+    /**
+     * Convierte el texto recibido del cliente nuevamente en un token.
+     * 
+     * @param token El token tal como fue entregado al cliente
+     * @return El token decodificado
+     * @throws IllegalArgumentException Si el texto no es un token válido
+     */
+    public static TokenSincronizacion decodificar(String token) {
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                .split("\\" + SEPARADOR, -1);
+            if (partes.length == 3 && partes[0].equals(PREFIJO_CAMBIOS) && Identificadores.esValido(partes[2])) {
+                return new TokenSincronizacion(false, leerMomento(partes[1]), partes[2], null);
+            }
+            if (partes.length == 4 && partes[0].equals(PREFIJO_COMPLETA) && Identificadores.esValido(partes[2])) {
+                return new TokenSincronizacion(true, leerMomento(partes[1]), partes[2], leerMomento(partes[3]));
+            }
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // Base64 o número inválido: se informa abajo con el mismo mensaje
+        }
+        throw new IllegalArgumentException("Token de sincronización inválido: " + token);
+    }
+
+    /**
+     * Convierte el token en el texto opaco que se entrega al cliente
+     */
+    public String codificar() {
+        String contenido = completa
+            ? PREFIJO_COMPLETA + SEPARADOR + escribirMomento(momento) + SEPARADOR + id + SEPARADOR + escribirMomento(inicio)
+            : PREFIJO_CAMBIOS + SEPARADOR + escribirMomento(momento) + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Los momentos viajan como microsegundos desde 1970, la precisión con que se guardan
+    private static String escribirMomento(Instant momento) {
+        return Long.toString(ChronoUnit.MICROS.between(Instant.EPOCH, momento));
+    }
+
+    private static Instant leerMomento(String texto) {
+        return Instant.EPOCH.plus(Long.parseLong(texto), ChronoUnit.MICROS);
+    }
+
+    /**
+     * Indica si el token continúa una sincronización completa
+     */
+    public boolean isCompleta() {
+        return completa;
+    }
+
+    /**
+     * Obtiene el momento del último cambio entregado
+     */
+    public Instant getMomento() {
+        return momento;
+    }
+
+    /**
+     * Obtiene el ID del último cambio entregado en ese momento
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Obtiene cuándo empezó la sincronización completa (null si no es completa)
+     */
+    public Instant getInicio() {
+        return inicio;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+-- Convierte las claves de SERVICIOS, FACTURAS y FACTURA_SERVICIOS de texto (VARCHAR2(36))
+-- a RAW(16). No se ejecuta automáticamente: debe correrse una vez, con la aplicación
+-- detenida, antes de desplegar la versión que guarda los IDs como 16 bytes.
+--
+-- Los IDs existentes (UUID aleatorios) se conservan: solo cambia cómo se guardan.
+-- Requisito: todos los IDs deben tener formato UUID; verificar antes con
+--   SELECT SERVICIO_ID FROM SERVICIOS WHERE NOT REGEXP_LIKE(SERVICIO_ID,
+--     '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$');
+
+-- 1. Tablas nuevas con las claves binarias
+CREATE TABLE SERVICIOS_NUEVA (
+    SERVICIO_ID RAW(16) NOT NULL,
+    NOMBRE VARCHAR2(255 CHAR) NOT NULL,
+    COSTO BINARY_DOUBLE NOT NULL,
+    CONSTRAINT PK_SERVICIOS PRIMARY KEY (SERVICIO_ID)
+);
+
+CREATE TABLE FACTURAS_NUEVA (
+    FACTURA_ID RAW(16) NOT NULL,
+    PAGADA NUMBER(1) NOT NULL,
+    TOTAL BINARY_DOUBLE NOT NULL,
+    CONSTRAINT PK_FACTURAS PRIMARY KEY (FACTURA_ID)
+);
+
+CREATE TABLE FACTURA_SERVICIOS_NUEVA (
+    FACTURA_ID RAW(16) NOT NULL,
+    SERVICIO_ID RAW(16) NOT NULL
+);
+
+-- 2. Copia de los datos, convirtiendo el texto a bytes
+INSERT /*+ APPEND */ INTO SERVICIOS_NUEVA (SERVICIO_ID, NOMBRE, COSTO)
+    SELECT HEXTORAW(REPLACE(SERVICIO_ID, '-')), NOMBRE, COSTO FROM SERVICIOS;
+
+INSERT /*+ APPEND */ INTO FACTURAS_NUEVA (FACTURA_ID, PAGADA, TOTAL)
+    SELECT HEXTORAW(REPLACE(FACTURA_ID, '-')), PAGADA, TOTAL FROM FACTURAS;
+
+INSERT /*+ APPEND */ INTO FACTURA_SERVICIOS_NUEVA (FACTURA_ID, SERVICIO_ID)
+    SELECT HEXTORAW(REPLACE(FACTURA_ID, '-')), HEXTORAW(REPLACE(SERVICIO_ID, '-')) FROM FACTURA_SERVICIOS;
+
+COMMIT;
+
+-- 3. Reemplazo de las tablas anteriores
+DROP TABLE FACTURA_SERVICIOS PURGE;
+DROP TABLE FACTURAS PURGE;
+DROP TABLE SERVICIOS PURGE;
+
+ALTER TABLE SERVICIOS_NUEVA RENAME TO SERVICIOS;
+ALTER TABLE FACTURAS_NUEVA RENAME TO FACTURAS;
+ALTER TABLE FACTURA_SERVICIOS_NUEVA RENAME TO FACTURA_SERVICIOS;
+
+-- 4. Claves foráneas e índices
+ALTER TABLE FACTURA_SERVICIOS ADD CONSTRAINT FK_FACTURA_SERVICIOS_FACTURA
+    FOREIGN KEY (FACTURA_ID) REFERENCES FACTURAS (FACTURA_ID);
+ALTER TABLE FACTURA_SERVICIOS ADD CONSTRAINT FK_FACTURA_SERVICIOS_SERVICIO
+    FOREIGN KEY (SERVICIO_ID) REFERENCES SERVICIOS (SERVICIO_ID);
+
+CREATE INDEX IDX_FACTURAS_PAGADA_ID ON FACTURAS (PAGADA, FACTURA_ID);
+CREATE INDEX IDX_FACTURAS_TOTAL_ID ON FACTURAS (TOTAL, FACTURA_ID);
@@ -0,0 +1,18 @@
+-- Pasa los costos y totales de BINARY_DOUBLE (con decimales) a centavos enteros.
+-- No se ejecuta automáticamente: debe correrse una vez, con la aplicación detenida,
+-- antes de desplegar la versión que guarda los montos en centavos.
+
+ALTER TABLE SERVICIOS ADD (COSTO_CENTAVOS NUMBER(19));
+UPDATE SERVICIOS SET COSTO_CENTAVOS = ROUND(COSTO * 100);
+ALTER TABLE SERVICIOS MODIFY (COSTO_CENTAVOS NOT NULL);
+ALTER TABLE SERVICIOS DROP COLUMN COSTO;
+
+ALTER TABLE FACTURAS ADD (TOTAL_CENTAVOS NUMBER(19));
+UPDATE FACTURAS SET TOTAL_CENTAVOS = ROUND(TOTAL * 100);
+ALTER TABLE FACTURAS MODIFY (TOTAL_CENTAVOS NOT NULL);
+
+DROP INDEX IDX_FACTURAS_TOTAL_ID;
+ALTER TABLE FACTURAS DROP COLUMN TOTAL;
+CREATE INDEX IDX_FACTURAS_TOTAL_ID ON FACTURAS (TOTAL_CENTAVOS, FACTURA_ID);
+
+COMMIT;
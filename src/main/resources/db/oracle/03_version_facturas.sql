@@ -0,0 +1,5 @@
+-- Agrega la columna de versión (control de concurrencia optimista) a FACTURAS.
+-- No se ejecuta automáticamente: debe correrse una vez antes de desplegar la versión
+-- que paga las facturas con un UPDATE condicionado.
+
+ALTER TABLE FACTURAS ADD (VERSION NUMBER(19) DEFAULT 0 NOT NULL);
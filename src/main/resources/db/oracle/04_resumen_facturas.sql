@@ -0,0 +1,13 @@
+-- Crea la tabla de contadores del resumen de facturación (GET /api/factura/resumen).
+-- No se ejecuta automáticamente: debe correrse una vez antes de desplegar la versión
+-- que mantiene el resumen. Las franjas y sus valores los crea la aplicación al iniciar,
+-- reconciliando desde la tabla FACTURAS.
+
+CREATE TABLE RESUMEN_FACTURAS (
+    FRANJA             NUMBER(10) NOT NULL,
+    FACTURAS           NUMBER(19) DEFAULT 0 NOT NULL,
+    FACTURADO_CENTAVOS NUMBER(19) DEFAULT 0 NOT NULL,
+    PAGADAS            NUMBER(19) DEFAULT 0 NOT NULL,
+    PAGADO_CENTAVOS    NUMBER(19) DEFAULT 0 NOT NULL,
+    CONSTRAINT PK_RESUMEN_FACTURAS PRIMARY KEY (FRANJA)
+);
@@ -0,0 +1,8 @@
+-- Agrega a las franjas del resumen la cuenta de cambios en las facturas, que se usa
+-- como versión del listado de facturas (ETag de GET /api/factura).
+-- No se ejecuta automáticamente: debe correrse una vez antes de desplegar la versión
+-- que responde 304 Not Modified.
+
+ALTER TABLE RESUMEN_FACTURAS ADD (
+    CAMBIOS NUMBER(19) DEFAULT 0 NOT NULL
+);
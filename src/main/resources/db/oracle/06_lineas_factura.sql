@@ -0,0 +1,50 @@
+-- Reemplaza la tabla intermedia FACTURA_SERVICIOS por FACTURA_LINEAS: cada línea guarda
+-- una copia del nombre y del precio del servicio, y los servicios repetidos en una
+-- factura se agrupan en una sola línea con su cantidad.
+-- No se ejecuta automáticamente: debe correrse una vez antes de desplegar la versión
+-- que guarda líneas.
+--
+-- La tabla es "organizada por índice": las filas se guardan dentro del índice de la
+-- clave primaria (FACTURA_ID, LINEA), así que todas las líneas de una factura quedan
+-- juntas y se leen con un solo recorrido del índice, sin visitar otra tabla.
+--
+-- Las facturas existentes toman el nombre y el precio que sus servicios tienen HOY en
+-- el catálogo (no hay registro del precio al momento de facturar). Si un servicio ya no
+-- está en el catálogo, su línea se conserva con el nombre "(servicio eliminado)" y
+-- precio 0, para no perder ninguna fila. TOTAL_CENTAVOS no se
+-- modifica; las facturas cuyo total ya no coincide con sus líneas pueden listarse con:
+--   SELECT F.FACTURA_ID FROM FACTURAS F JOIN FACTURA_LINEAS L ON L.FACTURA_ID = F.FACTURA_ID
+--   GROUP BY F.FACTURA_ID, F.TOTAL_CENTAVOS
+--   HAVING F.TOTAL_CENTAVOS <> SUM(L.PRECIO_UNITARIO_CENTAVOS * L.CANTIDAD);
+--
+-- FACTURA_SERVICIOS no se borra aquí: queda como respaldo hasta verificar el despliegue,
+-- y se elimina después con 08_eliminar_factura_servicios.sql.
+
+-- 1. Nueva tabla de líneas
+CREATE TABLE FACTURA_LINEAS (
+    FACTURA_ID               RAW(16) NOT NULL,
+    LINEA                    NUMBER(10) NOT NULL,
+    SERVICIO_ID              RAW(16) NOT NULL,
+    NOMBRE                   VARCHAR2(255 CHAR) NOT NULL,
+    PRECIO_UNITARIO_CENTAVOS NUMBER(19) NOT NULL,
+    CANTIDAD                 NUMBER(10) NOT NULL,
+    CONSTRAINT PK_FACTURA_LINEAS PRIMARY KEY (FACTURA_ID, LINEA),
+    CONSTRAINT FK_FACTURA_LINEAS_FACTURA FOREIGN KEY (FACTURA_ID) REFERENCES FACTURAS (FACTURA_ID)
+) ORGANIZATION INDEX;
+
+-- 2. Una línea por cada servicio distinto de cada factura, con su cantidad
+INSERT /*+ APPEND */ INTO FACTURA_LINEAS
+    (FACTURA_ID, LINEA, SERVICIO_ID, NOMBRE, PRECIO_UNITARIO_CENTAVOS, CANTIDAD)
+    SELECT FS.FACTURA_ID,
+           ROW_NUMBER() OVER (PARTITION BY FS.FACTURA_ID ORDER BY FS.SERVICIO_ID) - 1,
+           FS.SERVICIO_ID, NVL(S.NOMBRE, '(servicio eliminado)'), NVL(S.COSTO_CENTAVOS, 0), COUNT(*)
+    FROM FACTURA_SERVICIOS FS
+    LEFT JOIN SERVICIOS S ON S.SERVICIO_ID = FS.SERVICIO_ID
+    GROUP BY FS.FACTURA_ID, FS.SERVICIO_ID, S.NOMBRE, S.COSTO_CENTAVOS;
+
+COMMIT;
+
+-- 3. FACTURA_SERVICIOS queda solo como respaldo: sin sus claves foráneas, para que la
+--    nueva versión pueda eliminar facturas (que ya no borra filas de esta tabla)
+ALTER TABLE FACTURA_SERVICIOS DROP CONSTRAINT FK_FACTURA_SERVICIOS_FACTURA;
+ALTER TABLE FACTURA_SERVICIOS DROP CONSTRAINT FK_FACTURA_SERVICIOS_SERVICIO;
@@ -0,0 +1,29 @@
+-- Agrega el momento de creación y del último cambio a FACTURAS y SERVICIOS, y la tabla
+-- FACTURAS_ELIMINADAS, que usa la sincronización de terminales (?since=...).
+-- No se ejecuta automáticamente: debe correrse una vez antes de desplegar la versión
+-- que sincroniza por cambios.
+--
+-- Las filas existentes toman el momento en que se corre el script; la primera
+-- sincronización de cada terminal es completa de todos modos.
+
+-- 1. Momentos de creación y de cambio
+ALTER TABLE FACTURAS ADD (
+    CREADA      TIMESTAMP(6) WITH TIME ZONE DEFAULT SYSTIMESTAMP NOT NULL,
+    ACTUALIZADA TIMESTAMP(6) WITH TIME ZONE DEFAULT SYSTIMESTAMP NOT NULL
+);
+ALTER TABLE SERVICIOS ADD (
+    CREADO      TIMESTAMP(6) WITH TIME ZONE DEFAULT SYSTIMESTAMP NOT NULL,
+    ACTUALIZADO TIMESTAMP(6) WITH TIME ZONE DEFAULT SYSTIMESTAMP NOT NULL
+);
+
+-- 2. Índices para recorrer los cambios en orden (momento, ID)
+CREATE INDEX IDX_FACTURAS_ACTUALIZADA ON FACTURAS (ACTUALIZADA, FACTURA_ID);
+CREATE INDEX IDX_SERVICIOS_ACTUALIZADO ON SERVICIOS (ACTUALIZADO, SERVICIO_ID);
+
+-- 3. Marcas de facturas eliminadas (se depuran después de vet.sincronizacion.retencion)
+CREATE TABLE FACTURAS_ELIMINADAS (
+    FACTURA_ID RAW(16) NOT NULL,
+    ELIMINADA  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT PK_FACTURAS_ELIMINADAS PRIMARY KEY (FACTURA_ID)
+);
+CREATE INDEX IDX_FACTURAS_ELIMINADAS_FECHA ON FACTURAS_ELIMINADAS (ELIMINADA, FACTURA_ID);
\ No newline at end of file
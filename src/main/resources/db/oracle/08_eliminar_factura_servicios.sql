@@ -0,0 +1,33 @@
+-- Elimina la tabla intermedia FACTURA_SERVICIOS, que 06_lineas_factura.sql dejó como
+-- respaldo al copiar sus filas a FACTURA_LINEAS.
+-- No se ejecuta automáticamente: debe correrse una sola vez, después de verificar en
+-- producción la versión que guarda líneas. El borrado no se puede deshacer (PURGE).
+--
+-- Antes de borrar se comprueba que cada fila de FACTURA_SERVICIOS esté contada en
+-- FACTURA_LINEAS (la suma de las cantidades por factura debe coincidir). Las facturas
+-- eliminadas desde que se corrió 06_lineas_factura.sql ya no tienen líneas y no se
+-- comparan. Si alguna factura no coincide, el script se detiene sin borrar nada.
+
+-- 1. Verificación
+DECLARE
+    DIFERENCIAS NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO DIFERENCIAS
+    FROM (
+        SELECT FACTURA_ID, COUNT(*) AS CANTIDAD FROM FACTURA_SERVICIOS GROUP BY FACTURA_ID
+    ) FS
+    LEFT JOIN (
+        SELECT FACTURA_ID, SUM(CANTIDAD) AS CANTIDAD FROM FACTURA_LINEAS GROUP BY FACTURA_ID
+    ) L ON L.FACTURA_ID = FS.FACTURA_ID
+    WHERE EXISTS (SELECT 1 FROM FACTURAS F WHERE F.FACTURA_ID = FS.FACTURA_ID)
+      AND (L.FACTURA_ID IS NULL OR L.CANTIDAD <> FS.CANTIDAD);
+
+    IF DIFERENCIAS > 0 THEN
+        RAISE_APPLICATION_ERROR(-20001, DIFERENCIAS
+            || ' facturas de FACTURA_SERVICIOS no coinciden con FACTURA_LINEAS; no se borra la tabla');
+    END IF;
+END;
+/
+
+-- 2. La tabla intermedia ya no se usa
+DROP TABLE FACTURA_SERVICIOS PURGE;
\ No newline at end of file
@@ -4,6 +4,7 @@
 const API_URL = '/api';
 const SERVICIO_URL = `${API_URL}/servicio`;
 const FACTURA_URL = `${API_URL}/factura`;
+const EVENTOS_URL = `${API_URL}/eventos`;
 
 // Referencias a elementos HTML del DOM para manipularlos fácilmente
 // Esto nos permite acceder a los elementos sin usar document.getElementById cada vez
@@ -19,10 +20,14 @@ const facturaIdConsulta = document.getElementById('facturaIdConsulta');
 const btnConsultarFactura = document.getElementById('btnConsultarFactura');
 const detalleFacturaBody = document.getElementById('detalleFacturaBody');
 const detalleFacturaModal = new bootstrap.Modal(document.getElementById('detalleFacturaModal'));
+const btnFacturasAnterior = document.getElementById('btnFacturasAnterior');
+const btnFacturasSiguiente = document.getElementById('btnFacturasSiguiente');
 
 // Variables globales para almacenar datos
 let servicios = []; // Array con todos los servicios disponibles
-let facturas = [];  // Array con todas las facturas generadas
+let facturas = [];  // Array con las facturas de la página actual
+let paginaFacturasUrl = FACTURA_URL; // URL de la página de facturas que se está mostrando
+let enlacesFacturas = {};            // Enlaces de navegación (next / prev) de la página actual
 
 // ===== FUNCIONES PARA GESTIONAR SERVICIOS =====
 
@@ -152,12 +157,9 @@ async function agregarServicio(e) {
         }
         
         // Obtener el servicio creado y agregarlo a la lista
+        // (si el evento del servidor llegó antes, se reemplaza en vez de repetirse)
         const nuevoServicio = await response.json();
-        servicios.push(nuevoServicio);
-        
-        // Actualizar la interfaz
-        renderizarServicios();
-        renderizarServiciosEnFactura();
+        agregarServicios([nuevoServicio]);
         
         // Limpiar el formulario
         nombreServicioInput.value = '';
@@ -171,6 +173,28 @@ async function agregarServicio(e) {
     }
 }
 
+/**
+ * Agrega servicios a la lista local y actualiza la interfaz. Si un servicio ya está
+ * (por ejemplo, se volvió a registrar con otro nombre o precio), se reemplaza.
+ * 
+ * @param {Array} nuevos - Servicios a agregar (con id, nombre y costo)
+ */
+function agregarServicios(nuevos) {
+    if (nuevos.length === 0) {
+        return;
+    }
+    nuevos.forEach(nuevo => {
+        const posicion = servicios.findIndex(s => s.id === nuevo.id);
+        if (posicion >= 0) {
+            servicios[posicion] = nuevo;
+        } else {
+            servicios.push(nuevo);
+        }
+    });
+    renderizarServicios();
+    renderizarServiciosEnFactura();
+}
+
 /**
  * Muestra los detalles de un servicio específico en una ventana emergente.
  * 
@@ -209,13 +233,16 @@ async function verDetalleServicio(id) {
 // ===== FUNCIONES PARA GESTIONAR FACTURAS =====
 
 /**
- * Obtiene todas las facturas desde el servidor y las almacena.
- * Esta función se ejecuta al cargar la página para mostrar las facturas existentes.
+ * Obtiene una página de facturas desde el servidor y la almacena.
+ * El servidor devuelve la página como un arreglo de facturas, y los enlaces a las
+ * páginas vecinas ("next" / "prev") en la cabecera Link de la respuesta.
+ * 
+ * @param {string} url - URL de la página a cargar (por defecto, la página actual)
  */
-async function cargarFacturas() {
+async function cargarFacturas(url = paginaFacturasUrl) {
     try {
         // Hacer petición GET al endpoint de facturas
-        const response = await fetch(FACTURA_URL);
+        const response = await fetch(url);
         
         if (!response.ok) {
             throw new Error('Error al cargar facturas');
@@ -223,6 +250,8 @@ async function cargarFacturas() {
         
         // Guardar las facturas obtenidas y actualizar la interfaz
         facturas = await response.json();
+        enlacesFacturas = leerEnlaces(response.headers.get('Link'));
+        paginaFacturasUrl = url;
         renderizarFacturas();
     } catch (error) {
         console.error('Error:', error);
@@ -230,6 +259,27 @@ async function cargarFacturas() {
     }
 }
 
+/**
+ * Interpreta una cabecera Link (RFC 8288), por ejemplo
+ * '<http://host/api/factura?cursor=abc>;rel="next"', como un objeto indexado por relación.
+ * 
+ * @param {string|null} cabecera - Valor de la cabecera Link, o null si no vino
+ * @returns {Object} Los enlaces, de la forma { next: { href: '...' }, ... }
+ */
+function leerEnlaces(cabecera) {
+    const enlaces = {};
+    if (!cabecera) {
+        return enlaces;
+    }
+    for (const parte of cabecera.split(',')) {
+        const coincidencia = parte.match(/<([^>]*)>\s*;\s*rel="?([^";]+)"?/);
+        if (coincidencia) {
+            enlaces[coincidencia[2]] = { href: coincidencia[1] };
+        }
+    }
+    return enlaces;
+}
+
 /**
  * Actualiza la tabla de facturas en la interfaz con los datos actuales.
  * Muestra cada factura con su ID, total, estado y botones de acción.
@@ -238,6 +288,10 @@ function renderizarFacturas() {
     // Limpiar la tabla antes de volver a llenarla
     tablaFacturas.innerHTML = '';
     
+    // Habilitar la navegación solo si existen páginas en esa dirección
+    btnFacturasAnterior.disabled = !enlacesFacturas.prev;
+    btnFacturasSiguiente.disabled = !enlacesFacturas.next;
+    
     // Si no hay facturas, mostrar un mensaje
     if (facturas.length === 0) {
         const row = document.createElement('tr');
@@ -251,7 +305,7 @@ function renderizarFacturas() {
         const row = document.createElement('tr');
         row.innerHTML = `
             <td>${factura.id}</td>
-            <td>$${calcularTotalFactura(factura.servicios).toFixed(2)}</td>
+            <td>$${factura.total.toFixed(2)}</td>
             <td>${factura.pagada ? 'Pagada' : 'Pendiente'}</td>
             <td>
                 <div class="btn-group" role="group">
@@ -317,11 +371,9 @@ async function crearFactura(e) {
         }
         
         // Obtener la factura creada y agregarla a la lista
+        // (si el evento del servidor llegó antes, ya está y no se repite)
         const nuevaFactura = await response.json();
-        facturas.push(nuevaFactura);
-        
-        // Actualizar la interfaz
-        renderizarFacturas();
+        agregarFacturas([nuevaFactura]);
         
         // Desmarcar todos los checkboxes
         checkboxes.forEach(cb => cb.checked = false);
@@ -376,11 +428,13 @@ async function verDetalleFactura(id) {
         // Obtener los datos de la factura
         const factura = await response.json();
         
-        // Crear el HTML para la tabla de servicios incluidos
-        const serviciosHTML = factura.servicios.map(servicio => `
+        // Crear el HTML para la tabla de servicios incluidos (una fila por línea de la factura)
+        const serviciosHTML = factura.lineas.map(linea => `
             <tr>
-                <td>${servicio.nombre}</td>
-                <td class="text-end">$${servicio.costo.toFixed(2)}</td>
+                <td>${linea.nombre}</td>
+                <td class="text-end">${linea.cantidad}</td>
+                <td class="text-end">$${linea.precioUnitario.toFixed(2)}</td>
+                <td class="text-end">$${linea.subtotal.toFixed(2)}</td>
             </tr>
         `).join('');
         
@@ -402,7 +456,9 @@ async function verDetalleFactura(id) {
                     <thead>
                         <tr>
                             <th>Servicio</th>
-                            <th class="text-end">Costo</th>
+                            <th class="text-end">Cantidad</th>
+                            <th class="text-end">Precio</th>
+                            <th class="text-end">Subtotal</th>
                         </tr>
                     </thead>
                     <tbody>
@@ -410,7 +466,7 @@ async function verDetalleFactura(id) {
                     </tbody>
                     <tfoot>
                         <tr>
-                            <th>Total</th>
+                            <th colspan="3">Total</th>
                             <th class="text-end">$${factura.total.toFixed(2)}</th>
                         </tr>
                     </tfoot>
@@ -451,17 +507,9 @@ async function pagarFactura(id) {
             throw new Error(errorData || 'Error al pagar la factura');
         }
         
-        // Obtener la factura actualizada
-        const facturaActualizada = await response.json();
-        
-        // Actualizar la factura en la lista local
-        const index = facturas.findIndex(f => f.id === id);
-        if (index !== -1) {
-            facturas[index] = facturaActualizada;
-        }
-        
-        // Actualizar la interfaz
-        renderizarFacturas();
+        // La respuesta solo trae el ID y el nuevo estado; actualizamos la factura local
+        await response.json();
+        marcarFacturasPagadas([id]);
         
         // Si el modal está abierto, actualizar su contenido
         if (detalleFacturaModal._isShown) {
@@ -514,8 +562,8 @@ async function eliminarFactura(id) {
         // Obtener el encabezado de mensaje personalizado
         const mensajeEliminacion = response.headers.get('X-Mensaje') || 'Factura eliminada exitosamente';
 
-        // Recargar la lista de facturas
-        await cargarFacturas();
+        // Quitar la factura de la lista local (sin volver a descargar la página)
+        quitarFacturas([id]);
 
         // Mostrar mensaje de éxito
         mostrarAlerta(mensajeEliminacion, 'success');
@@ -525,6 +573,94 @@ async function eliminarFactura(id) {
     }
 }
 
+/**
+ * Agrega facturas a la página local, sin repetir las que ya están, y actualiza la interfaz.
+ * 
+ * @param {Array} nuevas - Facturas a agregar (con id, total y pagada)
+ */
+function agregarFacturas(nuevas) {
+    const faltantes = nuevas.filter(nueva => !facturas.some(f => f.id === nueva.id));
+    if (faltantes.length === 0) {
+        return;
+    }
+    facturas.push(...faltantes);
+    renderizarFacturas();
+}
+
+/**
+ * Marca como pagadas las facturas de la página local que estén entre los IDs recibidos.
+ * 
+ * @param {Array} ids - IDs de las facturas pagadas
+ */
+function marcarFacturasPagadas(ids) {
+    let cambio = false;
+    facturas.forEach(factura => {
+        if (!factura.pagada && ids.includes(factura.id)) {
+            factura.pagada = true;
+            cambio = true;
+        }
+    });
+    if (cambio) {
+        renderizarFacturas();
+    }
+}
+
+/**
+ * Quita de la página local las facturas eliminadas.
+ * 
+ * @param {Array} ids - IDs de las facturas eliminadas
+ */
+function quitarFacturas(ids) {
+    const restantes = facturas.filter(factura => !ids.includes(factura.id));
+    if (restantes.length !== facturas.length) {
+        facturas = restantes;
+        renderizarFacturas();
+    }
+}
+
+// ===== CAMBIOS EN TIEMPO REAL =====
+
+/**
+ * Se conecta a los eventos del servidor (Server-Sent Events) para enterarse de lo que
+ * cambian las demás recepciones y actualizar los listados sin volver a descargarlos.
+ * 
+ * Cada evento trae solo lo que cambió (un arreglo JSON). Si la conexión se corta, el
+ * navegador se vuelve a conectar solo; como en el medio se pudieron perder eventos, al
+ * reconectarse se vuelven a pedir los listados (el servidor responde 304 si no cambiaron).
+ */
+function conectarEventos() {
+    const eventos = new EventSource(EVENTOS_URL);
+    let desconectado = false;
+    
+    const recargar = () => {
+        cargarServicios();
+        cargarFacturas();
+    };
+    
+    eventos.addEventListener('servicios-registrados', e => agregarServicios(JSON.parse(e.data)));
+    eventos.addEventListener('servicios-importados', () => cargarServicios());
+    eventos.addEventListener('facturas-creadas', e => {
+        // Las facturas se listan por ID y las nuevas van al final: solo se ven en la última página
+        if (!enlacesFacturas.next) {
+            agregarFacturas(JSON.parse(e.data));
+        }
+    });
+    eventos.addEventListener('facturas-pagadas', e => marcarFacturasPagadas(JSON.parse(e.data)));
+    eventos.addEventListener('facturas-eliminadas', e => quitarFacturas(JSON.parse(e.data)));
+    // El servidor descartó eventos porque no llegábamos a recibirlos a tiempo
+    eventos.addEventListener('resincronizar', recargar);
+    
+    eventos.onopen = () => {
+        if (desconectado) {
+            desconectado = false;
+            recargar();
+        }
+    };
+    eventos.onerror = () => {
+        desconectado = true;
+    };
+}
+
 // ===== FUNCIONES AUXILIARES =====
 
 /**
@@ -542,28 +678,22 @@ function mostrarAlerta(mensaje, tipo) {
     });
 }
 
-/**
- * Calcula el total de una factura sumando los costos de los servicios.
- * 
- * @param {Array} servicios - Lista de servicios en la factura
- * @returns {number} Total de la factura
- */
-function calcularTotalFactura(servicios) {
-    return servicios.reduce((total, servicio) => total + servicio.costo, 0);
-}
-
 // ===== INICIALIZACIÓN =====
 
 /**
  * Cuando el DOM está completamente cargado, inicializa la aplicación:
  * - Carga los servicios y facturas existentes
+ * - Se conecta a los eventos del servidor para recibir los cambios de otras recepciones
  * - Configura los eventos para los formularios y botones
  */
 document.addEventListener('DOMContentLoaded', () => {
     cargarServicios();
     cargarFacturas();
+    conectarEventos();
     
     servicioForm.addEventListener('submit', agregarServicio);
     facturaForm.addEventListener('submit', crearFactura);
     btnConsultarFactura.addEventListener('click', consultarFactura);
+    btnFacturasAnterior.addEventListener('click', () => cargarFacturas(enlacesFacturas.prev.href));
+    btnFacturasSiguiente.addEventListener('click', () => cargarFacturas(enlacesFacturas.next.href));
 }); 
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.servicios.vet.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del límite de conexiones simultáneas usado con hilos virtuales.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ConexionesLimitadasDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Mock
+    private Connection conexionReal;
+
+    private ConexionesLimitadasDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new ConexionesLimitadasDataSource(pool, 2, 50);
+    }
+
+    @Test
+    public void testGetConnection_DevuelveElPermisoAlCerrar() throws SQLException {
+        // Preparar
+        when(pool.getConnection()).thenReturn(conexionReal);
+
+        // Ejecutar
+        Connection conexion = dataSource.getConnection();
+        assertEquals(1, dataSource.getPermisosDisponibles());
+        conexion.close();
+        conexion.close();
+
+        // Verificar: cerrar dos veces no devuelve dos permisos
+        assertEquals(2, dataSource.getPermisosDisponibles());
+        verify(conexionReal, times(2)).close();
+    }
+
+    @Test
+    public void testClose_CierraElPool() throws Exception {
+        // Preparar: un pool que se puede cerrar, como HikariDataSource
+        DataSource cerrable = mock(DataSource.class, withSettings().extraInterfaces(AutoCloseable.class));
+        ConexionesLimitadasDataSource limitado = new ConexionesLimitadasDataSource(cerrable, 2, 50);
+
+        // Ejecutar
+        limitado.close();
+
+        // Verificar
+        verify((AutoCloseable) cerrable).close();
+    }
+
+    @Test
+    public void testGetConnection_EsperaYFallaSinPermisos() throws SQLException {
+        // Preparar
+        when(pool.getConnection()).thenReturn(conexionReal);
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        // Ejecutar y Verificar: el tercer pedido no llega al pool
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    public void testGetConnection_DevuelveElPermisoSiElPoolFalla() throws SQLException {
+        // Preparar
+        when(pool.getConnection()).thenThrow(new SQLException("Sin conexión"));
+
+        // Ejecutar y Verificar
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+        assertEquals(2, dataSource.getPermisosDisponibles());
+    }
+}
@@ -0,0 +1,120 @@
+package com.servicios.vet.config;
+
+import com.servicios.vet.model.Identificadores;
+import com.servicios.vet.model.Servicio;
+import com.servicios.vet.service.FacturaService;
+import com.servicios.vet.service.NoEncontradoException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pruebas de las métricas: resultado de cada operación del servicio y publicación
+ * en formato Prometheus junto con las métricas de Hikari, Hibernate y HTTP.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class MetricasFacturaServiceTest {
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testClasificar_SegunLaExcepcionDelServicio() {
+        assertEquals(MetricasFacturaService.RESULTADO_NO_ENCONTRADO,
+                MetricasFacturaService.clasificar(new NoEncontradoException("No existe factura con ID: x")));
+        // El tipo decide, no el texto del mensaje
+        assertEquals(MetricasFacturaService.RESULTADO_INVALIDO,
+                MetricasFacturaService.clasificar(new IllegalArgumentException("No existe factura con ID: x")));
+        assertEquals(MetricasFacturaService.RESULTADO_INVALIDO,
+                MetricasFacturaService.clasificar(new IllegalArgumentException("Debe incluir al menos un ID de factura")));
+        assertEquals(MetricasFacturaService.RESULTADO_CONFLICTO,
+                MetricasFacturaService.clasificar(new IllegalStateException("La factura ya ha sido pagada")));
+        assertEquals(MetricasFacturaService.RESULTADO_ERROR,
+                MetricasFacturaService.clasificar(new RuntimeException("Falla inesperada")));
+    }
+
+    @Test
+    public void testOperaciones_RegistranTiempoYResultado() {
+        // Preparar
+        Servicio servicio = facturaService.agregarServicio(
+                new Servicio(Identificadores.nuevo(), "Consulta", 15000.0));
+        String facturaId = facturaService.crearFactura(Collections.singletonList(servicio.getId())).getId();
+
+        // Ejecutar
+        facturaService.pagarFactura(facturaId);
+        assertThrows(IllegalStateException.class, () -> facturaService.pagarFactura(facturaId));
+        assertThrows(IllegalArgumentException.class, () -> facturaService.pagarFactura(Identificadores.nuevo()));
+
+        // Verificar
+        assertEquals(1, contar("pagarFactura", MetricasFacturaService.RESULTADO_OK));
+        assertEquals(1, contar("pagarFactura", MetricasFacturaService.RESULTADO_CONFLICTO));
+        assertEquals(1, contar("pagarFactura", MetricasFacturaService.RESULTADO_NO_ENCONTRADO));
+        assertTrue(contar("crearFactura", MetricasFacturaService.RESULTADO_OK) >= 1);
+    }
+
+    @Test
+    public void testConsultasAuxiliares_NoSeMiden() {
+        // Preparar
+        String facturaId = facturaService.crearFactura(Collections.singletonList(
+                facturaService.agregarServicio(new Servicio(Identificadores.nuevo(), "Vacuna", 20000.0)).getId()))
+                .getId();
+
+        // Ejecutar
+        facturaService.versionServicios();
+        facturaService.versionFacturas();
+        facturaService.versionFactura(facturaId);
+        facturaService.obtenerEstadisticasCatalogo();
+
+        // Verificar
+        for (String operacion : new String[] {"versionServicios", "versionFacturas", "versionFactura",
+                "obtenerEstadisticasCatalogo"}) {
+            assertEquals(0, contar(operacion, MetricasFacturaService.RESULTADO_OK), operacion);
+        }
+    }
+
+    @Test
+    public void testPrometheus_PublicaMetricasDeLaAplicacion() throws Exception {
+        // Preparar: una petición HTTP para que existan métricas del servidor
+        mockMvc.perform(get("/api/servicio")).andExpect(status().isOk());
+
+        // Ejecutar y Verificar
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("vet_factura_operaciones_seconds")))
+                .andExpect(content().string(containsString("vet_catalogo_aciertos_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                .andExpect(content().string(containsString("http_server_requests_seconds")));
+    }
+
+    private long contar(String operacion, String resultado) {
+        Timer timer = registry.find(MetricasFacturaService.METRICA)
+                .tag("operacion", operacion)
+                .tag("resultado", resultado)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,95 @@
+package com.servicios.vet.controller;
+
+import com.servicios.vet.dto.PagoFactura;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Servicio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Verifica que los enlaces armados a partir de plantillas sean idénticos a los que
+ * produce linkTo(methodOn(...)), tanto dentro como fuera de una petición HTTP.
+ */
+public class EnsambladorEnlacesTest {
+
+    private EnsambladorEnlaces enlaces = new EnsambladorEnlaces();
+
+    // Un ID con caracteres que deben codificarse en la URL
+    private final Servicio servicio = new Servicio("serv 1/á", "Consulta", 15000.0);
+    private final Factura factura = new Factura("fact 1/é", Arrays.asList(servicio));
+
+    @AfterEach
+    public void limpiarPeticion() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testEnlacesIdenticos_SinPeticion() {
+        verificarEnlacesIdenticos();
+    }
+
+    @Test
+    public void testEnlacesIdenticos_ConPeticion() {
+        // Preparar: una petición con puerto y contexto propios
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/vet/api/factura");
+        peticion.setServerName("clinica.example");
+        peticion.setServerPort(8443);
+        peticion.setScheme("https");
+        peticion.setContextPath("/vet");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(peticion));
+
+        verificarEnlacesIdenticos();
+    }
+
+    @Test
+    public void testEnlacesIdenticos_CreadoDentroDeUnaPeticion() {
+        // Preparar
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/api/factura");
+        peticion.setServerPort(8080);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(peticion));
+        enlaces = new EnsambladorEnlaces();
+
+        verificarEnlacesIdenticos();
+    }
+
+    private void verificarEnlacesIdenticos() {
+        assertEquals(describir(
+                linkTo(methodOn(FacturaController.class).obtenerServicio(servicio.getId(), null)).withSelfRel(),
+                linkTo(methodOn(FacturaController.class).listarServicios(null)).withRel("servicios")),
+            describir(enlaces.modeloServicio(servicio)));
+
+        assertEquals(describir(
+                linkTo(methodOn(FacturaController.class).obtenerFactura(factura.getId(), null)).withSelfRel(),
+                linkTo(methodOn(FacturaController.class).pagarFactura(factura.getId())).withRel("pagar"),
+                linkTo(methodOn(FacturaController.class).listarFacturas(null, null, null, null, null, null)).withRel("facturas")),
+            describir(enlaces.modelosFacturas(Arrays.asList(factura)).get(0)));
+
+        assertEquals(describir(
+                linkTo(methodOn(FacturaController.class).obtenerFactura(factura.getId(), null)).withSelfRel(),
+                linkTo(methodOn(FacturaController.class).listarFacturas(null, null, null, null, null, null)).withRel("facturas")),
+            describir(enlaces.modeloPago(new PagoFactura(factura.getId(), true))));
+    }
+
+    private List<String> describir(EntityModel<?> modelo) {
+        return describir(modelo.getLinks().toList().toArray(new Link[0]));
+    }
+
+    private List<String> describir(Link... links) {
+        return Arrays.stream(links)
+            .map(link -> link.getRel().value() + " " + link.getHref() + " templated=" + link.isTemplated())
+            .collect(Collectors.toList());
+    }
+}
@@ -1,26 +1,50 @@
 package com.servicios.vet.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.servicios.vet.dto.FacturaRequestDTO;
+import com.servicios.vet.dto.PagoFactura;
+import com.servicios.vet.dto.ResultadoImportacionServicios;
+import com.servicios.vet.dto.ResultadoItemLote;
+import com.servicios.vet.dto.ResultadoLoteFacturas;
+import com.servicios.vet.dto.ResultadoOperacionLote;
+import com.servicios.vet.dto.ResumenFacturas;
 import com.servicios.vet.dto.ServicioDTO;
 import com.servicios.vet.model.Factura;
 import com.servicios.vet.model.Servicio;
+import com.servicios.vet.service.DifusorCambios;
 import com.servicios.vet.service.FacturaService;
+import com.servicios.vet.service.PaginaFacturas;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.hateoas.EntityModel;
-
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Links;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayInputStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +53,16 @@ public class FacturaControllerTest {
     @Mock
     private FacturaService facturaService;
 
+    @Spy
+    private EnsambladorEnlaces enlaces = new EnsambladorEnlaces();
+
+    @Spy
+    private RespuestasFacturasPagadas respuestasPagadas =
+        new RespuestasFacturasPagadas(new ObjectMapper(), DataSize.ofMegabytes(1));
+
+    @Mock
+    private DifusorCambios difusorCambios;
+
     @InjectMocks
     private FacturaController facturaController;
 
@@ -94,7 +128,7 @@ public class FacturaControllerTest {
         when(facturaService.listarServicios()).thenReturn(servicios);
 
         // Ejecutar
-        ResponseEntity<List<EntityModel<Servicio>>> respuesta = facturaController.listarServicios();
+        ResponseEntity<List<EntityModel<Servicio>>> respuesta = facturaController.listarServicios(solicitud());
 
         // Verificar
         assertEquals(HttpStatus.OK, respuesta.getStatusCode());
@@ -104,13 +138,43 @@ public class FacturaControllerTest {
         verify(facturaService).listarServicios();
     }
 
+    @Test
+    public void testListarServicios_ConEtag() {
+        // Preparar
+        when(facturaService.versionServicios()).thenReturn("s1.5");
+        when(facturaService.listarServicios()).thenReturn(Arrays.asList(servicioTest));
+
+        // Ejecutar
+        ResponseEntity<List<EntityModel<Servicio>>> respuesta = facturaController.listarServicios(solicitud());
+
+        // Verificar
+        assertEquals("W/\"s1.5\"", respuesta.getHeaders().getETag());
+        assertEquals("no-cache", respuesta.getHeaders().getCacheControl());
+    }
+
+    @Test
+    public void testListarServicios_NoModificado() {
+        // Preparar: el cliente ya tiene la versión actual
+        when(facturaService.versionServicios()).thenReturn("s1.5");
+        MockHttpServletResponse respuestaHttp = new MockHttpServletResponse();
+
+        // Ejecutar
+        ResponseEntity<List<EntityModel<Servicio>>> respuesta =
+            facturaController.listarServicios(solicitud("W/\"s1.5\"", respuestaHttp));
+
+        // Verificar: 304 sin leer el catálogo
+        assertNull(respuesta);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), respuestaHttp.getStatus());
+        verify(facturaService, never()).listarServicios();
+    }
+
     @Test
     public void testObtenerServicio_Exitoso() {
         // Preparar
         when(facturaService.obtenerServicio(servicioTest.getId())).thenReturn(servicioTest);
 
         // Ejecutar
-        ResponseEntity<EntityModel<Servicio>> respuesta = facturaController.obtenerServicio(servicioTest.getId());
+        ResponseEntity<EntityModel<Servicio>> respuesta = facturaController.obtenerServicio(servicioTest.getId(), solicitud());
 
         // Verificar
         assertEquals(HttpStatus.OK, respuesta.getStatusCode());
@@ -129,12 +193,75 @@ public class FacturaControllerTest {
             .thenThrow(new IllegalArgumentException("No existe servicio con ID: " + idNoExistente));
 
         // Ejecutar
-        ResponseEntity<EntityModel<Servicio>> respuesta = facturaController.obtenerServicio(idNoExistente);
+        ResponseEntity<EntityModel<Servicio>> respuesta = facturaController.obtenerServicio(idNoExistente, solicitud());
 
         // Verificar
         assertEquals(HttpStatus.NOT_FOUND, respuesta.getStatusCode());
     }
 
+    @Test
+    public void testObtenerEstadisticasCatalogo() {
+        // Preparar
+        when(facturaService.obtenerEstadisticasCatalogo()).thenReturn(Map.of("aciertos", 3L, "fallos", 1L));
+
+        // Ejecutar
+        ResponseEntity<Map<String, Long>> respuesta = facturaController.obtenerEstadisticasCatalogo();
+
+        // Verificar
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals(3L, respuesta.getBody().get("aciertos"));
+    }
+
+    @Test
+    public void testExportarFacturas_FormatoNoSoportado() {
+        // Ejecutar
+        ResponseEntity<?> respuesta = facturaController.exportarFacturas("xml", null);
+
+        // Verificar
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+        verifyNoInteractions(facturaService);
+    }
+
+    @Test
+    public void testExportarFacturas_Csv() {
+        // Ejecutar
+        ResponseEntity<?> respuesta = facturaController.exportarFacturas("csv", true);
+
+        // Verificar: la exportación se escribe después, cuando se envía la respuesta
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals("text/csv;charset=UTF-8", respuesta.getHeaders().getContentType().toString());
+        assertTrue(respuesta.getHeaders().getContentDisposition().isAttachment());
+    }
+
+    @Test
+    public void testImportarServicios_ArchivoSinEncabezado() throws Exception {
+        // Preparar
+        when(facturaService.importarServicios(any()))
+            .thenThrow(new IllegalArgumentException("El archivo está vacío"));
+
+        // Ejecutar
+        ResponseEntity<ResultadoImportacionServicios> respuesta =
+            facturaController.importarServicios(new ByteArrayInputStream(new byte[0]));
+
+        // Verificar
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+    }
+
+    @Test
+    public void testObtenerResumen() {
+        // Preparar: 3 facturas por 60000, una pagada por 20000
+        when(facturaService.obtenerResumen()).thenReturn(new ResumenFacturas(3, 6000000, 1, 2000000));
+
+        // Ejecutar
+        ResponseEntity<EntityModel<ResumenFacturas>> respuesta = facturaController.obtenerResumen();
+
+        // Verificar
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals(2, respuesta.getBody().getContent().getPendientes());
+        assertEquals(40000.0, respuesta.getBody().getContent().getPorCobrar(), 0.001);
+        assertTrue(respuesta.getBody().getLink("facturas").isPresent());
+    }
+
     @Test
     public void testCrearFactura_Exitoso() {
         // Preparar
@@ -154,13 +281,34 @@ public class FacturaControllerTest {
         verify(facturaService).crearFactura(any());
     }
 
+    @Test
+    public void testCrearFacturas_Lote() {
+        // Preparar
+        List<FacturaRequestDTO> solicitudes = Arrays.asList(
+            new FacturaRequestDTO(Arrays.asList(servicioTest.getId())),
+            new FacturaRequestDTO(Arrays.asList("no-existe")));
+        ResultadoLoteFacturas informe = new ResultadoLoteFacturas(Arrays.asList(
+            ResultadoItemLote.creada(0, facturaTest.getId()),
+            ResultadoItemLote.rechazada(1, "No existe servicio con ID: no-existe")));
+
+        when(facturaService.crearFacturas(solicitudes)).thenReturn(informe);
+
+        // Ejecutar
+        ResponseEntity<ResultadoLoteFacturas> respuesta = facturaController.crearFacturas(solicitudes);
+
+        // Verificar
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals(1, respuesta.getBody().getCreadas());
+        assertEquals(1, respuesta.getBody().getRechazadas());
+    }
+
     @Test
     public void testObtenerFactura_Exitoso() {
         // Preparar
         when(facturaService.obtenerFactura(facturaTest.getId())).thenReturn(facturaTest);
 
         // Ejecutar
-        ResponseEntity<EntityModel<Factura>> respuesta = facturaController.obtenerFactura(facturaTest.getId());
+        ResponseEntity<EntityModel<Factura>> respuesta = facturaController.obtenerFactura(facturaTest.getId(), solicitud());
 
         // Verificar
         assertEquals(HttpStatus.OK, respuesta.getStatusCode());
@@ -171,37 +319,211 @@ public class FacturaControllerTest {
     }
 
     @Test
-    public void testPagarFactura_Exitoso() {
+    public void testObtenerFactura_NoModificadoSinCargarla() {
         // Preparar
-        facturaTest.setPagada(false);
-        
-        when(facturaService.pagarFactura(facturaTest.getId())).thenReturn(facturaTest);
+        when(facturaService.versionFactura(facturaTest.getId())).thenReturn("v1-s1.5");
+        MockHttpServletResponse respuestaHttp = new MockHttpServletResponse();
 
         // Ejecutar
-        ResponseEntity<EntityModel<Factura>> respuesta = facturaController.pagarFactura(facturaTest.getId());
+        ResponseEntity<EntityModel<Factura>> respuesta =
+            facturaController.obtenerFactura(facturaTest.getId(), solicitud("W/\"v1-s1.5\"", respuestaHttp));
+
+        // Verificar
+        assertNull(respuesta);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), respuestaHttp.getStatus());
+        verify(facturaService, never()).obtenerFactura(any());
+    }
+
+    @Test
+    public void testObtenerFactura_VersionCambiada() {
+        // Preparar: el cliente tiene una versión anterior
+        when(facturaService.versionFactura(facturaTest.getId())).thenReturn("v2-s1.5");
+        when(facturaService.obtenerFactura(facturaTest.getId())).thenReturn(facturaTest);
+        when(facturaService.versionFactura(facturaTest)).thenReturn("v2-s1.5");
+
+        // Ejecutar
+        ResponseEntity<EntityModel<Factura>> respuesta = facturaController.obtenerFactura(
+            facturaTest.getId(), solicitud("W/\"v1-s1.5\"", new MockHttpServletResponse()));
+
+        // Verificar
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals("W/\"v2-s1.5\"", respuesta.getHeaders().getETag());
+    }
+
+    @Test
+    public void testObtenerFactura_PagadaSeGuardaSerializada() {
+        // Preparar
+        facturaTest.setPagada(true);
+        when(facturaService.obtenerFactura(facturaTest.getId())).thenReturn(facturaTest);
+        when(facturaService.versionFactura(facturaTest)).thenReturn("v1");
+
+        // Ejecutar: la primera vez se carga la factura; la segunda se usan los bytes guardados
+        ResponseEntity<?> primera = facturaController.obtenerFactura(facturaTest.getId(), solicitud());
+        ResponseEntity<?> segunda = facturaController.obtenerFactura(facturaTest.getId(), solicitud());
+
+        // Verificar
+        assertEquals(HttpStatus.OK, segunda.getStatusCode());
+        assertEquals("W/\"v1\"", segunda.getHeaders().getETag());
+        assertEquals(MediaTypes.HAL_JSON, segunda.getHeaders().getContentType());
+        assertArrayEquals((byte[]) primera.getBody(), (byte[]) segunda.getBody());
+        assertTrue(new String((byte[]) segunda.getBody()).contains("\"pagada\":true"));
+        verify(facturaService, times(1)).obtenerFactura(facturaTest.getId());
+    }
+
+    @Test
+    public void testObtenerFactura_PagadaGuardadaNoModificada() {
+        // Preparar: la respuesta de la factura pagada ya está guardada
+        facturaTest.setPagada(true);
+        when(facturaService.obtenerFactura(facturaTest.getId())).thenReturn(facturaTest);
+        when(facturaService.versionFactura(facturaTest)).thenReturn("v1");
+        facturaController.obtenerFactura(facturaTest.getId(), solicitud());
+        MockHttpServletResponse respuestaHttp = new MockHttpServletResponse();
+
+        // Ejecutar
+        ResponseEntity<EntityModel<Factura>> respuesta =
+            facturaController.obtenerFactura(facturaTest.getId(), solicitud("W/\"v1\"", respuestaHttp));
+
+        // Verificar: 304 sin volver a consultar la versión ni la factura
+        assertNull(respuesta);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), respuestaHttp.getStatus());
+        verify(facturaService, never()).versionFactura(facturaTest.getId());
+        verify(facturaService, times(1)).obtenerFactura(facturaTest.getId());
+    }
+
+    @Test
+    public void testPagarFactura_Exitoso() {
+        // Ejecutar
+        ResponseEntity<EntityModel<PagoFactura>> respuesta = facturaController.pagarFactura(facturaTest.getId());
 
         // Verificar
         assertEquals(HttpStatus.OK, respuesta.getStatusCode());
         assertNotNull(respuesta.getBody());
+        assertEquals(facturaTest.getId(), respuesta.getBody().getContent().getId());
+        assertTrue(respuesta.getBody().getContent().isPagada());
+        assertTrue(respuesta.getBody().getLink(IanaLinkRelations.SELF).isPresent());
+        assertTrue(respuesta.getBody().getLink("pagar").isEmpty());
         
         verify(facturaService).pagarFactura(facturaTest.getId());
     }
 
+    @Test
+    public void testPagarFacturas_Exitoso() {
+        // Preparar
+        ResultadoOperacionLote resultado = new ResultadoOperacionLote();
+        resultado.getProcesadas().add(facturaTest.getId());
+        resultado.getNoEncontradas().add("no-existe");
+        List<String> ids = Arrays.asList(facturaTest.getId(), "no-existe");
+        when(facturaService.pagarFacturas(ids)).thenReturn(resultado);
+
+        // Ejecutar
+        ResponseEntity<ResultadoOperacionLote> respuesta = facturaController.pagarFacturas(ids);
+
+        // Verificar
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals(Arrays.asList(facturaTest.getId()), respuesta.getBody().getProcesadas());
+        assertEquals(Arrays.asList("no-existe"), respuesta.getBody().getNoEncontradas());
+    }
+
+    @Test
+    public void testEliminarFacturas_ListaVacia() {
+        // Preparar
+        when(facturaService.eliminarFacturas(Collections.emptyList()))
+            .thenThrow(new IllegalArgumentException("Debe incluir al menos un ID de factura"));
+
+        // Ejecutar
+        ResponseEntity<ResultadoOperacionLote> respuesta = facturaController.eliminarFacturas(Collections.emptyList());
+
+        // Verificar
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+    }
+
+    @Test
+    public void testPagarFactura_YaPagada() {
+        // Preparar
+        doThrow(new IllegalStateException("La factura ya ha sido pagada"))
+            .when(facturaService).pagarFactura(facturaTest.getId());
+
+        // Ejecutar
+        ResponseEntity<EntityModel<PagoFactura>> respuesta = facturaController.pagarFactura(facturaTest.getId());
+
+        // Verificar
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+    }
+
     @Test
     public void testListarFacturas_Exitoso() {
         // Preparar
         List<Factura> facturas = Arrays.asList(facturaTest);
         
-        when(facturaService.listarFacturas()).thenReturn(facturas);
+        when(facturaService.listarFacturas(isNull(), isNull(), any()))
+            .thenReturn(new PaginaFacturas(facturas, null, null, FacturaService.TAMANO_PAGINA_POR_DEFECTO));
 
         // Ejecutar
-        ResponseEntity<List<EntityModel<Factura>>> respuesta = facturaController.listarFacturas();
+        ResponseEntity<List<EntityModel<Factura>>> respuesta =
+            facturaController.listarFacturas(null, null, null, null, null, solicitud());
 
         // Verificar
         assertEquals(HttpStatus.OK, respuesta.getStatusCode());
         assertNotNull(respuesta.getBody());
-        assertFalse(respuesta.getBody().isEmpty());
+        assertEquals(1, respuesta.getBody().size());
+        Links navegacion = Links.parse(respuesta.getHeaders().getFirst(HttpHeaders.LINK));
+        assertTrue(navegacion.getLink(IanaLinkRelations.SELF).isPresent());
+        assertTrue(navegacion.getLink(IanaLinkRelations.NEXT).isEmpty());
+        
+        verify(facturaService).listarFacturas(isNull(), isNull(), any());
+    }
+
+    @Test
+    public void testListarFacturas_ConPaginaSiguiente() {
+        // Preparar
+        List<Factura> facturas = Arrays.asList(facturaTest);
         
-        verify(facturaService).listarFacturas();
+        when(facturaService.listarFacturas(isNull(), eq(1), any()))
+            .thenReturn(new PaginaFacturas(facturas, "cursorSiguiente", null, 1));
+
+        // Ejecutar
+        ResponseEntity<List<EntityModel<Factura>>> respuesta =
+            facturaController.listarFacturas(null, 1, false, null, null, solicitud());
+
+        // Verificar
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        Links navegacion = Links.parse(respuesta.getHeaders().getFirst(HttpHeaders.LINK));
+        String siguiente = navegacion.getRequiredLink(IanaLinkRelations.NEXT).getHref();
+        assertTrue(siguiente.contains("cursor=cursorSiguiente"));
+        assertTrue(siguiente.contains("tamano=1"));
+        assertTrue(siguiente.contains("pagada=false"));
+        assertTrue(navegacion.getLink(IanaLinkRelations.PREV).isEmpty());
+    }
+
+    @Test
+    public void testListarFacturas_CursorInvalido() {
+        // Preparar
+        when(facturaService.listarFacturas(eq("no-es-cursor"), isNull(), any()))
+            .thenThrow(new IllegalArgumentException("Cursor de paginación inválido: no-es-cursor"));
+
+        // Ejecutar
+        ResponseEntity<List<EntityModel<Factura>>> respuesta =
+            facturaController.listarFacturas("no-es-cursor", null, null, null, null, solicitud());
+
+        // Verificar
+        assertEquals(HttpStatus.BAD_REQUEST, respuesta.getStatusCode());
+    }
+
+    /**
+     * Petición GET sin encabezados condicionales
+     */
+    private WebRequest solicitud() {
+        return solicitud(null, new MockHttpServletResponse());
+    }
+
+    /**
+     * Petición GET que envía la versión de la copia que tiene el cliente
+     */
+    private WebRequest solicitud(String ifNoneMatch, MockHttpServletResponse respuesta) {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/api");
+        if (ifNoneMatch != null) {
+            peticion.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(peticion, respuesta);
     }
-} 
\ No newline at end of file
+}
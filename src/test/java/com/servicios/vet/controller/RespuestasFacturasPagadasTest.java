@@ -0,0 +1,71 @@
+package com.servicios.vet.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Servicio;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de las respuestas guardadas de facturas pagadas.
+ */
+public class RespuestasFacturasPagadasTest {
+
+    private final RespuestasFacturasPagadas respuestas =
+        new RespuestasFacturasPagadas(new ObjectMapper(), DataSize.ofKilobytes(4));
+
+    private final Servicio servicio = new Servicio(UUID.randomUUID().toString(), "Consulta", 15000.0);
+
+    @Test
+    public void testGuardar_SoloConLaMismaBase() throws JsonProcessingException {
+        // Preparar
+        Factura factura = facturaPagada();
+
+        // Ejecutar
+        RespuestasFacturasPagadas.Respuesta guardada =
+            respuestas.guardar("http://localhost:8080", "W/\"v1\"", EntityModel.of(factura));
+
+        // Verificar: los enlaces dependen de la URL base, así que otra base no la usa
+        assertSame(guardada, respuestas.buscar(factura.getId(), "http://localhost:8080"));
+        assertNull(respuestas.buscar(factura.getId(), "https://clinica.example"));
+        assertTrue(new String(guardada.cuerpo()).contains(factura.getId()));
+    }
+
+    @Test
+    public void testGuardar_RechazaFacturaPendiente() {
+        // Preparar
+        Factura pendiente = new Factura(UUID.randomUUID().toString(), Arrays.asList(servicio));
+
+        // Ejecutar y Verificar
+        assertThrows(IllegalArgumentException.class,
+            () -> respuestas.guardar("", "W/\"v0\"", EntityModel.of(pendiente)));
+        assertNull(respuestas.buscar(pendiente.getId(), ""));
+    }
+
+    @Test
+    public void testCapacidad_DescartaAlSuperarla() throws JsonProcessingException {
+        // Ejecutar: muchas más respuestas de las que caben en 4 KB
+        for (int i = 0; i < 100; i++) {
+            respuestas.guardar("", "W/\"v1\"", EntityModel.of(facturaPagada()));
+        }
+        respuestas.getCache().cleanUp();
+
+        // Verificar
+        assertTrue(respuestas.getCache().policy().eviction().orElseThrow().weightedSize().orElseThrow()
+            <= DataSize.ofKilobytes(4).toBytes());
+        assertTrue(respuestas.getCache().estimatedSize() < 100);
+    }
+
+    private Factura facturaPagada() {
+        Factura factura = new Factura(UUID.randomUUID().toString(), Arrays.asList(servicio));
+        factura.setPagada(true);
+        return factura;
+    }
+}
@@ -0,0 +1,181 @@
+package com.servicios.vet.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Servicio;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del envío de cambios a los clientes conectados.
+ *
+ * Las tareas de envío se guardan en una lista en vez de ejecutarse, para poder simular
+ * un cliente que todavía no terminó de recibir los eventos anteriores.
+ */
+public class DifusorCambiosTest {
+
+    private final List<Runnable> tareas = new ArrayList<>();
+
+    private final DifusorCambios difusor = new DifusorCambios(new ObjectMapper(),
+        new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable tarea) {
+                tareas.add(tarea);
+            }
+        }, 4, Duration.ofMinutes(1));
+
+    @Test
+    public void testPublicar_LlegaATodosLosClientes() {
+        // Preparar
+        EmisorGrabado primero = new EmisorGrabado();
+        EmisorGrabado segundo = new EmisorGrabado();
+        difusor.agregar(primero);
+        difusor.agregar(segundo);
+        Servicio consulta = new Servicio(UUID.randomUUID().toString(), "Consulta", 15000.0);
+        Factura factura = new Factura(UUID.randomUUID().toString(), Arrays.asList(consulta, consulta));
+
+        // Ejecutar
+        difusor.publicar(CambioDatos.facturasCreadas(List.of(factura)));
+        ejecutarTareas();
+
+        // Verificar: un comentario al conectarse y luego el evento con sus datos en JSON
+        for (EmisorGrabado emisor : List.of(primero, segundo)) {
+            assertEquals(2, emisor.getEventos().size());
+            assertTrue(emisor.getEventos().get(0).startsWith(":conectado"));
+            assertTrue(emisor.getEventos().get(1).contains("event:facturas-creadas\n"));
+            assertTrue(emisor.getEventos().get(1).contains(
+                "data:[{\"id\":\"" + factura.getId() + "\",\"total\":30000.0,\"pagada\":false}]"));
+        }
+    }
+
+    @Test
+    public void testPublicar_ClienteLentoRecibeResincronizar() {
+        // Preparar
+        EmisorGrabado lento = new EmisorGrabado();
+        difusor.agregar(lento);
+
+        // Ejecutar: el envío del comentario inicial sigue pendiente y llegan más eventos de los que caben
+        for (int i = 0; i < 6; i++) {
+            difusor.publicar(CambioDatos.facturasPagadas(List.of(UUID.randomUUID().toString())));
+        }
+        ejecutarTareas();
+
+        // Verificar: lo pendiente se descartó y el cliente recibe la orden de volver a leer todo
+        assertEquals(1, difusor.getDesbordes());
+        assertTrue(lento.getEventos().get(0).contains("event:resincronizar\n"));
+        assertTrue(lento.getEventos().size() <= 4);
+    }
+
+    @Test
+    public void testPublicar_ClienteDesconectadoSeQuita() {
+        // Preparar
+        EmisorGrabado desconectado = new EmisorGrabado();
+        desconectado.fallar = true;
+        difusor.agregar(desconectado);
+
+        // Ejecutar
+        ejecutarTareas();
+        difusor.publicar(CambioDatos.serviciosImportados());
+
+        // Verificar
+        assertEquals(0, difusor.getSuscriptores());
+        assertTrue(tareas.isEmpty());
+    }
+
+    @Test
+    public void testPublicar_ClienteTrabadoNoFrenaALosDemas() throws InterruptedException {
+        // Preparar: dos hilos de envío, uno ocupado por un cliente que no recibe nada
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        DifusorCambios conPool = new DifusorCambios(new ObjectMapper(), pool, 4, Duration.ofMinutes(1));
+        EmisorGrabado trabado = new EmisorGrabado();
+        trabado.destrabar = new CountDownLatch(1);
+        EmisorGrabado normal = new EmisorGrabado();
+        try {
+            conPool.agregar(trabado);
+            assertTrue(trabado.trabado.await(5, TimeUnit.SECONDS));
+            conPool.agregar(normal);
+
+            // Ejecutar
+            conPool.publicar(CambioDatos.serviciosImportados());
+
+            // Verificar: el otro cliente recibe sus eventos en el hilo libre
+            assertTrue(esperar(() -> normal.getEventos().size() == 2));
+            assertTrue(normal.getEventos().get(1).contains("event:servicios-importados\n"));
+            assertTrue(trabado.getEventos().isEmpty());
+        } finally {
+            trabado.destrabar.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static boolean esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condicion.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private void ejecutarTareas() {
+        while (!tareas.isEmpty()) {
+            tareas.remove(0).run();
+        }
+    }
+
+    /**
+     * Emisor que guarda el texto de cada evento enviado en lugar de escribirlo en una respuesta.
+     * Con "destrabar", el envío queda bloqueado hasta que se libera, como con un cliente que
+     * dejó de leer.
+     */
+    private static class EmisorGrabado extends SseEmitter {
+        private final List<String> eventos = new ArrayList<>();
+        private final CountDownLatch trabado = new CountDownLatch(1);
+        private volatile CountDownLatch destrabar;
+        private boolean fallar;
+
+        @Override
+        public void send(Set<DataWithMediaType> evento) throws IOException {
+            if (fallar) {
+                throw new IOException("Conexión cerrada por el cliente");
+            }
+            if (destrabar != null) {
+                trabado.countDown();
+                try {
+                    destrabar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Envío interrumpido", e);
+                }
+                return;
+            }
+            synchronized (eventos) {
+                eventos.add(evento.stream().map(d -> d.getData().toString()).collect(Collectors.joining()));
+            }
+        }
+
+        List<String> getEventos() {
+            synchronized (eventos) {
+                return new ArrayList<>(eventos);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.servicios.vet.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Identificadores;
+import com.servicios.vet.model.Servicio;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la exportación de facturas en CSV y NDJSON contra H2 en memoria.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ExportadorFacturas.class)
+public class ExportadorFacturasTest {
+
+    @Autowired
+    private ExportadorFacturas exportador;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Factura pendiente;
+    private Factura pagada;
+
+    @BeforeEach
+    public void setUp() {
+        // Preparar: una factura pendiente con dos servicios y una pagada con la consulta dos veces
+        Servicio consulta = new Servicio(Identificadores.nuevo(), "Consulta, general", 15000.0);
+        Servicio vacuna = new Servicio(Identificadores.nuevo(), "Vacuna \"triple\"", 20000.5);
+        entityManager.persist(consulta);
+        entityManager.persist(vacuna);
+
+        pendiente = new Factura(Identificadores.nuevo(), Arrays.asList(consulta, vacuna));
+        pagada = new Factura(Identificadores.nuevo(), Arrays.asList(consulta, consulta));
+        pagada.setPagada(true);
+        entityManager.persist(pendiente);
+        entityManager.persist(pagada);
+        entityManager.flush();
+    }
+
+    @Test
+    public void testExportarCsv_UnaFilaPorLinea() throws IOException {
+        // Ejecutar
+        String[] lineas = exportar(ExportadorFacturas.Formato.CSV, null).split("\n");
+
+        // Verificar: encabezado y tres filas; los textos con comas o comillas van entre comillas
+        assertEquals(4, lineas.length);
+        assertEquals("factura_id,pagada,total,servicio_id,servicio_nombre,precio_unitario,cantidad", lineas[0]);
+        String contenido = String.join("\n", lineas);
+        assertTrue(contenido.contains(pendiente.getId() + ",false,35000.50,"));
+        assertTrue(contenido.contains(",\"Consulta, general\",15000.00"));
+        assertTrue(contenido.contains(",\"Vacuna \"\"triple\"\"\",20000.50,1"));
+    }
+
+    @Test
+    public void testExportarCsv_FiltroPorEstadoDePago() throws IOException {
+        // Ejecutar
+        String[] lineas = exportar(ExportadorFacturas.Formato.CSV, true).split("\n");
+
+        // Verificar
+        assertEquals(2, lineas.length);
+        assertTrue(lineas[1].startsWith(pagada.getId() + ",true,30000.00,"));
+        assertTrue(lineas[1].endsWith(",\"Consulta, general\",15000.00,2"));
+    }
+
+    @Test
+    public void testExportarNdjson_UnaLineaPorFactura() throws IOException {
+        // Ejecutar
+        String[] lineas = exportar(ExportadorFacturas.Formato.NDJSON, false).split("\n");
+
+        // Verificar
+        assertEquals(1, lineas.length);
+        JsonNode factura = new ObjectMapper().readTree(lineas[0]);
+        assertEquals(pendiente.getId(), factura.get("id").asText());
+        assertFalse(factura.get("pagada").asBoolean());
+        assertTrue(lineas[0].contains("\"total\":35000.50"));
+        assertEquals(2, factura.get("lineas").size());
+        assertEquals(1, factura.get("lineas").get(0).get("cantidad").asInt());
+    }
+
+    @Test
+    public void testFormato_NoSoportado() {
+        // Ejecutar y Verificar
+        assertEquals(ExportadorFacturas.Formato.NDJSON, ExportadorFacturas.Formato.desde("NdJson"));
+        assertThrows(IllegalArgumentException.class, () -> ExportadorFacturas.Formato.desde("xml"));
+    }
+
+    private String exportar(ExportadorFacturas.Formato formato, Boolean pagada) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        exportador.exportar(formato, pagada, salida);
+        return salida.toString(StandardCharsets.UTF_8);
+    }
+}
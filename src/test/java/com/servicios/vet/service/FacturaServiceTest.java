@@ -0,0 +1,812 @@
+package com.servicios.vet.service;
+
+import com.servicios.vet.dto.FacturaRequestDTO;
+import com.servicios.vet.dto.FiltroFacturas;
+import com.servicios.vet.dto.ResultadoItemLote;
+import com.servicios.vet.dto.ResultadoLoteFacturas;
+import com.servicios.vet.dto.ResultadoOperacionLote;
+import com.servicios.vet.dto.ResumenFacturas;
+import com.servicios.vet.dto.Sincronizacion;
+import com.servicios.vet.model.Factura;
+import com.servicios.vet.model.Identificadores;
+import com.servicios.vet.model.Servicio;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del servicio contra una base de datos H2 en memoria.
+ * 
+ * Además de verificar los resultados, cuentan las sentencias SQL que ejecuta cada
+ * operación de lectura, para detectar si vuelve a aparecer el problema N+1
+ * (una consulta extra por cada factura para cargar sus líneas).
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({FacturaService.class, CatalogoServicios.class, ResumenFacturasService.class, ExportadorFacturas.class,
+    ImportadorServicios.class, SincronizacionService.class})
+@RecordApplicationEvents
+public class FacturaServiceTest {
+
+    private static final int CANTIDAD_FACTURAS = 30;
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CatalogoServicios catalogoServicios;
+
+    @Autowired
+    private ResumenFacturasService resumenFacturasService;
+
+    @Autowired
+    private ApplicationEvents eventos;
+
+    private Statistics estadisticas;
+    private String facturaId;
+    private Servicio consulta;
+    private Servicio vacuna;
+
+    @BeforeEach
+    public void setUp() {
+        // Preparar un catálogo de dos servicios y varias facturas que los usan
+        consulta = new Servicio(UUID.randomUUID().toString(), "Consulta", 15000.0);
+        vacuna = new Servicio(UUID.randomUUID().toString(), "Vacunación", 20000.0);
+        entityManager.persist(consulta);
+        entityManager.persist(vacuna);
+
+        for (int i = 0; i < CANTIDAD_FACTURAS; i++) {
+            Factura factura = new Factura(UUID.randomUUID().toString(), Arrays.asList(consulta, vacuna));
+            entityManager.persist(factura);
+            facturaId = factura.getId();
+        }
+
+        // Vaciar el contexto de persistencia y el catálogo en memoria para que
+        // las lecturas vayan a la base de datos
+        entityManager.flush();
+        entityManager.clear();
+        catalogoServicios.invalidar();
+
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @Test
+    public void testListarFacturas_CantidadAcotadaDeConsultas() {
+        // Ejecutar
+        PaginaFacturas pagina = facturaService.listarFacturas(null, 50, new FiltroFacturas());
+        int totalLineas = pagina.getFacturas().stream()
+            .mapToInt(factura -> factura.getLineas().size())
+            .sum();
+
+        // Verificar: una consulta para la página y otra para las líneas de todas sus facturas
+        assertEquals(CANTIDAD_FACTURAS, pagina.getFacturas().size());
+        assertEquals(CANTIDAD_FACTURAS * 2, totalLineas);
+        assertEquals(2, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testObtenerFactura_UnaSolaConsulta() {
+        // Ejecutar
+        Factura factura = facturaService.obtenerFactura(facturaId);
+        int totalLineas = factura.getLineas().size();
+
+        // Verificar
+        assertEquals(2, totalLineas);
+        assertEquals(35000.0, factura.getTotal());
+        assertEquals(1, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testListarFacturas_RecorreTodasLasPaginas() {
+        // Ejecutar: recorrer el listado completo siguiendo los cursores
+        int vistas = 0;
+        String cursor = null;
+        String ultimoId = "";
+        do {
+            PaginaFacturas pagina = facturaService.listarFacturas(cursor, 7, new FiltroFacturas(false, null, null));
+            for (Factura factura : pagina.getFacturas()) {
+                assertTrue(factura.getId().compareTo(ultimoId) > 0);
+                ultimoId = factura.getId();
+            }
+            vistas += pagina.getFacturas().size();
+            cursor = pagina.getCursorSiguiente();
+        } while (cursor != null);
+
+        // Verificar
+        assertEquals(CANTIDAD_FACTURAS, vistas);
+    }
+
+    @Test
+    public void testListarFacturas_PaginaAnterior() {
+        // Preparar
+        PaginaFacturas primera = facturaService.listarFacturas(null, 10, null);
+        PaginaFacturas segunda = facturaService.listarFacturas(primera.getCursorSiguiente(), 10, null);
+
+        // Ejecutar
+        PaginaFacturas deVuelta = facturaService.listarFacturas(segunda.getCursorAnterior(), 10, null);
+
+        // Verificar
+        assertNull(primera.getCursorAnterior());
+        assertEquals(primera.getFacturas().get(0).getId(), deVuelta.getFacturas().get(0).getId());
+        assertEquals(10, deVuelta.getFacturas().size());
+        assertNull(deVuelta.getCursorAnterior());
+    }
+
+    @Test
+    public void testListarFacturas_FiltroSinResultados() {
+        // Ejecutar
+        PaginaFacturas pagina = facturaService.listarFacturas(null, null, new FiltroFacturas(true, null, null));
+
+        // Verificar
+        assertTrue(pagina.getFacturas().isEmpty());
+        assertNull(pagina.getCursorSiguiente());
+    }
+
+    @Test
+    public void testCrearFactura_UnaSolaLecturaDeServicios() {
+        // Preparar: 20 líneas que repiten los mismos dos servicios
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(consulta.getId());
+            ids.add(vacuna.getId());
+        }
+
+        // Ejecutar
+        Factura factura = facturaService.crearFactura(ids);
+        entityManager.flush();
+
+        // Verificar: una sola consulta que carga cada servicio una vez, sin importar
+        // cuántas veces se repite, y ninguna lectura previa al insertar la factura
+        // (además de la consulta: INSERT de la factura, de sus líneas y UPDATE del resumen).
+        // Los servicios repetidos se agrupan en una línea por servicio.
+        assertEquals(2, factura.getLineas().size());
+        assertEquals(10, factura.getLineas().get(0).getCantidad());
+        assertEquals(150000.0, factura.getLineas().get(0).getSubtotal());
+        assertEquals(350000.0, factura.getTotal());
+        assertEquals(4, estadisticas.getPrepareStatementCount());
+        assertEquals(2, estadisticas.getEntityLoadCount());
+        assertEquals(0, estadisticas.getEntityFetchCount());
+        assertEquals(1, estadisticas.getEntityInsertCount());
+    }
+
+    @Test
+    public void testCrearFactura_InformaTodosLosServiciosInexistentes() {
+        // Preparar
+        List<String> ids = Arrays.asList(consulta.getId(), "no-existe-1", "no-existe-2", "no-existe-1");
+
+        // Ejecutar
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> facturaService.crearFactura(ids));
+
+        // Verificar
+        assertEquals("No existen servicios con ID: no-existe-1, no-existe-2", error.getMessage());
+    }
+
+    @Test
+    public void testCrearFactura_SinConsultasConCatalogoEnMemoria() {
+        // Preparar: la primera factura carga los servicios en el catálogo
+        List<String> ids = Arrays.asList(consulta.getId(), vacuna.getId(), vacuna.getId());
+        facturaService.crearFactura(ids);
+        entityManager.flush();
+        entityManager.clear();
+        estadisticas.clear();
+
+        // Ejecutar
+        Factura factura = facturaService.crearFactura(ids);
+        entityManager.flush();
+
+        // Verificar: validación y total salen de memoria; solo se escribe la factura
+        assertEquals(55000.0, factura.getTotal());
+        assertEquals(0, estadisticas.getQueryExecutionCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+        assertEquals(1, estadisticas.getEntityInsertCount());
+        assertTrue(catalogoServicios.getAciertos() >= 2);
+    }
+
+    @Test
+    public void testCrearFactura_IdsDeServiciosEnMayusculas() {
+        // Preparar: el catálogo ya tiene los servicios en memoria con sus IDs en minúsculas
+        facturaService.listarServicios();
+        List<String> ids = Arrays.asList(consulta.getId().toUpperCase(), vacuna.getId(), consulta.getId());
+
+        // Ejecutar
+        Factura factura = facturaService.crearFactura(ids);
+
+        // Verificar: las dos formas del mismo ID son el mismo servicio
+        assertEquals(2, factura.getLineas().size());
+        assertEquals(2, factura.getLineas().get(0).getCantidad());
+        assertEquals(50000.0, factura.getTotal());
+    }
+
+    @Test
+    public void testAgregarServicio_IdEnMayusculasReemplazaAlExistente() {
+        // Preparar: el listado queda completo en memoria
+        assertEquals(2, facturaService.listarServicios().size());
+
+        // Ejecutar: se vuelve a registrar la consulta con su ID en mayúsculas
+        Servicio modificado = facturaService.agregarServicio(
+            new Servicio(consulta.getId().toUpperCase(), "Consulta general", 16000.0));
+
+        // Verificar: el servicio se reemplaza en lugar de aparecer dos veces
+        assertEquals(consulta.getId(), modificado.getId());
+        assertEquals(2, facturaService.listarServicios().size());
+        assertEquals("Consulta general", facturaService.obtenerServicio(consulta.getId()).getNombre());
+    }
+
+    @Test
+    public void testImportarServicios_InvalidaElCatalogo() throws IOException {
+        // Preparar: el listado queda completo en memoria
+        assertEquals(2, facturaService.listarServicios().size());
+        String csv = "id,nombre,costo\n" + consulta.getId() + ",Consulta general,16000\n,Cirugía,90000\n";
+
+        // Ejecutar: el MERGE escribe con SQL directo, sin pasar por Hibernate
+        facturaService.importarServicios(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        entityManager.clear();
+
+        // Verificar: las lecturas ven los servicios importados, no la copia anterior
+        assertEquals(3, facturaService.listarServicios().size());
+        assertEquals("Consulta general", facturaService.obtenerServicio(consulta.getId()).getNombre());
+        assertEquals(1, eventos.stream(CambioDatos.class)
+            .filter(cambio -> cambio.getTipo() == CambioDatos.Tipo.SERVICIOS_IMPORTADOS)
+            .count());
+    }
+
+    @Test
+    public void testImportarServicios_SinGuardarNadaNoAvisa() throws IOException {
+        // Preparar: un archivo sin filas válidas y otro sin encabezado
+        String rechazado = "nombre,costo\nConsulta,abc\n";
+        String sinEncabezado = "";
+
+        // Ejecutar
+        facturaService.importarServicios(new ByteArrayInputStream(rechazado.getBytes(StandardCharsets.UTF_8)));
+        assertThrows(IllegalArgumentException.class, () -> facturaService.importarServicios(
+            new ByteArrayInputStream(sinEncabezado.getBytes(StandardCharsets.UTF_8))));
+
+        // Verificar: los clientes conectados no tienen nada que volver a pedir
+        assertEquals(0, eventos.stream(CambioDatos.class).count());
+    }
+
+    @Test
+    public void testAgregarServicio_EscrituraDirectaEnCatalogo() {
+        // Preparar: el listado queda completo en memoria
+        assertEquals(2, facturaService.listarServicios().size());
+
+        // Ejecutar
+        Servicio nuevo = facturaService.agregarServicio(new Servicio(null, "Desparasitación", 8000.0));
+        entityManager.flush();
+        estadisticas.clear();
+
+        // Verificar: el nuevo servicio aparece sin volver a consultar la base de datos
+        assertEquals(3, facturaService.listarServicios().size());
+        assertEquals("Desparasitación", facturaService.obtenerServicio(nuevo.getId()).getNombre());
+        assertEquals(0, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCrearFacturas_InformaCadaElemento() {
+        // Preparar: 120 solicitudes (tres tramos), dos de ellas inválidas
+        List<FacturaRequestDTO> solicitudes = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            solicitudes.add(new FacturaRequestDTO(Arrays.asList(consulta.getId(), vacuna.getId())));
+        }
+        solicitudes.set(10, new FacturaRequestDTO(Arrays.asList(consulta.getId(), "no-existe")));
+        solicitudes.set(75, new FacturaRequestDTO(Collections.emptyList()));
+
+        // Ejecutar
+        ResultadoLoteFacturas resultado = facturaService.crearFacturas(solicitudes);
+
+        // Verificar
+        assertEquals(118, resultado.getCreadas());
+        assertEquals(2, resultado.getRechazadas());
+        assertEquals(ResultadoItemLote.RECHAZADA, resultado.getResultados().get(10).getEstado());
+        assertEquals("No existe servicio con ID: no-existe", resultado.getResultados().get(10).getError());
+        assertEquals(75, resultado.getResultados().get(75).getIndice());
+        assertEquals(ResultadoItemLote.RECHAZADA, resultado.getResultados().get(75).getEstado());
+        assertNotNull(resultado.getResultados().get(119).getFacturaId());
+        assertEquals(118, estadisticas.getEntityInsertCount());
+        // Los servicios se resuelven una sola vez para todo el lote
+        assertEquals(2, estadisticas.getEntityLoadCount());
+    }
+
+    @Test
+    public void testCrearFacturas_LoteDemasiadoGrande() {
+        // Preparar
+        List<FacturaRequestDTO> solicitudes = Collections.nCopies(FacturaService.TAMANO_LOTE_MAXIMO + 1,
+            new FacturaRequestDTO(Arrays.asList(consulta.getId())));
+
+        // Ejecutar y Verificar
+        assertThrows(IllegalArgumentException.class, () -> facturaService.crearFacturas(solicitudes));
+    }
+
+    @Test
+    public void testCrearFactura_IdsOrdenadosPorCreacion() {
+        // Ejecutar
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(facturaService.crearFactura(Arrays.asList(consulta.getId())).getId());
+        }
+
+        // Verificar: cada ID nuevo es mayor que el anterior (se insertan al final del índice)
+        List<String> ordenados = new ArrayList<>(ids);
+        Collections.sort(ordenados);
+        assertEquals(ordenados, ids);
+        assertTrue(ids.stream().allMatch(Identificadores::esValido));
+
+        // El ID guardado en 16 bytes se vuelve a leer igual
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(ids.get(0), facturaService.obtenerFactura(ids.get(0)).getId());
+    }
+
+    @Test
+    public void testAgregarServicio_IdConFormatoInvalido() {
+        // Preparar
+        Servicio servicio = new Servicio("CONSULTA-01", "Consulta", 15000.0);
+
+        // Ejecutar y Verificar
+        assertThrows(IllegalArgumentException.class, () -> facturaService.agregarServicio(servicio));
+    }
+
+    @Test
+    public void testObtenerFactura_IdConFormatoInvalidoSinConsultar() {
+        // Ejecutar y Verificar: un texto que no es un ID se informa como inexistente
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+            () -> facturaService.obtenerFactura("no-existe"));
+        assertEquals("No existe factura con ID: no-existe", error.getMessage());
+        assertEquals(0, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testCrearFactura_TotalExactoEnCentavos() {
+        // Preparar: con double, 0.1 + 0.2 daría 0.30000000000000004
+        Servicio diez = facturaService.agregarServicio(new Servicio(null, "Insumo", 0.1));
+        Servicio veinte = facturaService.agregarServicio(new Servicio(null, "Insumo", 0.2));
+
+        // Ejecutar
+        Factura factura = facturaService.crearFactura(Arrays.asList(diez.getId(), veinte.getId()));
+        entityManager.flush();
+        PaginaFacturas pagina = facturaService.listarFacturas(null, null, new FiltroFacturas(null, 0.3, 0.3));
+
+        // Verificar
+        assertEquals(30, factura.getTotalCentavos());
+        assertEquals(0.3, factura.getTotal());
+        assertEquals(1, pagina.getFacturas().size());
+        assertEquals(factura.getId(), pagina.getFacturas().get(0).getId());
+    }
+
+    @Test
+    public void testAgregarServicio_CostoMenorAUnCentavo() {
+        // Preparar: 0.004 se redondea a cero centavos
+        Servicio servicio = new Servicio(null, "Insumo", 0.004);
+
+        // Ejecutar y Verificar
+        assertThrows(IllegalArgumentException.class, () -> facturaService.agregarServicio(servicio));
+    }
+
+    @Test
+    public void testPagarFactura_SinLeerLaFactura() {
+        // Ejecutar
+        facturaService.pagarFactura(facturaId);
+
+        // Verificar: solo el UPDATE condicionado y el del resumen, sin leer la factura antes
+        assertEquals(2, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+
+        Factura pagada = facturaService.obtenerFactura(facturaId);
+        assertTrue(pagada.isPagada());
+        assertEquals(1, pagada.getVersion());
+    }
+
+    @Test
+    public void testPagarFactura_YaPagada() {
+        // Preparar
+        facturaService.pagarFactura(facturaId);
+
+        // Ejecutar y Verificar
+        assertThrows(IllegalStateException.class, () -> facturaService.pagarFactura(facturaId));
+    }
+
+    @Test
+    public void testPagarFactura_IdEnMayusculas() {
+        // Ejecutar
+        facturaService.pagarFactura(facturaId.toUpperCase());
+
+        // Verificar: el evento informa el ID canónico, el mismo que conocen los clientes
+        List<CambioDatos> cambios = eventos.stream(CambioDatos.class).collect(Collectors.toList());
+        assertEquals(1, cambios.size());
+        assertEquals(CambioDatos.Tipo.FACTURAS_PAGADAS, cambios.get(0).getTipo());
+        assertEquals(Arrays.asList(facturaId), cambios.get(0).getDatos());
+        assertTrue(facturaService.obtenerFactura(facturaId).isPagada());
+    }
+
+    @Test
+    public void testPagarFactura_NoExiste() {
+        // Ejecutar y Verificar
+        assertThrows(IllegalArgumentException.class,
+            () -> facturaService.pagarFactura(UUID.randomUUID().toString()));
+        assertThrows(IllegalArgumentException.class, () -> facturaService.pagarFactura("no-existe"));
+    }
+
+    @Test
+    public void testPagarFacturas_ClasificaCadaId() {
+        // Preparar
+        List<String> ids = facturaService.listarFacturas(null, 3, null).getFacturas().stream()
+            .map(Factura::getId)
+            .collect(Collectors.toList());
+        facturaService.pagarFactura(ids.get(0));
+        String inexistente = UUID.randomUUID().toString();
+        entityManager.clear();
+        estadisticas.clear();
+
+        // Ejecutar
+        ResultadoOperacionLote resultado = facturaService.pagarFacturas(
+            Arrays.asList(ids.get(0), ids.get(1), ids.get(2), ids.get(1), inexistente, "no-existe"));
+
+        // Verificar: una lectura de estados, un UPDATE y el UPDATE del resumen, sin cargar ninguna factura
+        assertEquals(Arrays.asList(ids.get(1), ids.get(2)), resultado.getProcesadas());
+        assertEquals(Arrays.asList(ids.get(0)), resultado.getYaPagadas());
+        assertEquals(Arrays.asList("no-existe", inexistente), resultado.getNoEncontradas());
+        assertEquals(3, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+        assertTrue(facturaService.obtenerFactura(ids.get(2)).isPagada());
+    }
+
+    @Test
+    public void testPagarFacturas_IdsEnMayusculas() {
+        // Preparar
+        List<String> ids = facturaService.listarFacturas(null, 2, null).getFacturas().stream()
+            .map(Factura::getId)
+            .collect(Collectors.toList());
+
+        // Ejecutar: el mismo ID en mayúsculas y en minúsculas, y otro solo en mayúsculas
+        ResultadoOperacionLote resultado = facturaService.pagarFacturas(Arrays.asList(
+            ids.get(0).toUpperCase(), ids.get(0), ids.get(1).toUpperCase()));
+
+        // Verificar: se pagan ambas, una sola vez cada una, y se informan con su ID canónico
+        assertEquals(ids, resultado.getProcesadas());
+        assertTrue(resultado.getNoEncontradas().isEmpty());
+        assertTrue(facturaService.obtenerFactura(ids.get(1)).isPagada());
+    }
+
+    @Test
+    public void testPagarFacturas_VariosTramos() {
+        // Preparar: más facturas que las que entran en una sentencia
+        List<FacturaRequestDTO> solicitudes = Collections.nCopies(FacturaService.IDS_POR_SENTENCIA + 10,
+            new FacturaRequestDTO(Arrays.asList(consulta.getId())));
+        List<String> ids = facturaService.crearFacturas(solicitudes).getResultados().stream()
+            .map(ResultadoItemLote::getFacturaId)
+            .collect(Collectors.toList());
+        entityManager.clear();
+        estadisticas.clear();
+
+        // Ejecutar
+        ResultadoOperacionLote resultado = facturaService.pagarFacturas(ids);
+
+        // Verificar: dos tramos, cada uno con su lectura, su UPDATE y el UPDATE del resumen
+        assertEquals(ids.size(), resultado.getProcesadas().size());
+        assertEquals(6, estadisticas.getPrepareStatementCount());
+    }
+
+    @Test
+    public void testPagarFacturas_ListaVacia() {
+        // Ejecutar y Verificar
+        assertThrows(IllegalArgumentException.class, () -> facturaService.pagarFacturas(Collections.emptyList()));
+    }
+
+    @Test
+    public void testEliminarFactura_SinCargarLaFactura() {
+        // Ejecutar
+        facturaService.eliminarFactura(facturaId);
+        entityManager.flush();
+
+        // Verificar: bloqueo de la fila, resta en el resumen, borrado de sus líneas y de la
+        // factura, y la marca de eliminación para la sincronización
+        assertEquals(5, estadisticas.getPrepareStatementCount());
+        assertEquals(0, estadisticas.getEntityLoadCount());
+        assertThrows(IllegalArgumentException.class, () -> facturaService.obtenerFactura(facturaId));
+        assertEquals(0L, entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM FACTURA_LINEAS WHERE FACTURA_ID = ?1")
+            .setParameter(1, Identificadores.aBytes(facturaId))
+            .getSingleResult());
+    }
+
+    @Test
+    public void testEliminarFactura_Pagada() {
+        // Preparar
+        facturaService.pagarFactura(facturaId);
+
+        // Ejecutar y Verificar: la factura pagada se conserva con sus líneas
+        assertThrows(IllegalStateException.class, () -> facturaService.eliminarFactura(facturaId));
+        assertEquals(2, facturaService.obtenerFactura(facturaId).getLineas().size());
+    }
+
+    @Test
+    public void testEliminarFactura_NoExiste() {
+        // Ejecutar y Verificar
+        assertThrows(IllegalArgumentException.class,
+            () -> facturaService.eliminarFactura(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    public void testEliminarFactura_IdEnMayusculas() {
+        // Preparar
+        List<String> ids = facturaService.listarFacturas(null, 2, null).getFacturas().stream()
+            .map(Factura::getId)
+            .collect(Collectors.toList());
+
+        // Ejecutar: una sola y por lote
+        facturaService.eliminarFactura(ids.get(0).toUpperCase());
+        ResultadoOperacionLote resultado = facturaService.eliminarFacturas(Arrays.asList(ids.get(1).toUpperCase()));
+
+        // Verificar
+        assertEquals(Arrays.asList(ids.get(1)), resultado.getProcesadas());
+        assertThrows(IllegalArgumentException.class, () -> facturaService.obtenerFactura(ids.get(0)));
+        assertThrows(IllegalArgumentException.class, () -> facturaService.obtenerFactura(ids.get(1)));
+    }
+
+    @Test
+    public void testEliminarFacturas_ClasificaCadaId() {
+        // Preparar
+        List<String> ids = facturaService.listarFacturas(null, 3, null).getFacturas().stream()
+            .map(Factura::getId)
+            .collect(Collectors.toList());
+        facturaService.pagarFactura(ids.get(0));
+        String inexistente = UUID.randomUUID().toString();
+
+        // Ejecutar
+        ResultadoOperacionLote resultado = facturaService.eliminarFacturas(
+            Arrays.asList(ids.get(0), ids.get(1), ids.get(2), inexistente));
+
+        // Verificar
+        assertEquals(Arrays.asList(ids.get(1), ids.get(2)), resultado.getProcesadas());
+        assertEquals(Arrays.asList(ids.get(0)), resultado.getYaPagadas());
+        assertEquals(Arrays.asList(inexistente), resultado.getNoEncontradas());
+        assertEquals(CANTIDAD_FACTURAS - 2,
+            facturaService.listarFacturas(null, FacturaService.TAMANO_PAGINA_MAXIMO, null).getFacturas().size());
+    }
+
+    @Test
+    public void testEventos_UnoPorOperacionConLoQueCambio() {
+        // Preparar
+        List<String> ids = facturaService.listarFacturas(null, 2, null).getFacturas().stream()
+            .map(Factura::getId)
+            .collect(Collectors.toList());
+
+        // Ejecutar
+        Factura creada = facturaService.crearFactura(Arrays.asList(consulta.getId()));
+        facturaService.pagarFacturas(Arrays.asList(ids.get(0), ids.get(1), UUID.randomUUID().toString()));
+        facturaService.eliminarFacturas(Arrays.asList(ids.get(0), creada.getId()));
+
+        // Verificar: las facturas ya pagadas no aparecen como eliminadas
+        List<CambioDatos> cambios = eventos.stream(CambioDatos.class).collect(Collectors.toList());
+        assertEquals(3, cambios.size());
+        assertEquals(CambioDatos.Tipo.FACTURAS_CREADAS, cambios.get(0).getTipo());
+        assertEquals(Arrays.asList(new CambioDatos.FacturaCreada(creada.getId(), 15000.0, false)),
+            cambios.get(0).getDatos());
+        assertEquals(CambioDatos.Tipo.FACTURAS_PAGADAS, cambios.get(1).getTipo());
+        assertEquals(ids, cambios.get(1).getDatos());
+        assertEquals(CambioDatos.Tipo.FACTURAS_ELIMINADAS, cambios.get(2).getTipo());
+        assertEquals(Arrays.asList(creada.getId()), cambios.get(2).getDatos());
+    }
+
+    @Test
+    public void testResumen_ReconciliarCalculaDesdeLasFacturas() {
+        // Ejecutar: las facturas de setUp se guardaron sin pasar por el servicio
+        ResumenFacturas resumen = resumenFacturasService.reconciliar();
+
+        // Verificar
+        assertEquals(CANTIDAD_FACTURAS, resumen.getFacturas());
+        assertEquals(0, resumen.getPagadas());
+        assertEquals(CANTIDAD_FACTURAS * 35000.0, resumen.getTotalFacturado(), 0.001);
+        assertEquals(resumen.getTotalFacturado(), resumen.getPorCobrar(), 0.001);
+        assertEquals(CANTIDAD_FACTURAS, facturaService.obtenerResumen().getFacturas());
+    }
+
+    @Test
+    public void testResumen_SeActualizaConCadaOperacion() {
+        // Preparar
+        resumenFacturasService.reconciliar();
+        List<String> ids = facturaService.listarFacturas(null, 3, null).getFacturas().stream()
+            .map(Factura::getId)
+            .collect(Collectors.toList());
+
+        // Ejecutar
+        facturaService.crearFactura(Arrays.asList(consulta.getId()));
+        facturaService.crearFacturas(Arrays.asList(
+            new FacturaRequestDTO(Arrays.asList(vacuna.getId())),
+            new FacturaRequestDTO(Collections.emptyList())));
+        facturaService.pagarFactura(ids.get(0));
+        facturaService.pagarFacturas(Arrays.asList(ids.get(0), ids.get(1)));
+        facturaService.eliminarFactura(ids.get(2));
+
+        // Verificar: +2 facturas creadas, -1 eliminada, 2 pagadas
+        ResumenFacturas resumen = facturaService.obtenerResumen();
+        assertEquals(CANTIDAD_FACTURAS + 1, resumen.getFacturas());
+        assertEquals(2, resumen.getPagadas());
+        assertEquals(CANTIDAD_FACTURAS - 1, resumen.getPendientes());
+        assertEquals(CANTIDAD_FACTURAS * 35000.0, resumen.getTotalFacturado(), 0.001);
+        assertEquals(70000.0, resumen.getTotalPagado(), 0.001);
+        assertEquals(CANTIDAD_FACTURAS * 35000.0 - 70000.0, resumen.getPorCobrar(), 0.001);
+
+        // Los contadores coinciden con lo que calcula la reconciliación
+        ResumenFacturas reconciliado = resumenFacturasService.reconciliar();
+        assertEquals(resumen.getFacturas(), reconciliado.getFacturas());
+        assertEquals(resumen.getTotalPagado(), reconciliado.getTotalPagado(), 0.001);
+        assertEquals(resumen.getTotalFacturado(), reconciliado.getTotalFacturado(), 0.001);
+    }
+
+    @Test
+    public void testVersiones_CambianConCadaOperacion() {
+        // Preparar
+        resumenFacturasService.reconciliar();
+        String id = facturaService.listarFacturas(null, 1, null).getFacturas().get(0).getId();
+        String listado = facturaService.versionFacturas();
+        String factura = facturaService.versionFactura(id);
+        String servicios = facturaService.versionServicios();
+
+        // Ejecutar y Verificar: leer no cambia ninguna versión
+        facturaService.listarServicios();
+        facturaService.obtenerFactura(id);
+        assertEquals(listado, facturaService.versionFacturas());
+        assertEquals(factura, facturaService.versionFactura(id));
+        assertEquals(factura, facturaService.versionFactura(facturaService.obtenerFactura(id)));
+
+        // Pagar cambia la versión de la factura y la del listado
+        facturaService.pagarFactura(id);
+        assertNotEquals(factura, facturaService.versionFactura(id));
+        assertNotEquals(listado, facturaService.versionFacturas());
+
+        // Crear una factura cambia el listado
+        listado = facturaService.versionFacturas();
+        facturaService.crearFactura(Arrays.asList(consulta.getId()));
+        assertNotEquals(listado, facturaService.versionFacturas());
+
+        // Un servicio nuevo cambia el catálogo, pero no las facturas (sus líneas son copias)
+        listado = facturaService.versionFacturas();
+        factura = facturaService.versionFactura(id);
+        facturaService.agregarServicio(new Servicio(null, "Baño", 8000.0));
+        assertNotEquals(servicios, facturaService.versionServicios());
+        assertEquals(listado, facturaService.versionFacturas());
+        assertEquals(factura, facturaService.versionFactura(id));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> facturaService.versionFactura(Identificadores.nuevo()));
+    }
+
+    @Test
+    public void testFactura_ConservaPrecioAlCambiarElCatalogo() {
+        // Preparar: la consulta sube de precio y cambia de nombre después de facturarla
+        consulta.setNombre("Consulta general");
+        consulta.setCostoCentavos(1800000);
+        facturaService.agregarServicio(consulta);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Ejecutar
+        Factura anterior = facturaService.obtenerFactura(facturaId);
+        Factura nueva = facturaService.crearFactura(Arrays.asList(consulta.getId()));
+
+        // Verificar: la factura anterior conserva el nombre y el precio con que se cobró
+        assertEquals("Consulta", anterior.getLineas().get(0).getNombre());
+        assertEquals(15000.0, anterior.getLineas().get(0).getPrecioUnitario());
+        assertEquals(35000.0, anterior.getTotal());
+        assertEquals("Consulta general", nueva.getLineas().get(0).getNombre());
+        assertEquals(18000.0, nueva.getTotal());
+    }
+
+    @Test
+    public void testSincronizarFacturas_CompletaPorTramos() {
+        // Ejecutar: sin token, siguiendo el token de cada respuesta mientras haya más
+        Set<String> recibidas = new HashSet<>();
+        int respuestas = 0;
+        Sincronizacion<Factura> sincronizacion = facturaService.sincronizarFacturas("", 8);
+        while (true) {
+            respuestas++;
+            assertTrue(sincronizacion.isCompleta());
+            for (Factura factura : sincronizacion.getCambios()) {
+                assertTrue(recibidas.add(factura.getId()));
+                assertEquals(2, factura.getLineas().size());
+            }
+            if (!sincronizacion.isHayMas()) {
+                break;
+            }
+            sincronizacion = facturaService.sincronizarFacturas(sincronizacion.getToken(), 8);
+        }
+
+        // Verificar: todas las facturas, cada una una sola vez, en tramos de 8
+        assertEquals(CANTIDAD_FACTURAS, recibidas.size());
+        assertEquals(4, respuestas);
+        assertTrue(sincronizacion.getEliminados().isEmpty());
+    }
+
+    @Test
+    public void testSincronizarFacturas_SoloCambiosYEliminaciones() {
+        // Preparar: las facturas existentes cambiaron hace una hora y el terminal
+        // sincronizó por última vez hace un minuto
+        entityManager.createQuery("UPDATE Factura f SET f.actualizada = :antes")
+            .setParameter("antes", Instant.now().minus(Duration.ofHours(1)))
+            .executeUpdate();
+        entityManager.clear();
+        String token = TokenSincronizacion.desde(Instant.now().minus(Duration.ofMinutes(1))).codificar();
+        List<String> ids = facturaService.listarFacturas(null, 2, null).getFacturas().stream()
+            .map(Factura::getId)
+            .collect(Collectors.toList());
+        facturaService.pagarFactura(ids.get(0));
+        facturaService.eliminarFactura(ids.get(1));
+        Factura creada = facturaService.crearFactura(Arrays.asList(vacuna.getId()));
+        entityManager.flush();
+        entityManager.clear();
+
+        // Ejecutar
+        Sincronizacion<Factura> sincronizacion = facturaService.sincronizarFacturas(token, null);
+
+        // Verificar
+        assertFalse(sincronizacion.isCompleta());
+        assertFalse(sincronizacion.isHayMas());
+        assertEquals(Set.of(ids.get(0), creada.getId()),
+            sincronizacion.getCambios().stream().map(Factura::getId).collect(Collectors.toSet()));
+        assertEquals(Arrays.asList(ids.get(1)), sincronizacion.getEliminados());
+        assertNotEquals(token, sincronizacion.getToken());
+    }
+
+    @Test
+    public void testSincronizarServicios_SoloLosCambiados() {
+        // Preparar
+        entityManager.createQuery("UPDATE Servicio s SET s.actualizado = :antes")
+            .setParameter("antes", Instant.now().minus(Duration.ofHours(1)))
+            .executeUpdate();
+        entityManager.clear();
+        String token = TokenSincronizacion.desde(Instant.now().minus(Duration.ofMinutes(1))).codificar();
+        Servicio cirugia = facturaService.agregarServicio(new Servicio(null, "Cirugía", 90000.0));
+        entityManager.flush();
+
+        // Ejecutar
+        Sincronizacion<Servicio> cambios = facturaService.sincronizarServicios(token, null);
+        Sincronizacion<Servicio> completa = facturaService.sincronizarServicios("", null);
+
+        // Verificar
+        assertEquals(Arrays.asList(cirugia.getId()),
+            cambios.getCambios().stream().map(Servicio::getId).collect(Collectors.toList()));
+        assertEquals(3, completa.getCambios().size());
+        assertTrue(completa.isCompleta());
+    }
+
+    @Test
+    public void testSincronizarFacturas_TokenInvalido() {
+        // Ejecutar y Verificar
+        assertThrows(IllegalArgumentException.class, () -> facturaService.sincronizarFacturas("no-es-un-token", null));
+        assertThrows(IllegalArgumentException.class, () -> facturaService.sincronizarFacturas("", 0));
+    }
+}
@@ -0,0 +1,175 @@
+package com.servicios.vet.service;
+
+import com.servicios.vet.dto.ResultadoImportacionServicios;
+import com.servicios.vet.model.Identificadores;
+import com.servicios.vet.model.Servicio;
+import com.servicios.vet.repository.ServicioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la importación de servicios desde CSV contra H2 en memoria.
+ *
+ * El importador maneja sus propias transacciones (una por tramo), así que las pruebas
+ * corren sin la transacción de @DataJpaTest y limpian la tabla al final de cada una.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ImportadorServicios.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ImportadorServiciosTest {
+
+    // Validación mínima: asigna ID si no trae y exige costo positivo
+    private static final Consumer<Servicio> VALIDAR = servicio -> {
+        if (servicio.getId() == null || servicio.getId().isEmpty()) {
+            servicio.setId(Identificadores.nuevo());
+        }
+        if (servicio.getCostoCentavos() <= 0) {
+            throw new IllegalArgumentException("El costo del servicio debe ser mayor que cero");
+        }
+    };
+
+    @Autowired
+    private ImportadorServicios importador;
+
+    @Autowired
+    private ServicioRepository servicioRepository;
+
+    @AfterEach
+    public void limpiar() {
+        servicioRepository.deleteAll();
+    }
+
+    @Test
+    public void testImportar_CreaYActualiza() throws IOException {
+        // Preparar: un servicio existente que el archivo cambia de precio
+        Servicio existente = servicioRepository.save(new Servicio(Identificadores.nuevo(), "Consulta", 15000.0));
+        String csv = "﻿id,nombre,costo\n"
+            + existente.getId() + ",Consulta general,16000.50\n"
+            + ",\"Vacuna, triple\",20000\n";
+
+        // Ejecutar
+        ResultadoImportacionServicios resultado = importar(csv);
+
+        // Verificar
+        assertEquals(2, resultado.getImportados());
+        assertEquals(0, resultado.getRechazados());
+        assertEquals(2, servicioRepository.count());
+        Servicio actualizado = servicioRepository.findById(existente.getId()).orElseThrow();
+        assertEquals("Consulta general", actualizado.getNombre());
+        assertEquals(1600050, actualizado.getCostoCentavos());
+    }
+
+    @Test
+    public void testImportar_RegistraElMomentoSoloSiCambia() throws IOException {
+        // Preparar
+        Servicio existente = servicioRepository.save(new Servicio(Identificadores.nuevo(), "Consulta", 15000.0));
+        Instant creado = servicioRepository.findById(existente.getId()).orElseThrow().getActualizado();
+
+        // Ejecutar: la misma fila, sin cambios, y luego con otro precio y un servicio nuevo
+        importar("id,nombre,costo\n" + existente.getId() + ",Consulta,15000\n");
+        Instant sinCambios = servicioRepository.findById(existente.getId()).orElseThrow().getActualizado();
+        importar("id,nombre,costo\n" + existente.getId() + ",Consulta,16000\n,Vacuna,20000\n");
+
+        // Verificar: solo la importación que cambió algo mueve el momento del último cambio
+        assertEquals(creado, sinCambios);
+        assertTrue(servicioRepository.findById(existente.getId()).orElseThrow().getActualizado().isAfter(creado));
+        Servicio vacuna = servicioRepository.findAll().stream()
+            .filter(servicio -> servicio.getNombre().equals("Vacuna"))
+            .findFirst().orElseThrow();
+        assertNotNull(vacuna.getCreado());
+        assertEquals(vacuna.getCreado(), vacuna.getActualizado());
+    }
+
+    @Test
+    public void testImportar_RechazaFilasInvalidas() throws IOException {
+        // Preparar: costo no numérico, costo cero y una fila válida
+        String csv = "nombre,costo\n"
+            + "Consulta,abc\n"
+            + "Vacuna,0\n"
+            + "\n"
+            + "Cirugía,90000\n";
+
+        // Ejecutar
+        ResultadoImportacionServicios resultado = importar(csv);
+
+        // Verificar: las filas se numeran contando el encabezado
+        assertEquals(1, resultado.getImportados());
+        assertEquals(2, resultado.getRechazados());
+        assertEquals(2, resultado.getFilasRechazadas().get(0).getFila());
+        assertTrue(resultado.getFilasRechazadas().get(0).getError().contains("no es un número"));
+        assertEquals(3, resultado.getFilasRechazadas().get(1).getFila());
+    }
+
+    @Test
+    public void testImportar_CampoEnVariasLineas() throws IOException {
+        // Preparar: un nombre con salto de línea, como los que escribe la exportación,
+        // y al final una comilla que nunca se cierra
+        String csv = "nombre,costo\n"
+            + "\"Vacuna\ntriple\",20000\n"
+            + "Consulta,15000\n"
+            + "\"Cirugía,90000\n";
+
+        // Ejecutar
+        ResultadoImportacionServicios resultado = importar(csv);
+
+        // Verificar: la fila se numera por la línea en que empieza
+        assertEquals(2, resultado.getImportados());
+        assertEquals(1, resultado.getRechazados());
+        assertEquals(5, resultado.getFilasRechazadas().get(0).getFila());
+        assertTrue(resultado.getFilasRechazadas().get(0).getError().contains("comillas sin cerrar"));
+        assertTrue(servicioRepository.findAll().stream()
+            .anyMatch(servicio -> servicio.getNombre().equals("Vacuna\ntriple")));
+    }
+
+    @Test
+    public void testImportar_VariosTramos() throws IOException {
+        // Preparar: más filas que las de un tramo
+        int cantidad = ImportadorServicios.FILAS_POR_TRAMO + 5;
+        StringBuilder csv = new StringBuilder("nombre,costo\n");
+        for (int i = 0; i < cantidad; i++) {
+            csv.append("Servicio ").append(i).append(",100\n");
+        }
+
+        // Ejecutar
+        ResultadoImportacionServicios resultado = importar(csv.toString());
+
+        // Verificar
+        assertEquals(cantidad, resultado.getImportados());
+        assertEquals(cantidad, servicioRepository.count());
+    }
+
+    @Test
+    public void testImportar_SinColumnasObligatorias() {
+        // Ejecutar y Verificar
+        assertThrows(IllegalArgumentException.class, () -> importar("id,precio\n1,2\n"));
+        assertThrows(IllegalArgumentException.class, () -> importar(""));
+    }
+
+    @Test
+    public void testSepararCampos_ConComillas() {
+        // Ejecutar y Verificar
+        assertEquals(Arrays.asList("a", "b, c", "d \"e\"", ""),
+            ImportadorServicios.separarCampos("a,\"b, c\",\"d \"\"e\"\"\","));
+        assertThrows(IllegalArgumentException.class, () -> ImportadorServicios.separarCampos("\"abierta"));
+    }
+
+    private ResultadoImportacionServicios importar(String csv) throws IOException {
+        return importador.importar(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), VALIDAR);
+    }
+}